@@ -0,0 +1,97 @@
+package com.eking.flow.benchmark;
+
+import com.eking.flow.benchmark.FlowExecutionBenchmark.BenchmarkContext;
+import com.eking.flow.benchmark.FlowExecutionBenchmark.FixedRouterComponent;
+import com.eking.flow.benchmark.FlowExecutionBenchmark.NoopComponent;
+import com.eking.flow.bus.FlowBus;
+import com.eking.flow.executor.FlowExecutor;
+import com.eking.flow.response.EkingflowResponse;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 条件分支只执行被选中的一侧：未选中分支的规模不应影响执行耗时。
+ * <ul>
+ *     <li>untaken - s1 -> router ? taken : (u1 -> ... -> uN, (p1 ? q1 : r1), ...) -> s2，路由选择 taken，
+ *     未选中的分支由 depth 个组件的顺序链、嵌套并行分组和嵌套条件组成</li>
+ *     <li>takenPathOnly - s1 -> router -> taken -> s2，只包含实际执行路径的参照流程</li>
+ * </ul>
+ * untaken 在各个 depth 下的耗时应与 takenPathOnly 基本一致。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConditionalBranchBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int depth;
+
+    private FlowExecutor flowExecutor;
+    private String untakenFlow;
+
+    @Setup
+    public void setup() {
+        FlowBus flowBus = FlowBus.getInstance();
+        for (String id : new String[]{"s1", "s2", "taken"}) {
+            flowBus.registerComponent(id, new NoopComponent());
+        }
+        flowBus.registerComponent("router", new FixedRouterComponent("taken"));
+
+        // 未选中的分支：顺序链中每 10 个组件插入一个并行分组和一个嵌套条件
+        StringJoiner untaken = new StringJoiner(" -> ", "(", ")");
+        for (int i = 1; i <= depth; i++) {
+            flowBus.registerComponent("u" + i, new NoopComponent());
+            if (i % 10 == 0) {
+                untaken.add("(u" + i + ", u" + (i - 1) + ")");
+                untaken.add("u" + (i - 2) + " ? u" + (i - 3) + " : u" + (i - 4));
+            } else {
+                untaken.add("u" + i);
+            }
+        }
+
+        untakenFlow = "untaken-" + depth;
+        flowBus.registerFlow(untakenFlow, "s1 -> router ? taken : " + untaken + " -> s2");
+        flowBus.registerFlow("takenPathOnly", "s1 -> router -> taken -> s2");
+
+        flowExecutor = new FlowExecutor(4);
+        // 预热执行计划缓存
+        flowExecutor.execute(untakenFlow, new BenchmarkContext()).release();
+        flowExecutor.execute("takenPathOnly", new BenchmarkContext()).release();
+    }
+
+    @TearDown
+    public void tearDown() {
+        flowExecutor.shutdown();
+    }
+
+    @Benchmark
+    public boolean untaken() {
+        return execute(untakenFlow);
+    }
+
+    @Benchmark
+    public boolean takenPathOnly() {
+        return execute("takenPathOnly");
+    }
+
+    private boolean execute(String flowId) {
+        EkingflowResponse response = flowExecutor.execute(flowId, new BenchmarkContext());
+        boolean success = response.isSuccess();
+        response.release();
+        return success;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ConditionalBranchBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,97 @@
+package com.eking.flow.benchmark;
+
+import com.eking.flow.bus.FlowBus;
+import com.eking.flow.component.NodeComponent;
+import com.eking.flow.component.RoutingNodeComponent;
+import com.eking.flow.context.FlowContext;
+import com.eking.flow.executor.FlowExecutor;
+import com.eking.flow.response.EkingflowResponse;
+import com.eking.flow.routing.RoutingResult;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FlowExecutor.execute 的单次执行耗时，所有组件都是空操作，测量的是引擎自身的开销。
+ * <ul>
+ *     <li>sequential - 5 个组件顺序执行</li>
+ *     <li>conditional - 路由组件选择两个分支之一</li>
+ *     <li>forkJoin - 4 个分支的并行分组，前后各有一个组件</li>
+ * </ul>
+ * 每次执行后释放响应，槽位从槽位池复用。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FlowExecutionBenchmark {
+
+    @Param({"sequential", "conditional", "forkJoin"})
+    public String flow;
+
+    private FlowExecutor flowExecutor;
+
+    @Setup
+    public void setup() {
+        FlowBus flowBus = FlowBus.getInstance();
+        for (String id : new String[]{"s1", "s2", "s3", "s4", "s5", "fork", "b1", "b2", "b3", "b4", "join"}) {
+            flowBus.registerComponent(id, new NoopComponent());
+        }
+        flowBus.registerComponent("router", new FixedRouterComponent("s2"));
+
+        flowBus.registerFlow("sequential", "s1 -> s2 -> s3 -> s4 -> s5");
+        flowBus.registerFlow("conditional", "s1 -> router ? s2 : s3 -> s4");
+        flowBus.registerFlow("forkJoin", "fork -> (b1, b2, b3, b4) -> join");
+
+        flowExecutor = new FlowExecutor(4);
+        // 预热执行计划缓存
+        flowExecutor.execute(flow, new BenchmarkContext()).release();
+    }
+
+    @TearDown
+    public void tearDown() {
+        flowExecutor.shutdown();
+    }
+
+    @Benchmark
+    public boolean execute() {
+        EkingflowResponse response = flowExecutor.execute(flow, new BenchmarkContext());
+        boolean success = response.isSuccess();
+        response.release();
+        return success;
+    }
+
+    static class BenchmarkContext extends FlowContext {
+    }
+
+    static class NoopComponent extends NodeComponent {
+        @Override
+        public void process() {
+        }
+    }
+
+    static class FixedRouterComponent extends RoutingNodeComponent {
+
+        private final String target;
+
+        FixedRouterComponent(String target) {
+            this.target = target;
+        }
+
+        @Override
+        public RoutingResult route() {
+            return RoutingResult.continueTo(target);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(FlowExecutionBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
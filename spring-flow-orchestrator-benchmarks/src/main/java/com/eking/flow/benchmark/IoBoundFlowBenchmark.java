@@ -0,0 +1,90 @@
+package com.eking.flow.benchmark;
+
+import com.eking.flow.bus.FlowBus;
+import com.eking.flow.component.NodeComponent;
+import com.eking.flow.context.FlowContext;
+import com.eking.flow.execution.ExecutorMode;
+import com.eking.flow.executor.FlowExecutor;
+import com.eking.flow.response.EkingflowResponse;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 10000 个并发的I/O密集型流程的完成时间。
+ * 流程由两个各阻塞 {@value #IO_MILLIS}ms 的组件组成（模拟调用下游服务），
+ * 全部通过 executeAsync 提交后等待所有流程完成，对比 PLATFORM（64 线程）和 VIRTUAL 两种执行模式。
+ * 每次调用完成 {@value #FLOWS} 个流程，吞吐量 = FLOWS / 单次耗时。
+ * VIRTUAL 模式需要 JDK 21 及以上运行，否则回退为平台线程池，两组结果相同。
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IoBoundFlowBenchmark {
+
+    static final int FLOWS = 10_000;
+    static final int IO_MILLIS = 10;
+
+    @Param({"PLATFORM", "VIRTUAL"})
+    public ExecutorMode mode;
+
+    private FlowExecutor flowExecutor;
+
+    @Setup
+    public void setup() {
+        FlowBus flowBus = FlowBus.getInstance();
+        flowBus.registerComponent("callInventory", new BlockingComponent());
+        flowBus.registerComponent("callPayment", new BlockingComponent());
+        flowBus.registerFlow("ioBound", "callInventory -> callPayment");
+        flowExecutor = new FlowExecutor(mode, 64);
+    }
+
+    @TearDown
+    public void tearDown() {
+        flowExecutor.shutdown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FLOWS)
+    public int executeConcurrently() {
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[FLOWS];
+        for (int i = 0; i < FLOWS; i++) {
+            futures[i] = flowExecutor.executeAsync("ioBound", new BenchmarkContext());
+        }
+        CompletableFuture.allOf(futures).join();
+
+        int succeeded = 0;
+        for (CompletableFuture<?> future : futures) {
+            if (((EkingflowResponse) future.join()).isSuccess()) {
+                succeeded++;
+            }
+        }
+        return succeeded;
+    }
+
+    static class BenchmarkContext extends FlowContext {
+    }
+
+    /**
+     * 阻塞等待的组件，模拟同步调用下游服务
+     */
+    static class BlockingComponent extends NodeComponent {
+        @Override
+        public void process() throws Exception {
+            Thread.sleep(IO_MILLIS);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(IoBoundFlowBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,77 @@
+package com.eking.flow.benchmark;
+
+import com.eking.flow.bus.FlowBus;
+import com.eking.flow.component.NodeComponent;
+import com.eking.flow.context.FlowContext;
+import com.eking.flow.executor.FlowExecutor;
+import com.eking.flow.response.EkingflowResponse;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 通过 FlowExecutor 执行只含一个并行分组的流程，分支宽度为 {@code width}，所有分支都是空操作。
+ * 测量的是执行图分发分支到线程池、等待分支完成以及轨迹合并的固定开销。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParallelExecutorBenchmark {
+
+    @Param({"2", "4", "8", "16"})
+    public int width;
+
+    private FlowExecutor flowExecutor;
+    private String flowId;
+
+    @Setup
+    public void setup() {
+        FlowBus flowBus = FlowBus.getInstance();
+        StringJoiner branches = new StringJoiner(", ", "(", ")");
+        for (int i = 0; i < width; i++) {
+            flowBus.registerComponent("branch" + i, new NoopComponent());
+            branches.add("branch" + i);
+        }
+        flowId = "fanOut" + width;
+        flowBus.registerFlow(flowId, branches.toString());
+
+        flowExecutor = new FlowExecutor(16);
+        // 预热执行计划缓存
+        flowExecutor.execute(flowId, new BenchmarkContext()).release();
+    }
+
+    @TearDown
+    public void tearDown() {
+        flowExecutor.shutdown();
+    }
+
+    @Benchmark
+    public boolean fanOut() {
+        EkingflowResponse response = flowExecutor.execute(flowId, new BenchmarkContext());
+        boolean success = response.isSuccess();
+        response.release();
+        return success;
+    }
+
+    static class BenchmarkContext extends FlowContext {
+    }
+
+    static class NoopComponent extends NodeComponent {
+        @Override
+        public void process() {
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ParallelExecutorBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,83 @@
+package com.eking.flow.benchmark;
+
+import com.eking.flow.execution.ExecutionPlan;
+import com.eking.flow.parser.ANTLR4FlowParser;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ANTLR4FlowParser.parse 的耗时。
+ * <ul>
+ *     <li>small - 单行条件表达式，对应常见的业务流程</li>
+ *     <li>large - {@value #LARGE_SEGMENTS} 段串联，每段包含并行分组和条件分支，约 350 个组件</li>
+ *     <li>corpus - 依次解析 ParserCorpus 中的全部表达式</li>
+ * </ul>
+ * mode 为 sllFirst 时先用 SLL 预测模式解析，失败才回退到 LL；llOnly 总是使用完整的 LL 预测模式。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParserBenchmark {
+
+    static final String SMALL_EXPRESSION = "validate -> router ? approve : reject -> notify";
+
+    static final int LARGE_SEGMENTS = 50;
+
+    @Param({"small", "large", "corpus"})
+    public String size;
+
+    @Param({"sllFirst", "llOnly"})
+    public String mode;
+
+    private List<String> expressions;
+    private ANTLR4FlowParser parser;
+
+    @Setup
+    public void setup() {
+        if ("corpus".equals(size)) {
+            expressions = ParserCorpus.expressions();
+        } else {
+            expressions = List.of("small".equals(size) ? SMALL_EXPRESSION : largeExpression(LARGE_SEGMENTS));
+        }
+        parser = new ANTLR4FlowParser("sllFirst".equals(mode));
+    }
+
+    @Benchmark
+    public ExecutionPlan parse() {
+        ExecutionPlan plan = null;
+        for (int i = 0; i < expressions.size(); i++) {
+            plan = parser.parse(expressions.get(i));
+        }
+        return plan;
+    }
+
+    /**
+     * 生成由多段 "a -> (b, c -> d) -> r ? t : f" 串联而成的表达式
+     */
+    static String largeExpression(int segments) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < segments; i++) {
+            if (i > 0) {
+                builder.append(" -> ");
+            }
+            builder.append("a").append(i)
+                    .append(" -> (b").append(i).append(", c").append(i).append(" -> d").append(i).append(")")
+                    .append(" -> r").append(i).append(" ? t").append(i).append(" : f").append(i);
+        }
+        return builder.toString();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ParserBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
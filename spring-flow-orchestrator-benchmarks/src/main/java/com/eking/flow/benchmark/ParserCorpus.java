@@ -0,0 +1,58 @@
+package com.eking.flow.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 解析基准使用的表达式语料：示例应用、文档和基准中实际使用的流程，以及生成的大型表达式。
+ * 两种解析方式生成相同语法树的校验在核心模块的 ParserModeTest 中。
+ */
+public final class ParserCorpus {
+
+    /**
+     * 示例应用、文档和基准中的流程表达式
+     */
+    private static final String[] EXPRESSIONS = {
+            "validateOrder -> orderAmountRouter -> sendConfirmation",
+            "validateOrder -> orderProcessingFork -> (processInventory, processPayment, sendNotification) -> orderAggregationJoin",
+            "A->B->D->(F1,F2) -> G->H->I->J",
+            "A->B->C?E:H->I->J",
+            "A->B->C?D:E->H->I->J",
+            "A->(F1->F2, F3->F4?F5:F6)-> X->Y",
+            "A -> (B -> C, D -> E ? F : G) -> H -> I",
+            "A -> (B->C, D->E?F:G) -> H?I:J -> K",
+            "A -> (B, C -> D, E)[2] -> F",
+            "A -> B ? C : D",
+            "X = A -> B ? C : D\nM -> X -> N",
+            "start -> validate -> process -> end",
+            "receiveData -> validate -> createRecord",
+            "stamp -> router -> verify",
+            "validate -> router ? approve : reject -> notify",
+            "s1 -> s2 -> s3 -> s4 -> s5",
+            "s1 -> router ? s2 : s3 -> s4",
+            "fork -> (b1, b2, b3, b4) -> join",
+            "a -> b ? c : d -> e",
+            "a -> (b, c -> d) -> r ? t : f",
+            "A -> rF ? ((rT ? C : E) -> G) : D -> F",
+            "A -> rT ? C : (rF ? C : (rT ? C : D) -> E) -> F",
+            "A -> (rT ? C : (D, E), rF ? G : (H, X))[1] -> Y",
+            "(A, B) -> C",
+            "(A) -> (B) -> ((C))",
+            "X = A -> B\n(Y) -> C",
+            "A -> flow(checkout) -> B",
+            "flowA -> flow(checkout) ? C : D",
+    };
+
+    private ParserCorpus() {
+    }
+
+    /**
+     * 获取语料：固定表达式，加上 ParserBenchmark 的大型表达式
+     */
+    public static List<String> expressions() {
+        List<String> corpus = new ArrayList<>(List.of(EXPRESSIONS));
+        corpus.add(ParserBenchmark.largeExpression(ParserBenchmark.LARGE_SEGMENTS));
+        return Collections.unmodifiableList(corpus);
+    }
+}
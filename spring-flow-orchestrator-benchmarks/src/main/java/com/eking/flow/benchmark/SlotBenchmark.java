@@ -0,0 +1,140 @@
+package com.eking.flow.benchmark;
+
+import com.eking.flow.slot.Slot;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Slot 数据存储读写吞吐量。
+ * 对比三种存储：
+ * <ul>
+ *     <li>slot - 当前 Slot（ConcurrentHashMap）</li>
+ *     <li>synchronized - 全局锁保护的 HashMap</li>
+ *     <li>hashmap - 之前的 HashMap 存储，非线程安全，只在单线程下有意义</li>
+ * </ul>
+ * 运行 main() 依次以 1、8、64 个线程执行，也可以通过 java -jar benchmarks.jar SlotBenchmark -t N 手动指定。
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SlotBenchmark {
+
+    private static final int KEY_COUNT = 64;
+    private static final String[] KEYS = new String[KEY_COUNT];
+
+    static {
+        for (int i = 0; i < KEY_COUNT; i++) {
+            KEYS[i] = "key-" + i;
+        }
+    }
+
+    /**
+     * 存储抽象，使不同实现可以在同一组基准方法中比较
+     */
+    interface Store {
+        Object get(String key);
+
+        void set(String key, Object value);
+    }
+
+    @State(Scope.Benchmark)
+    public static class SharedStore {
+
+        @Param({"slot", "synchronized", "hashmap"})
+        public String store;
+
+        Store target;
+
+        @Setup
+        public void setup() {
+            switch (store) {
+                case "slot" -> {
+                    Slot slot = new Slot();
+                    target = new Store() {
+                        public Object get(String key) {
+                            return slot.getData(key);
+                        }
+
+                        public void set(String key, Object value) {
+                            slot.setData(key, value);
+                        }
+                    };
+                }
+                case "synchronized" -> target = mapStore(Collections.synchronizedMap(new HashMap<>()));
+                case "hashmap" -> target = mapStore(new HashMap<>());
+                default -> throw new IllegalArgumentException("Unknown store: " + store);
+            }
+            for (String key : KEYS) {
+                target.set(key, key);
+            }
+        }
+
+        private static Store mapStore(Map<String, Object> map) {
+            return new Store() {
+                public Object get(String key) {
+                    return map.get(key);
+                }
+
+                public void set(String key, Object value) {
+                    map.put(key, value);
+                }
+            };
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+
+        String nextKey() {
+            return KEYS[(next++) & (KEY_COUNT - 1)];
+        }
+    }
+
+    @Benchmark
+    public Object read(SharedStore shared, Cursor cursor) {
+        return shared.target.get(cursor.nextKey());
+    }
+
+    @Benchmark
+    public void write(SharedStore shared, Cursor cursor) {
+        String key = cursor.nextKey();
+        shared.target.set(key, key);
+    }
+
+    /**
+     * 读多写少的混合负载：每 8 次操作中 1 次写入
+     */
+    @Benchmark
+    public Object mixed(SharedStore shared, Cursor cursor) {
+        String key = cursor.nextKey();
+        if ((cursor.next & 7) == 0) {
+            shared.target.set(key, key);
+            return key;
+        }
+        return shared.target.get(key);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        for (int threads : new int[]{1, 8, 64}) {
+            OptionsBuilder options = new OptionsBuilder();
+            options.include(SlotBenchmark.class.getSimpleName()).threads(threads);
+            if (threads > 1) {
+                // 普通 HashMap 在并发写入下会损坏，只比较线程安全的实现
+                options.param("store", "slot", "synchronized");
+            }
+            Options built = options.build();
+            new Runner(built).run();
+        }
+    }
+}
@@ -24,12 +24,16 @@ conditional: parallel (QMARK conditional COLON conditional)?;
 
 // 并行：一个'atom'单元，或由括号包裹的、逗号分隔的多个流程
 // '()' 和 ',' 的优先级高于 '?' 和 ':'
+// 可选的 [n] 限制该组最多同时执行 n 个分支，如 (A, B, C)[2]
 parallel: atom
-        | LPAREN flow (COMMA flow)* RPAREN
+        | LPAREN flow (COMMA flow)* RPAREN (LBRACK INT RBRACK)?
         ;
 
 // 原子：最基本的单元，可以是一个组件ID，也可以是括号包裹的流程（用于提升优先级）
-atom: ID
+// 或对其他已注册流程的引用，如 flow(checkout)；
+// 引用使用关键字 FLOW，'X = A -> B' 之后的 '(Y) -> C' 仍是一条独立语句，而不是 B(Y)
+atom: FLOW LPAREN ID RPAREN
+    | ID
     | LPAREN flow RPAREN
     ;
 
@@ -48,9 +52,17 @@ COMMA: ',';
 EQ   : '=';
 LPAREN: '(';
 RPAREN: ')';
+LBRACK: '[';
+RBRACK: ']';
+
+// 子流程引用关键字，必须在 ID 之前定义，flow 不能再用作组件/变量名
+FLOW: 'flow';
 
 // 组件/变量名：以字母或下划线开头，后跟字母、数字或下划线
 ID: [a-zA-Z_] [a-zA-Z_0-9]*;
 
+// 并发数限制
+INT: [0-9]+;
+
 // 忽略空白字符（空格、制表符、换行符）
 WS: [ \t\r\n]+ -> skip;
\ No newline at end of file
@@ -0,0 +1,124 @@
+package com.eking.flow.aop;
+
+import com.eking.flow.annontation.TargetedListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotationUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 组件监听器分发表，由 FlowExecutor 在组件生命周期方法返回后直接调用。
+ *
+ * 监听器通过 @TargetedListener 声明关注的组件类型，按 getOrder() 从小到大通知。
+ * 每个组件类型的监听器数组只在第一次遇到该类型时筛选、排序一次并缓存，
+ * 之后每次通知只是一次数组遍历，不再查找注解、创建流或排序。
+ */
+public class ComponentListenerDispatcher {
+
+    private static final BeforeListener[] NO_BEFORE = new BeforeListener[0];
+    private static final AfterListener[] NO_AFTER = new AfterListener[0];
+    private static final ErrorListener[] NO_ERROR = new ErrorListener[0];
+
+    private final List<BeforeListener> beforeListeners;
+    private final List<AfterListener> afterListeners;
+    private final List<ErrorListener> errorListeners;
+
+    /**
+     * 组件类型 -> 该类型的监听器数组
+     */
+    private final ClassValue<Listeners> listenersByClass = new ClassValue<>() {
+        @Override
+        protected Listeners computeValue(Class<?> componentClass) {
+            return new Listeners(
+                    select(beforeListeners, componentClass).toArray(NO_BEFORE),
+                    select(afterListeners, componentClass).toArray(NO_AFTER),
+                    select(errorListeners, componentClass).toArray(NO_ERROR));
+        }
+    };
+
+    public ComponentListenerDispatcher(List<BeforeListener> beforeListeners, List<AfterListener> afterListeners,
+                                       List<ErrorListener> errorListeners) {
+        this.beforeListeners = copy(beforeListeners);
+        this.afterListeners = copy(afterListeners);
+        this.errorListeners = copy(errorListeners);
+    }
+
+    /**
+     * 是否没有任何监听器
+     */
+    public boolean isEmpty() {
+        return beforeListeners.isEmpty() && afterListeners.isEmpty() && errorListeners.isEmpty();
+    }
+
+    /**
+     * 预先计算组件类型的监听器数组，注册组件或设置分发表时调用，避免在第一次执行时计算
+     * @param componentClass 组件类型
+     */
+    public void prepare(Class<?> componentClass) {
+        listenersByClass.get(componentClass);
+    }
+
+    /**
+     * 组件 beforeProcess() 返回后通知
+     */
+    public void fireBefore(Object component) {
+        for (BeforeListener listener : listenersByClass.get(component.getClass()).before) {
+            listener.onBefore(component);
+        }
+    }
+
+    /**
+     * 组件 afterProcess() 返回后通知
+     */
+    public void fireAfter(Object component) {
+        for (AfterListener listener : listenersByClass.get(component.getClass()).after) {
+            listener.onAfter(component);
+        }
+    }
+
+    /**
+     * 组件 onError() 返回后通知
+     */
+    public void fireError(Object component) {
+        for (ErrorListener listener : listenersByClass.get(component.getClass()).error) {
+            listener.onError(component);
+        }
+    }
+
+    /**
+     * 筛选注解了 @TargetedListener 且目标类型匹配的监听器，并按 getOrder() 排序
+     */
+    private static <T extends Ordered> List<T> select(List<T> listeners, Class<?> componentClass) {
+        List<T> selected = new ArrayList<>();
+        for (T listener : listeners) {
+            TargetedListener annotation = AnnotationUtils.findAnnotation(listener.getClass(), TargetedListener.class);
+            if (annotation != null && annotation.value().isAssignableFrom(componentClass)) {
+                selected.add(listener);
+            }
+        }
+        selected.sort(Comparator.comparingInt(Ordered::getOrder));
+        return selected;
+    }
+
+    private static <T> List<T> copy(List<T> listeners) {
+        return listeners != null ? List.copyOf(listeners) : Collections.emptyList();
+    }
+
+    /**
+     * 一个组件类型的监听器数组
+     */
+    private static final class Listeners {
+        private final BeforeListener[] before;
+        private final AfterListener[] after;
+        private final ErrorListener[] error;
+
+        Listeners(BeforeListener[] before, AfterListener[] after, ErrorListener[] error) {
+            this.before = before;
+            this.after = after;
+            this.error = error;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.eking.flow.ast;
 
 import com.eking.flow.execution.ExecutionPlan;
+import com.eking.flow.execution.FlowGraph;
 
 import java.util.List;
 
@@ -91,4 +92,29 @@ public class ConditionalComponent implements FlowComponent {
 
         return result;
     }
+
+    /**
+     * 追加到执行图：条件部分的最后一个节点作为条件节点，真分支和假分支都以它为前驱，
+     * 各自占据一段连续编号，执行时只激活路由选中的一段
+     */
+    @Override
+    public int[] appendTo(FlowGraph.Builder builder, int[] predecessors) {
+        int[] conditionExits = condition.appendTo(builder, predecessors);
+        int router = conditionExits.length == 1
+                ? conditionExits[0]
+                : builder.addBarrier(condition.toString(), conditionExits);
+        int[] routerOnly = new int[]{router};
+
+        int trueStart = builder.size();
+        int[] trueExits = trueBranch.appendTo(builder, routerOnly);
+        int falseStart = builder.size();
+        int[] falseExits = falseBranch.appendTo(builder, routerOnly);
+        builder.addCondition(router, trueStart, falseStart);
+
+        // 两个分支只有一个会执行，后续步骤依赖两个分支的出口，被跳过的一侧视为已完成
+        int[] exits = new int[trueExits.length + falseExits.length];
+        System.arraycopy(trueExits, 0, exits, 0, trueExits.length);
+        System.arraycopy(falseExits, 0, exits, trueExits.length, falseExits.length);
+        return exits;
+    }
 }
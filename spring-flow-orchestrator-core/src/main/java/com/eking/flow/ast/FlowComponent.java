@@ -1,6 +1,7 @@
 package com.eking.flow.ast;
 
 import com.eking.flow.execution.ExecutionPlan;
+import com.eking.flow.execution.FlowGraph;
 
 /**
  *
@@ -19,4 +20,13 @@ public interface FlowComponent {
      * @return 执行计划
      */
     ExecutionPlan toExecutionPlan();
+
+    /**
+     *
+     * 将组件追加到执行图中
+     * @param builder 执行图构建器
+     * @param predecessors 该组件入口节点的前驱节点编号
+     * @return 该组件的出口节点编号，后续步骤依赖这些节点
+     */
+    int[] appendTo(FlowGraph.Builder builder, int[] predecessors);
 }
@@ -1,13 +1,14 @@
 package com.eking.flow.ast;
 
 import com.eking.flow.execution.ExecutionPlan;
+import com.eking.flow.execution.FlowGraph;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
 /**
  *
- * 并行组件表示并行执行：(A, B, C)
+ * 并行组件表示并行执行：(A, B, C)，可以用 (A, B, C)[2] 限制同时执行的分支数
  * 或者 FORK...JOIN 模式
  */
 public class ParallelComponent implements FlowComponent {
@@ -23,15 +24,31 @@ public class ParallelComponent implements FlowComponent {
      * 并行分支的JOIN节点ID
      */
     private final String joinNodeId;
+    /**
+     * 最多同时执行的分支数，0 表示使用执行图的默认值
+     */
+    private final int maxConcurrency;
 
     public ParallelComponent(List<FlowComponent> branches) {
-        this(branches, null, null);
+        this(branches, null, null, 0);
+    }
+
+    public ParallelComponent(List<FlowComponent> branches, int maxConcurrency) {
+        this(branches, null, null, maxConcurrency);
     }
 
     public ParallelComponent(List<FlowComponent> branches, String forkNodeId, String joinNodeId) {
+        this(branches, forkNodeId, joinNodeId, 0);
+    }
+
+    public ParallelComponent(List<FlowComponent> branches, String forkNodeId, String joinNodeId, int maxConcurrency) {
+        if (maxConcurrency < 0) {
+            throw new IllegalArgumentException("Invalid parallel concurrency limit: " + maxConcurrency);
+        }
         this.branches = branches;
         this.forkNodeId = forkNodeId;
         this.joinNodeId = joinNodeId;
+        this.maxConcurrency = maxConcurrency;
     }
 
     public List<FlowComponent> getBranches() {
@@ -46,6 +63,10 @@ public class ParallelComponent implements FlowComponent {
         return joinNodeId;
     }
 
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
     @Override
     public String toString() {
         if (forkNodeId != null && joinNodeId != null) {
@@ -54,7 +75,8 @@ public class ParallelComponent implements FlowComponent {
                 branches.stream().map(Object::toString).collect(Collectors.joining(", ")),
                 joinNodeId);
         }
-        return "(" + branches.stream().map(Object::toString).collect(Collectors.joining(", ")) + ")";
+        return "(" + branches.stream().map(Object::toString).collect(Collectors.joining(", ")) + ")"
+                + (maxConcurrency > 0 ? "[" + maxConcurrency + "]" : "");
     }
 
     @Override
@@ -96,4 +118,46 @@ public class ParallelComponent implements FlowComponent {
 
         return result;
     }
+
+    /**
+     * 追加到执行图：所有分支依赖同一组前驱，分支之后由JOIN节点或屏障节点汇聚，
+     * 后续步骤只需要依赖这一个节点。
+     * 限制并发数为 n 且分支多于 n 个时，登记为受限分组，执行时最多 n 个分支同时执行，
+     * 分支之间不增加依赖，因此不会改变哪些分支被激活
+     */
+    @Override
+    public int[] appendTo(FlowGraph.Builder builder, int[] predecessors) {
+        int[] branchPredecessors = predecessors;
+        if (forkNodeId != null) {
+            branchPredecessors = new int[]{builder.addComponent(forkNodeId, predecessors)};
+        }
+
+        int lanes = builder.getMaxConcurrency(maxConcurrency);
+        int[] branchStarts = new int[branches.size()];
+        List<int[]> branchExits = new ArrayList<>(branches.size());
+        int exitCount = 0;
+        for (int i = 0; i < branches.size(); i++) {
+            branchStarts[i] = builder.size();
+            int[] exits = branches.get(i).appendTo(builder, branchPredecessors);
+            branchExits.add(exits);
+            exitCount += exits.length;
+        }
+        if (lanes > 0 && branches.size() > lanes) {
+            builder.addLanes(toString(), lanes, branchStarts, branchExits);
+        }
+        int[] exits = new int[exitCount];
+        int offset = 0;
+        for (int[] branch : branchExits) {
+            System.arraycopy(branch, 0, exits, offset, branch.length);
+            offset += branch.length;
+        }
+
+        if (joinNodeId != null) {
+            return new int[]{builder.addComponent(joinNodeId, exits)};
+        }
+        if (exits.length == 1) {
+            return exits;
+        }
+        return new int[]{builder.addBarrier(toString(), exits)};
+    }
 }
@@ -1,6 +1,7 @@
 package com.eking.flow.ast;
 
 import com.eking.flow.execution.ExecutionPlan;
+import com.eking.flow.execution.FlowGraph;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -56,4 +57,16 @@ public class SequenceComponent implements FlowComponent {
 
         return result;
     }
+
+    /**
+     * 追加到执行图：每一步依赖上一步的出口节点
+     */
+    @Override
+    public int[] appendTo(FlowGraph.Builder builder, int[] predecessors) {
+        int[] exits = predecessors;
+        for (FlowComponent step : steps) {
+            exits = step.appendTo(builder, exits);
+        }
+        return exits;
+    }
 }
@@ -1,6 +1,7 @@
 package com.eking.flow.ast;
 
 import com.eking.flow.execution.ExecutionPlan;
+import com.eking.flow.execution.FlowGraph;
 
 /**
  * 简单组件
@@ -28,4 +29,9 @@ public class SimpleComponent implements FlowComponent {
         plan.addSequentialComponent(name);
         return plan;
     }
+
+    @Override
+    public int[] appendTo(FlowGraph.Builder builder, int[] predecessors) {
+        return new int[]{builder.addComponent(name, predecessors)};
+    }
 }
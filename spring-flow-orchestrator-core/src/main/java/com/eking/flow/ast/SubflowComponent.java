@@ -0,0 +1,73 @@
+package com.eking.flow.ast;
+
+import com.eking.flow.execution.ExecutionPlan;
+import com.eking.flow.execution.FlowGraph;
+
+/**
+ * 子流程组件
+ * 子流程组件表示对另一个已注册流程的引用，例如：flow(checkout)
+ * 解析得到的引用尚未链接，由 ExecutionPlanCache 编译时解析为被引用流程的 AST；
+ * 同一版本的子流程 AST 只有一份，被所有引用它的流程共享
+ */
+public class SubflowComponent implements FlowComponent {
+    private final String flowId;
+    private FlowComponent target;
+
+    public SubflowComponent(String flowId) {
+        this.flowId = flowId;
+    }
+
+    public String getFlowId() {
+        return flowId;
+    }
+
+    /**
+     * 获取被引用流程的 AST，尚未链接时返回 null
+     */
+    public FlowComponent getTarget() {
+        return target;
+    }
+
+    public boolean isResolved() {
+        return target != null;
+    }
+
+    /**
+     * 链接到被引用流程的 AST，只能链接一次，须在 AST 发布给其他线程之前完成
+     * @param target 被引用流程的 AST
+     */
+    public void resolve(FlowComponent target) {
+        if (this.target != null) {
+            throw new IllegalStateException("Subflow already resolved: " + this);
+        }
+        this.target = target;
+    }
+
+    @Override
+    public String toString() {
+        return "flow(" + flowId + ")";
+    }
+
+    /**
+     * 子流程的执行计划即被引用流程的执行计划
+     */
+    @Override
+    public ExecutionPlan toExecutionPlan() {
+        return requireTarget().toExecutionPlan();
+    }
+
+    /**
+     * 追加到执行图：被引用流程的节点直接展开在当前位置
+     */
+    @Override
+    public int[] appendTo(FlowGraph.Builder builder, int[] predecessors) {
+        return requireTarget().appendTo(builder, predecessors);
+    }
+
+    private FlowComponent requireTarget() {
+        if (target == null) {
+            throw new IllegalStateException("Subflow is not resolved: " + this);
+        }
+        return target;
+    }
+}
@@ -6,6 +6,7 @@ import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 流程总线，用于注册和管理流程组件和定义
@@ -20,9 +21,19 @@ public class FlowBus {
     private final Map<String, NodeComponent> componentMap;
 
     /**
-     * 流程定义注册表：流程ID -> EL表达式
+     * 流程定义注册表：流程ID -> EL表达式及版本号
      */
-    private final Map<String, String> flowDefinitionMap;
+    private final Map<String, FlowDefinition> flowDefinitionMap;
+
+    /**
+     * 流程定义版本号生成器，全局单调递增
+     */
+    private final AtomicLong flowVersionGenerator = new AtomicLong(0);
+
+    /**
+     * 组件版本号，每次注册或移除组件时递增，已链接的执行计划据此判断是否需要重新链接
+     */
+    private final AtomicLong componentVersion = new AtomicLong(0);
 
     private FlowBus() {
         this.componentMap = new ConcurrentHashMap<>();
@@ -48,6 +59,7 @@ public class FlowBus {
     public void registerComponent(String componentId, NodeComponent component) {
         component.setId(componentId);
         componentMap.put(componentId, component);
+        componentVersion.incrementAndGet();
     }
 
     /**
@@ -73,7 +85,17 @@ public class FlowBus {
      * @param componentId ID of the component to remove
      */
     public void removeComponent(String componentId) {
-        componentMap.remove(componentId);
+        if (componentMap.remove(componentId) != null) {
+            componentVersion.incrementAndGet();
+        }
+    }
+
+    /**
+     * 获取当前组件版本号
+     * @return component registry version
+     */
+    public long getComponentVersion() {
+        return componentVersion.get();
     }
 
     /**
@@ -82,7 +104,13 @@ public class FlowBus {
      * @param elExpression EL expression defining the flow
      */
     public void registerFlow(String flowId, String elExpression) {
-        flowDefinitionMap.put(flowId, elExpression);
+        flowDefinitionMap.compute(flowId, (id, previous) -> {
+            // 表达式未变化时保留原版本号，避免已编译的执行计划失效
+            if (previous != null && previous.getElExpression().equals(elExpression)) {
+                return previous;
+            }
+            return new FlowDefinition(elExpression, flowVersionGenerator.incrementAndGet());
+        });
     }
 
     /**
@@ -91,6 +119,16 @@ public class FlowBus {
      * @return EL expression defining the flow or null if not found
      */
     public String getFlowDefinition(String flowId) {
+        FlowDefinition definition = flowDefinitionMap.get(flowId);
+        return definition != null ? definition.getElExpression() : null;
+    }
+
+    /**
+     * 获取指定ID的流程定义及其版本号
+     * @param flowId ID of the flow
+     * @return flow definition or null if not found
+     */
+    public FlowDefinition getFlow(String flowId) {
         return flowDefinitionMap.get(flowId);
     }
 
@@ -131,6 +169,7 @@ public class FlowBus {
     public void clear() {
         componentMap.clear();
         flowDefinitionMap.clear();
+        componentVersion.incrementAndGet();
     }
 
     /**
@@ -0,0 +1,38 @@
+package com.eking.flow.bus;
+
+/**
+ * 已注册的流程定义：EL表达式及其版本号。
+ * 表达式每次变更都会分配新的版本号，执行计划缓存据此判断是否需要重新编译。
+ */
+public final class FlowDefinition {
+
+    private final String elExpression;
+    private final long version;
+
+    FlowDefinition(String elExpression, long version) {
+        this.elExpression = elExpression;
+        this.version = version;
+    }
+
+    /**
+     * 获取EL表达式
+     */
+    public String getElExpression() {
+        return elExpression;
+    }
+
+    /**
+     * 获取表达式版本号
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    public String toString() {
+        return "FlowDefinition{" +
+                "version=" + version +
+                ", el='" + elExpression + '\'' +
+                '}';
+    }
+}
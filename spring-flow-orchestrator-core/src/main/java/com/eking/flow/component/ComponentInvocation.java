@@ -0,0 +1,132 @@
+package com.eking.flow.component;
+
+import com.eking.flow.context.FlowContext;
+import com.eking.flow.routing.ForkResult;
+import com.eking.flow.slot.Slot;
+
+/**
+ * 组件的一次调用。
+ * 组件是单例的，同一个实例会被多个流程、多个并行分支同时执行，
+ * 因此一次执行所需的槽位和上下文不能存放在组件字段上，而是在调用期间绑定到当前线程。
+ * NodeComponent.getSlot()/getContext() 等方法优先读取当前线程绑定的调用。
+ *
+ * <pre>
+ * try (ComponentInvocation invocation = ComponentInvocation.open(slot, context)) {
+ *     component.process();
+ * }
+ * </pre>
+ */
+public final class ComponentInvocation implements AutoCloseable {
+
+    private static final ThreadLocal<ComponentInvocation> CURRENT = new ThreadLocal<>();
+
+    private final Slot slot;
+    private final FlowContext context;
+    private final Object forkItem;
+    private final ComponentInvocation previous;
+    private String routingTarget;
+    private ForkResult forkResult;
+
+    private ComponentInvocation(Slot slot, FlowContext context, Object forkItem, ComponentInvocation previous) {
+        this.slot = slot;
+        this.context = context;
+        this.forkItem = forkItem;
+        this.previous = previous;
+    }
+
+    /**
+     * 在当前线程上开始一次组件调用。
+     * 调用结束后必须 close()，以恢复之前绑定的调用（支持在组件内部嵌套执行流程）。
+     * @param slot 本次执行的槽位
+     * @param context 本次执行的上下文
+     * @return 组件调用
+     */
+    public static ComponentInvocation open(Slot slot, FlowContext context) {
+        return open(slot, context, null);
+    }
+
+    /**
+     * 在当前线程上开始一次动态分支的组件调用
+     * @param slot 本次执行的槽位
+     * @param context 本次执行的上下文
+     * @param forkItem ForkResult.forEach() 分配给该分支的数据项
+     * @return 组件调用
+     */
+    public static ComponentInvocation open(Slot slot, FlowContext context, Object forkItem) {
+        ComponentInvocation invocation = new ComponentInvocation(slot, context, forkItem, CURRENT.get());
+        CURRENT.set(invocation);
+        return invocation;
+    }
+
+    /**
+     * 获取当前线程正在进行的组件调用
+     * @return 组件调用，不在组件执行过程中时返回 null
+     */
+    public static ComponentInvocation current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 获取本次调用的槽位
+     */
+    public Slot getSlot() {
+        return slot;
+    }
+
+    /**
+     * 获取本次调用的上下文
+     */
+    public FlowContext getContext() {
+        return context;
+    }
+
+    /**
+     * 获取分配给本次调用的数据项
+     * @return 数据项，不是数据驱动的动态分支时返回 null
+     */
+    public Object getForkItem() {
+        return forkItem;
+    }
+
+    /**
+     * 获取路由组件在本次调用中给出的目标组件ID
+     * @return 目标组件ID，停止执行时为 "__STOP__"，没有路由结果时为 null
+     */
+    public String getRoutingTarget() {
+        return routingTarget;
+    }
+
+    /**
+     * 记录路由组件在本次调用中给出的目标组件ID
+     */
+    void setRoutingTarget(String routingTarget) {
+        this.routingTarget = routingTarget;
+    }
+
+    /**
+     * 获取分发组件在本次调用中给出的 fork 结果
+     * @return fork 结果，没有分支时为 null
+     */
+    public ForkResult getForkResult() {
+        return forkResult;
+    }
+
+    /**
+     * 记录分发组件在本次调用中给出的 fork 结果
+     */
+    void setForkResult(ForkResult forkResult) {
+        this.forkResult = forkResult;
+    }
+
+    /**
+     * 结束本次调用，恢复之前绑定的调用
+     */
+    @Override
+    public void close() {
+        if (previous != null) {
+            CURRENT.set(previous);
+        } else {
+            CURRENT.remove();
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.eking.flow.component;
 
 import com.eking.flow.routing.ForkResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -11,9 +13,12 @@ import java.util.List;
  * 子类需要实现 fork() 方法来定义分支逻辑
  * fork() 方法应该返回一个 ForkResult 对象，指定要并行执行的组件 ID 列表
  * 如果返回 null，则表示继续顺序执行后续组件
+ * 流程中没有的分支组件在运行时动态执行，同时执行的分支数受 ForkResult 的并发数限制
  */
 public abstract class ForkNodeComponent extends NodeComponent {
 
+    private static final Logger logger = LoggerFactory.getLogger(ForkNodeComponent.class);
+
     /**
      *
      * 定义分支逻辑，返回要并行执行的组件 ID 列表
@@ -32,8 +37,15 @@ public abstract class ForkNodeComponent extends NodeComponent {
 
         if (result != null) {
             List<String> branchIds = result.getBranchComponentIds();
+            // fork 结果记录在本次调用上，由执行引擎读取；槽位中的分支列表保留给组件查看
+            ComponentInvocation invocation = ComponentInvocation.current();
+            if (invocation != null) {
+                invocation.setForkResult(result);
+            }
             setData("__fork_branches__", branchIds);
-            System.out.println("[ForkNode] Forking into " + branchIds.size() + " branches: " + branchIds);
+            if (logger.isDebugEnabled()) {
+                logger.debug("Forking into {} branches: {}", branchIds.size(), branchIds);
+            }
         }
     }
 
@@ -63,6 +75,13 @@ public abstract class ForkNodeComponent extends NodeComponent {
         return ForkResult.forkTo(branches);
     }
 
+    /**
+     * 为每个数据项创建一个执行同一组件的分支，分支组件通过 getForkItem() 读取数据项
+     */
+    protected ForkResult forkEach(String componentId, List<?> items) {
+        return ForkResult.forEach(componentId, items);
+    }
+
     /**
      * 继续顺序执行后续组件（不实际分支）
      */
@@ -1,5 +1,8 @@
 package com.eking.flow.component;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import java.util.List;
 
 /**
@@ -8,13 +11,15 @@ import java.util.List;
  */
 public abstract class JoinNodeComponent extends NodeComponent {
 
+    private static final Logger logger = LoggerFactory.getLogger(JoinNodeComponent.class);
+
     /**
      *
      * 加入逻辑 - 所有并行分支完成后执行
      * 子类可以覆盖此方法来聚合来自分支的结果
      */
     public void process() throws Exception {
-        System.out.println("[JoinNode] All branches completed, aggregating results...");
+        logger.debug("All branches completed, aggregating results");
     }
 
     /**
@@ -5,7 +5,8 @@ import com.eking.flow.slot.Slot;
 
 /**
  * 基础组件类，所有用户自定义组件必须继承自该类。
- *
+ * 组件通常是单例，执行期间的槽位和上下文通过 ComponentInvocation 绑定到当前线程，
+ * 因此同一个组件实例可以安全地同时服务多个流程和并行分支。
  */
 public abstract class NodeComponent {
 
@@ -64,14 +65,17 @@ public abstract class NodeComponent {
 
     /**
      * 获取当前组件所在的槽位。
+     * 组件执行期间返回本次调用绑定的槽位，否则返回通过 setSlot() 设置的槽位。
      * @return 当前组件所在的槽位
      */
     public Slot getSlot() {
-        return slot;
+        ComponentInvocation invocation = ComponentInvocation.current();
+        return invocation != null ? invocation.getSlot() : slot;
     }
 
     /**
      * 设置当前组件所在的槽位。
+     * 仅在流程引擎之外直接调用组件时使用，引擎执行时以 ComponentInvocation 绑定的槽位为准。
      * @param slot 当前组件所在的槽位
      */
     public void setSlot(Slot slot) {
@@ -80,14 +84,17 @@ public abstract class NodeComponent {
 
     /**
      * 获取当前组件的上下文。
+     * 组件执行期间返回本次调用绑定的上下文，否则返回通过 setContext() 设置的上下文。
      * @return 当前组件的上下文
      */
     public FlowContext getContext() {
-        return context;
+        ComponentInvocation invocation = ComponentInvocation.current();
+        return invocation != null ? invocation.getContext() : context;
     }
 
     /**
      * 设置当前组件的上下文。
+     * 仅在流程引擎之外直接调用组件时使用，引擎执行时以 ComponentInvocation 绑定的上下文为准。
      * @param context 当前组件的上下文
      */
     public void setContext(FlowContext context) {
@@ -100,7 +107,8 @@ public abstract class NodeComponent {
      * @return 对应键的数据值
      */
     public <T> T getData(String key) {
-        return slot != null ? slot.getData(key) : null;
+        Slot current = getSlot();
+        return current != null ? current.getData(key) : null;
     }
 
     /**
@@ -109,11 +117,22 @@ public abstract class NodeComponent {
      * @param value 对应键的数据值
      */
     public void setData(String key, Object value) {
-        if (slot != null) {
-            slot.setData(key, value);
+        Slot current = getSlot();
+        if (current != null) {
+            current.setData(key, value);
         }
     }
 
+    /**
+     * 获取 ForkResult.forEach() 分配给当前分支的数据项。
+     * @return 数据项，不是在数据驱动的动态分支中执行时返回 null
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getForkItem() {
+        ComponentInvocation invocation = ComponentInvocation.current();
+        return invocation != null ? (T) invocation.getForkItem() : null;
+    }
+
     /**
      * 设置当前组件是否继续执行，即使在执行过程中抛出异常。
      * @param continueOnError 是否继续执行
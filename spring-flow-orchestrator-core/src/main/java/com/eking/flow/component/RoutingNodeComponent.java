@@ -33,10 +33,14 @@ public abstract class RoutingNodeComponent extends NodeComponent {
 
         if (result != null && result.shouldContinue()) {
             String targetComponentId = result.getTargetComponentId();
-            if (targetComponentId != null) {
-                setData("__routing_target__", targetComponentId);
+            String target = targetComponentId != null ? targetComponentId : "__STOP__";
+
+            // 路由结果记录在本次调用上，避免并行分支中的多个路由组件通过共享槽位互相覆盖
+            ComponentInvocation invocation = ComponentInvocation.current();
+            if (invocation != null) {
+                invocation.setRoutingTarget(target);
             } else {
-                setData("__routing_target__", "__STOP__");
+                setData("__routing_target__", target);
             }
         }
     }
@@ -0,0 +1,118 @@
+package com.eking.flow.execution;
+
+import com.eking.flow.ast.FlowComponent;
+import com.eking.flow.bus.FlowBus;
+
+import java.util.Map;
+
+/**
+ * 已编译的流程：流程定义在某个版本下解析得到的 AST 和不可变执行计划，
+ * 以及由 AST 构建并链接到当前组件实例的执行图 FlowGraph。
+ * 表达式中的 flow(id) 引用与被引用流程共享同一份 AST，编译时各子流程的版本号记录在 subflowVersions 中。
+ * 由 ExecutionPlanCache 创建并缓存，可在多个线程间安全共享。
+ */
+public final class CompiledFlow {
+
+    private final String flowId;
+    private final String elExpression;
+    private final long version;
+    private final FlowComponent sourceAst;
+    private final FlowComponent ast;
+    private final ExecutionPlan plan;
+    private final long compileTimeNanos;
+    private final FlowGraph graph;
+    private final Map<String, Long> subflowVersions;
+
+    CompiledFlow(String flowId, String elExpression, long version, FlowComponent sourceAst, FlowComponent ast,
+                 ExecutionPlan plan, long compileTimeNanos, FlowGraph graph, Map<String, Long> subflowVersions) {
+        this.flowId = flowId;
+        this.elExpression = elExpression;
+        this.version = version;
+        this.sourceAst = sourceAst;
+        this.ast = ast;
+        this.plan = plan;
+        this.compileTimeNanos = compileTimeNanos;
+        this.graph = graph;
+        this.subflowVersions = subflowVersions;
+    }
+
+    /**
+     * 基于同一 AST 重新构建执行图并链接组件，无需重新解析表达式
+     */
+    CompiledFlow relink(FlowBus flowBus) {
+        return new CompiledFlow(flowId, elExpression, version, sourceAst, ast, plan, compileTimeNanos,
+                FlowGraph.build(ast, flowBus, graph.getDefaultMaxConcurrency()), subflowVersions);
+    }
+
+    /**
+     * 获取流程ID
+     */
+    public String getFlowId() {
+        return flowId;
+    }
+
+    /**
+     * 获取编译时使用的EL表达式
+     */
+    public String getElExpression() {
+        return elExpression;
+    }
+
+    /**
+     * 获取编译时流程定义的版本号
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * 获取不可变的执行计划
+     */
+    public ExecutionPlan getPlan() {
+        return plan;
+    }
+
+    /**
+     * 获取优化后的流程 AST
+     */
+    public FlowComponent getAst() {
+        return ast;
+    }
+
+    /**
+     * 获取优化前的流程 AST，PlanStore 保存它，使读取后的结果只取决于当时的优化流水线
+     */
+    FlowComponent getSourceAst() {
+        return sourceAst;
+    }
+
+    /**
+     * 获取链接到组件实例的执行图
+     */
+    public FlowGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * 获取直接或间接引用的子流程ID -> 编译时的版本号，未引用子流程时为空
+     */
+    public Map<String, Long> getSubflowVersions() {
+        return subflowVersions;
+    }
+
+    /**
+     * 获取编译耗时（纳秒）
+     */
+    public long getCompileTimeNanos() {
+        return compileTimeNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "CompiledFlow{" +
+                "flowId='" + flowId + '\'' +
+                ", version=" + version +
+                ", graph=" + graph +
+                '}';
+    }
+}
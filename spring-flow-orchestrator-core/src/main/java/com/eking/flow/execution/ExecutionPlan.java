@@ -16,6 +16,32 @@ public class ExecutionPlan {
         this.conditionalBranches = new HashMap<>();
         this.parallelBranches = new HashMap<>();
     }
+
+    private ExecutionPlan(List<String> sequentialComponents,
+                          Map<String, ConditionalBranch> conditionalBranches,
+                          Map<String, List<String>> parallelBranches) {
+        this.sequentialComponents = sequentialComponents;
+        this.conditionalBranches = conditionalBranches;
+        this.parallelBranches = parallelBranches;
+    }
+
+    /**
+     * 创建当前执行计划的不可变副本，供缓存后在多个线程间共享。
+     * 副本的所有集合均不可修改，任何修改操作都会抛出 UnsupportedOperationException。
+     * @return 不可变的执行计划
+     */
+    public ExecutionPlan toImmutable() {
+        Map<String, ConditionalBranch> conditional = new HashMap<>();
+        conditionalBranches.forEach((routerId, branch) -> conditional.put(routerId, branch.toImmutable()));
+
+        Map<String, List<String>> parallel = new HashMap<>();
+        parallelBranches.forEach((forkNodeId, branches) -> parallel.put(forkNodeId, List.copyOf(branches)));
+
+        return new ExecutionPlan(
+                List.copyOf(sequentialComponents),
+                Collections.unmodifiableMap(conditional),
+                Collections.unmodifiableMap(parallel));
+    }
     /**
      * 添加一个顺序组件到执行计划中。
      * @param componentId 组件ID
@@ -82,6 +108,23 @@ public class ExecutionPlan {
         return conditionalBranches.get(routerId);
     }
 
+    /**
+     * 获取执行计划引用的所有组件ID，包括顺序组件、并行分支和条件分支目标。
+     * @return 组件ID集合，按首次出现的顺序排列
+     */
+    public Set<String> getComponentIds() {
+        Set<String> componentIds = new LinkedHashSet<>(sequentialComponents);
+        parallelBranches.forEach((forkNodeId, branches) -> {
+            componentIds.add(forkNodeId);
+            componentIds.addAll(branches);
+        });
+        conditionalBranches.forEach((routerId, branch) -> {
+            componentIds.add(routerId);
+            componentIds.addAll(branch.conditionMap.values());
+        });
+        return componentIds;
+    }
+
     /**
      * 表示一个路由组件的条件分支。
      */
@@ -92,6 +135,14 @@ public class ExecutionPlan {
             this.conditionMap = new HashMap<>();
         }
 
+        private ConditionalBranch(Map<String, String> conditionMap) {
+            this.conditionMap = conditionMap;
+        }
+
+        ConditionalBranch toImmutable() {
+            return new ConditionalBranch(Map.copyOf(conditionMap));
+        }
+
         public void addBranch(String condition, String targetComponentId) {
             conditionMap.put(condition, targetComponentId);
         }
@@ -0,0 +1,529 @@
+package com.eking.flow.execution;
+
+import com.eking.flow.ast.ConditionalComponent;
+import com.eking.flow.ast.FlowComponent;
+import com.eking.flow.ast.ParallelComponent;
+import com.eking.flow.ast.SequenceComponent;
+import com.eking.flow.ast.SubflowComponent;
+import com.eking.flow.bus.FlowBus;
+import com.eking.flow.bus.FlowDefinition;
+import com.eking.flow.optimizer.FlowOptimizer;
+import com.eking.flow.parser.ANTLR4FlowParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 执行计划缓存。
+ * 每个流程定义只编译一次，之后的执行直接复用不可变的执行计划。
+ * 缓存项以流程ID为键并记录编译时的定义版本号，FlowBus.registerFlow/removeFlow
+ * 改变表达式后版本号随之变化，下一次获取时自动重新编译或淘汰；
+ * 组件重新注册只会触发重新链接，不会重新解析表达式。
+ * 设置了 PlanStore 时，编译优先从存储读取表达式未变化的流程 AST，跳过解析。
+ *
+ * 表达式可以用 flow(id) 引用其他已注册的流程。每个流程在每个版本下只解析一次，
+ * 其 AST 同时作为该流程自身的 AST 和所有引用方中 flow(id) 的链接目标，内存中只有一份；
+ * 执行图仍在引用处展开子流程的节点，以便与父流程一起调度。
+ * 子流程的表达式变化后，引用它的流程在下一次获取时重新编译；循环引用在编译时以 IllegalArgumentException 报告。
+ * 链接后的 AST 经过 FlowOptimizer 优化再共享和生成执行图，优化前后的执行图节点数累计在缓存统计中；
+ * PlanStore 中保存的是优化前的 AST，读取后按当前的优化流水线重新优化。
+ */
+public class ExecutionPlanCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExecutionPlanCache.class);
+
+    private final FlowBus flowBus;
+    private final ANTLR4FlowParser flowParser;
+    private final Map<String, CompiledFlow> compiledFlows = new ConcurrentHashMap<>();
+    /**
+     * 流程ID -> 正在进行的编译，同一流程的并发未命中等待同一次编译
+     */
+    private final Map<String, CompletableFuture<CompiledFlow>> compilations = new ConcurrentHashMap<>();
+    /**
+     * 流程ID -> 已解析并链接子流程的 AST，由流程自身和引用它的流程共享
+     */
+    private final Map<String, ResolvedFlow> resolvedFlows = new ConcurrentHashMap<>();
+    private volatile int defaultMaxConcurrency;
+    private volatile PlanStore planStore = PlanStore.empty();
+    private volatile FlowOptimizer optimizer = FlowOptimizer.standard();
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder compileCount = new LongAdder();
+    private final LongAdder relinkCount = new LongAdder();
+    private final LongAdder totalCompileTimeNanos = new LongAdder();
+    private final LongAdder storeHitCount = new LongAdder();
+    private final LongAdder nodesBeforeOptimization = new LongAdder();
+    private final LongAdder nodesAfterOptimization = new LongAdder();
+
+    public ExecutionPlanCache(FlowBus flowBus, ANTLR4FlowParser flowParser) {
+        this.flowBus = flowBus;
+        this.flowParser = flowParser;
+    }
+
+    /**
+     * 设置未指定 [n] 的并行分组最多同时执行的分支数，并清空缓存使其对所有流程生效
+     * @param defaultMaxConcurrency 并发数限制，0 表示不限制
+     */
+    public void setDefaultMaxConcurrency(int defaultMaxConcurrency) {
+        if (defaultMaxConcurrency < 0) {
+            throw new IllegalArgumentException("Invalid parallel concurrency limit: " + defaultMaxConcurrency);
+        }
+        this.defaultMaxConcurrency = defaultMaxConcurrency;
+        clear();
+    }
+
+    /**
+     * 获取并行分组的默认并发数限制，0 表示不限制
+     */
+    public int getDefaultMaxConcurrency() {
+        return defaultMaxConcurrency;
+    }
+
+    /**
+     * 设置已编译流程的存储，之后编译的流程优先从存储读取 AST
+     * @param planStore 存储，为 null 时总是解析表达式
+     */
+    public void setPlanStore(PlanStore planStore) {
+        this.planStore = planStore != null ? planStore : PlanStore.empty();
+    }
+
+    /**
+     * 获取已编译流程的存储
+     */
+    public PlanStore getPlanStore() {
+        return planStore;
+    }
+
+    /**
+     * 设置 AST 优化流水线，并清空缓存使其对所有流程生效
+     * @param optimizer 优化流水线，为 null 时不优化
+     */
+    public void setOptimizer(FlowOptimizer optimizer) {
+        this.optimizer = optimizer != null ? optimizer : FlowOptimizer.NONE;
+        clear();
+    }
+
+    /**
+     * 获取 AST 优化流水线
+     */
+    public FlowOptimizer getOptimizer() {
+        return optimizer;
+    }
+
+    /**
+     * 把当前缓存的全部流程写入存储文件，供下次启动时加载
+     * @param file 存储文件
+     * @return 写入的流程数量
+     */
+    public int savePlans(Path file) throws IOException {
+        return PlanStore.write(file, new ArrayList<>(compiledFlows.values()));
+    }
+
+    /**
+     * 获取流程的已编译执行计划，必要时编译并放入缓存。
+     * @param flowId 流程ID
+     * @return 已编译的流程，流程未注册时返回 null
+     */
+    public CompiledFlow get(String flowId) {
+        FlowDefinition definition = flowBus.getFlow(flowId);
+        if (definition == null) {
+            compiledFlows.remove(flowId);
+            return null;
+        }
+
+        long componentVersion = flowBus.getComponentVersion();
+        CompiledFlow cached = compiledFlows.get(flowId);
+        if (isCurrent(cached, definition, componentVersion)) {
+            hitCount.increment();
+            return cached;
+        }
+
+        // 同一流程的并发未命中只编译一次：第一个线程在映射之外编译，其余线程等待它的结果，
+        // 不持有 compiledFlows 的哈希桶锁，其他流程的获取和编译不受影响
+        CompletableFuture<CompiledFlow> compilation = new CompletableFuture<>();
+        CompletableFuture<CompiledFlow> running = compilations.putIfAbsent(flowId, compilation);
+        if (running != null) {
+            hitCount.increment();
+            return await(running);
+        }
+        try {
+            CompiledFlow compiledFlow = compileIfStale(flowId, definition, componentVersion);
+            compilation.complete(compiledFlow);
+            return compiledFlow;
+        } catch (RuntimeException | Error e) {
+            compilation.completeExceptionally(e);
+            throw e;
+        } finally {
+            compilations.remove(flowId, compilation);
+        }
+    }
+
+    /**
+     * 由获得编译权的线程调用：缓存仍过期时重新链接或编译。
+     * 命中和重新链接的开销很小，在 compute 中完成；编译在映射之外进行，完成后按版本合并
+     */
+    private CompiledFlow compileIfStale(String flowId, FlowDefinition definition, long componentVersion) {
+        CompiledFlow cached = compiledFlows.compute(flowId, (id, existing) -> {
+            if (isCurrent(existing, definition, componentVersion)) {
+                hitCount.increment();
+                return existing;
+            }
+            if (existing != null && existing.getVersion() == definition.getVersion()
+                    && isCurrent(existing.getSubflowVersions())) {
+                missCount.increment();
+                relinkCount.increment();
+                return existing.relink(flowBus);
+            }
+            return existing;
+        });
+        if (cached != null && cached.getVersion() == definition.getVersion()
+                && cached.getGraph().getComponentVersion() >= componentVersion
+                && isCurrent(cached.getSubflowVersions())) {
+            return cached;
+        }
+
+        missCount.increment();
+        CompiledFlow compiled = compile(flowId, definition);
+        // 编译期间其他线程可能已经放入了更新版本的定义编译的结果
+        return compiledFlows.merge(flowId, compiled, (existing, created) -> isNewer(existing, created) ? existing : created);
+    }
+
+    /**
+     * 是否由更新的流程定义或组件注册表编译
+     */
+    private static boolean isNewer(CompiledFlow compiledFlow, CompiledFlow other) {
+        if (compiledFlow.getVersion() != other.getVersion()) {
+            return compiledFlow.getVersion() > other.getVersion();
+        }
+        return compiledFlow.getGraph().getComponentVersion() > other.getGraph().getComponentVersion();
+    }
+
+    private static CompiledFlow await(CompletableFuture<CompiledFlow> compilation) {
+        try {
+            return compilation.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    private boolean isCurrent(CompiledFlow compiledFlow, FlowDefinition definition, long componentVersion) {
+        return compiledFlow != null
+                && compiledFlow.getVersion() == definition.getVersion()
+                && compiledFlow.getGraph().getComponentVersion() == componentVersion
+                && isCurrent(compiledFlow.getSubflowVersions());
+    }
+
+    /**
+     * 引用的子流程是否都仍是编译时的版本
+     */
+    private boolean isCurrent(Map<String, Long> subflowVersions) {
+        for (Map.Entry<String, Long> entry : subflowVersions.entrySet()) {
+            FlowDefinition definition = flowBus.getFlow(entry.getKey());
+            if (definition == null || definition.getVersion() != entry.getValue()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 并行编译 FlowBus 中所有已注册的流程，并校验其引用的组件是否均已注册。
+     * 通常在应用启动阶段调用，使首个请求即可直接命中缓存，同时尽早暴露表达式错误。
+     * @param executor 执行编译任务的线程池
+     * @return 流程ID -> 错误描述，全部通过时返回空Map
+     */
+    public Map<String, String> precompile(Executor executor) {
+        List<String> flowIds = flowBus.getFlowIds();
+        Map<String, String> errors = new ConcurrentHashMap<>();
+        long start = System.nanoTime();
+
+        CompletableFuture<?>[] tasks = flowIds.stream()
+                .map(flowId -> CompletableFuture.runAsync(() -> {
+                    try {
+                        CompiledFlow compiledFlow = get(flowId);
+                        if (compiledFlow == null) {
+                            return; // 编译期间被移除
+                        }
+                        List<String> missing = findMissingComponents(compiledFlow);
+                        if (!missing.isEmpty()) {
+                            errors.put(flowId, "Unknown component(s) " + missing
+                                    + " in expression: " + compiledFlow.getElExpression());
+                        }
+                    } catch (Exception e) {
+                        errors.put(flowId, describe(e));
+                    }
+                }, executor))
+                .toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(tasks).join();
+
+        logger.info("Precompiled {} flow(s) in {}ms, {} invalid",
+                flowIds.size(), (System.nanoTime() - start) / 1_000_000, errors.size());
+        return new TreeMap<>(errors);
+    }
+
+    /**
+     * 沿异常链拼接错误描述，已包含在前面描述中的原因不重复
+     */
+    private static String describe(Throwable error) {
+        StringBuilder description = new StringBuilder(String.valueOf(error.getMessage()));
+        for (Throwable cause = error.getCause(); cause != null && cause != error; cause = cause.getCause()) {
+            String message = cause.getMessage();
+            if (message != null && description.indexOf(message) < 0) {
+                description.append(": ").append(message);
+            }
+        }
+        return description.toString();
+    }
+
+    /**
+     * 查找已编译流程中引用但未在 FlowBus 注册的组件
+     * @param compiledFlow 已编译的流程
+     * @return 未注册的组件ID列表
+     */
+    public List<String> findMissingComponents(CompiledFlow compiledFlow) {
+        List<String> missing = new ArrayList<>();
+        for (String componentId : compiledFlow.getPlan().getComponentIds()) {
+            if (!flowBus.hasComponent(componentId)) {
+                missing.add(componentId);
+            }
+        }
+        return missing;
+    }
+
+    /**
+     * 使指定流程的缓存失效
+     * @param flowId 流程ID
+     */
+    public void invalidate(String flowId) {
+        compiledFlows.remove(flowId);
+        resolvedFlows.remove(flowId);
+    }
+
+    /**
+     * 清空所有缓存
+     */
+    public void clear() {
+        compiledFlows.clear();
+        resolvedFlows.clear();
+    }
+
+    /**
+     * 获取当前缓存的流程数量
+     */
+    public int size() {
+        return compiledFlows.size();
+    }
+
+    /**
+     * 获取缓存命中次数
+     */
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * 获取缓存未命中次数
+     */
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * 获取编译次数
+     */
+    public long getCompileCount() {
+        return compileCount.sum();
+    }
+
+    /**
+     * 获取因组件重新注册而重新链接的次数
+     */
+    public long getRelinkCount() {
+        return relinkCount.sum();
+    }
+
+    /**
+     * 获取编译时从存储读取 AST、未解析表达式的次数
+     */
+    public long getStoreHitCount() {
+        return storeHitCount.sum();
+    }
+
+    /**
+     * 获取编译的流程在优化前的累计执行图节点数
+     */
+    public long getNodeCountBeforeOptimization() {
+        return nodesBeforeOptimization.sum();
+    }
+
+    /**
+     * 获取编译的流程在优化后的累计执行图节点数
+     */
+    public long getNodeCountAfterOptimization() {
+        return nodesAfterOptimization.sum();
+    }
+
+    /**
+     * 获取累计编译耗时（纳秒）
+     */
+    public long getTotalCompileTimeNanos() {
+        return totalCompileTimeNanos.sum();
+    }
+
+    private CompiledFlow compile(String flowId, FlowDefinition definition) {
+        long start = System.nanoTime();
+        ResolvedFlow resolved = resolve(flowId, definition, new ArrayList<>());
+        FlowComponent ast = resolved.ast;
+        ExecutionPlan plan = ast.toExecutionPlan().toImmutable();
+        FlowGraph graph = FlowGraph.build(ast, flowBus, defaultMaxConcurrency);
+        long elapsed = System.nanoTime() - start;
+        countNodes(flowId, resolved, graph);
+
+        compileCount.increment();
+        totalCompileTimeNanos.add(elapsed);
+        logger.debug("Compiled flow {} (version {}) in {}us: {}",
+                flowId, definition.getVersion(), elapsed / 1000, graph);
+
+        return new CompiledFlow(flowId, definition.getElExpression(), definition.getVersion(), resolved.source, ast,
+                plan, elapsed, graph, resolved.subflowVersions);
+    }
+
+    /**
+     * 累计优化前后的执行图节点数。执行图在每个引用处展开共享的子树，节点数反映实际调度的工作量；
+     * 优化前的执行图中子流程按被引用流程优化后的 AST 展开，只计入本流程表达式的优化效果。
+     * 优化改变了 AST 时才额外构建一次优化前的执行图，不影响编译结果
+     */
+    private void countNodes(String flowId, ResolvedFlow resolved, FlowGraph graph) {
+        if (optimizer.getPasses().isEmpty()) {
+            return;
+        }
+        int before = resolved.source == resolved.ast
+                ? graph.size() : FlowGraph.build(resolved.source, flowBus, defaultMaxConcurrency).size();
+        nodesBeforeOptimization.add(before);
+        nodesAfterOptimization.add(graph.size());
+        logger.debug("Optimized flow {}: {} -> {} graph node(s)", flowId, before, graph.size());
+    }
+
+    /**
+     * 获取流程在当前版本下的 AST 并链接其中的子流程引用，已解析且子流程均未变化时直接复用
+     * @param path 正在解析的引用链，用于发现循环引用
+     */
+    private ResolvedFlow resolve(String flowId, FlowDefinition definition, List<String> path) {
+        if (path.contains(flowId)) {
+            throw new IllegalArgumentException("Cyclic subflow reference: "
+                    + String.join(" -> ", path) + " -> " + flowId);
+        }
+        ResolvedFlow resolved = resolvedFlows.get(flowId);
+        if (resolved != null && resolved.version == definition.getVersion() && isCurrent(resolved.subflowVersions)) {
+            return resolved;
+        }
+
+        FlowComponent ast = planStore.find(flowId, definition.getElExpression());
+        if (ast != null) {
+            storeHitCount.increment();
+        } else {
+            ast = flowParser.parseAst(definition.getElExpression());
+        }
+        Map<String, Long> subflowVersions = new LinkedHashMap<>();
+        path.add(flowId);
+        try {
+            link(ast, path, subflowVersions);
+        } finally {
+            path.remove(path.size() - 1);
+        }
+        resolved = new ResolvedFlow(definition.getVersion(), ast, optimizer.optimize(ast),
+                subflowVersions.isEmpty() ? Collections.emptyMap() : Collections.unmodifiableMap(subflowVersions));
+        // 并发解析同一流程时保留先放入的结果，保证引用方拿到的是同一份 AST
+        return resolvedFlows.merge(flowId, resolved, (existing, created) ->
+                existing.version == created.version && isCurrent(existing.subflowVersions) ? existing : created);
+    }
+
+    /**
+     * 把 AST 中尚未链接的 flow(id) 链接到被引用流程共享的 AST，并收集直接或间接引用的子流程版本号
+     */
+    private void link(FlowComponent node, List<String> path, Map<String, Long> subflowVersions) {
+        if (node instanceof SubflowComponent) {
+            SubflowComponent subflow = (SubflowComponent) node;
+            FlowDefinition definition = flowBus.getFlow(subflow.getFlowId());
+            if (definition == null) {
+                throw new IllegalArgumentException("Unknown subflow " + subflow
+                        + " referenced by flow " + path.get(path.size() - 1));
+            }
+            ResolvedFlow target = resolve(subflow.getFlowId(), definition, path);
+            if (!subflow.isResolved()) {
+                // 同一表达式中的变量可能多次引用同一个 flow(id) 实例
+                subflow.resolve(target.ast);
+            }
+            subflowVersions.put(subflow.getFlowId(), target.version);
+            subflowVersions.putAll(target.subflowVersions);
+        } else if (node instanceof SequenceComponent) {
+            for (FlowComponent step : ((SequenceComponent) node).getSteps()) {
+                link(step, path, subflowVersions);
+            }
+        } else if (node instanceof ConditionalComponent) {
+            ConditionalComponent conditional = (ConditionalComponent) node;
+            link(conditional.getCondition(), path, subflowVersions);
+            link(conditional.getTrueBranch(), path, subflowVersions);
+            link(conditional.getFalseBranch(), path, subflowVersions);
+        } else if (node instanceof ParallelComponent) {
+            for (FlowComponent branch : ((ParallelComponent) node).getBranches()) {
+                link(branch, path, subflowVersions);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ExecutionPlanCache{" +
+                "size=" + size() +
+                ", hits=" + getHitCount() +
+                ", misses=" + getMissCount() +
+                ", compiles=" + getCompileCount() +
+                ", storeHits=" + getStoreHitCount() +
+                ", relinks=" + getRelinkCount() +
+                ", graphNodes=" + getNodeCountBeforeOptimization() + "->" + getNodeCountAfterOptimization() +
+                ", compileTime=" + getTotalCompileTimeNanos() / 1_000_000 + "ms" +
+                '}';
+    }
+
+    /**
+     * 某个版本的流程 AST，子流程引用已链接
+     */
+    private static final class ResolvedFlow {
+        private final long version;
+        /**
+         * 优化前的 AST，写入 PlanStore
+         */
+        private final FlowComponent source;
+        private final FlowComponent ast;
+        private final Map<String, Long> subflowVersions;
+
+        ResolvedFlow(long version, FlowComponent source, FlowComponent ast, Map<String, Long> subflowVersions) {
+            this.version = version;
+            this.source = source;
+            this.ast = ast;
+            this.subflowVersions = subflowVersions;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.eking.flow.execution;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 流程执行和并行分支所使用的线程模式。
+ */
+public enum ExecutorMode {
+
+    /**
+     * 固定大小的平台线程池，并发数受线程池大小限制，适合CPU密集型组件
+     */
+    PLATFORM,
+
+    /**
+     * 每个任务一个虚拟线程，适合大部分时间在等待下游服务的I/O密集型组件。
+     * 需要运行在支持虚拟线程的JDK（21及以上）上，否则回退为平台线程池
+     */
+    VIRTUAL;
+
+    private static final Logger logger = LoggerFactory.getLogger(ExecutorMode.class);
+
+    /**
+     * 默认线程名前缀
+     */
+    public static final String DEFAULT_THREAD_NAME_PREFIX = "flow-exec-";
+
+    /**
+     * Executors.newVirtualThreadPerTaskExecutor，当前运行时不支持虚拟线程时为 null
+     */
+    private static final Method VIRTUAL_EXECUTOR_FACTORY = findVirtualExecutorFactory();
+
+    /**
+     * 当前运行时是否支持虚拟线程
+     */
+    public static boolean isVirtualThreadSupported() {
+        return VIRTUAL_EXECUTOR_FACTORY != null;
+    }
+
+    /**
+     * 按当前模式创建线程池
+     * @param threadPoolSize 平台线程池大小，虚拟线程模式下不限制并发数，仅在回退时使用
+     * @return 线程池
+     */
+    public ExecutorService newExecutorService(int threadPoolSize) {
+        return newExecutorService(threadPoolSize, threadPoolSize, Integer.MAX_VALUE,
+                RejectionPolicy.ABORT, DEFAULT_THREAD_NAME_PREFIX);
+    }
+
+    /**
+     * 按当前模式创建线程池。
+     * 虚拟线程模式下不限制并发数，线程池参数仅在回退为平台线程池时使用
+     * @param corePoolSize 核心线程数
+     * @param maxPoolSize 最大线程数，只有队列已满时才会创建超过核心线程数的线程
+     * @param queueCapacity 等待队列容量，0 表示不排队直接交给线程
+     * @param rejectionPolicy 队列已满且线程数达到上限时的处理策略
+     * @param threadNamePrefix 线程名前缀
+     * @return 线程池
+     */
+    public ExecutorService newExecutorService(int corePoolSize, int maxPoolSize, int queueCapacity,
+                                              RejectionPolicy rejectionPolicy, String threadNamePrefix) {
+        if (corePoolSize <= 0 || maxPoolSize < corePoolSize) {
+            throw new IllegalArgumentException("Invalid thread pool size: core=" + corePoolSize + ", max=" + maxPoolSize);
+        }
+        if (queueCapacity < 0) {
+            throw new IllegalArgumentException("Invalid queue capacity: " + queueCapacity);
+        }
+
+        if (this == VIRTUAL) {
+            if (VIRTUAL_EXECUTOR_FACTORY != null) {
+                try {
+                    return (ExecutorService) VIRTUAL_EXECUTOR_FACTORY.invoke(null);
+                } catch (ReflectiveOperationException e) {
+                    logger.warn("Failed to create virtual thread executor, falling back to platform threads", e);
+                }
+            } else {
+                logger.warn("Virtual threads are not supported by Java {}, falling back to a platform pool of {} threads",
+                        System.getProperty("java.version"), maxPoolSize);
+            }
+        }
+
+        BlockingQueue<Runnable> queue = queueCapacity == 0
+                ? new SynchronousQueue<>()
+                : new LinkedBlockingQueue<>(queueCapacity);
+        return new ThreadPoolExecutor(corePoolSize, maxPoolSize, 60L, TimeUnit.SECONDS, queue,
+                new NamedThreadFactory(threadNamePrefix), rejectionPolicy.handler());
+    }
+
+    private static Method findVirtualExecutorFactory() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 按前缀加序号命名线程，便于在线程转储和日志中识别流程线程
+     */
+    private static final class NamedThreadFactory implements ThreadFactory {
+
+        private final String prefix;
+        private final AtomicInteger counter = new AtomicInteger();
+
+        NamedThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            return new Thread(runnable, prefix + counter.incrementAndGet());
+        }
+    }
+}
@@ -0,0 +1,604 @@
+package com.eking.flow.execution;
+
+import com.eking.flow.ast.FlowComponent;
+import com.eking.flow.bus.FlowBus;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 有向无环的流程执行图。
+ *
+ * 每个节点记录其后继节点和前驱数量，执行时为每次运行复制一份依赖计数，
+ * 节点的所有前驱完成后立即调度，互不依赖的节点可以同时执行，流程耗时由关键路径决定而不是节点的排列顺序。
+ *
+ * 节点按 AST 的遍历顺序编号，条件分支的两个子图各自占据一段连续编号，
+ * 条件节点完成后根据路由结果激活其中一段；另一段整体跳过，只需通知离开该段的边，
+ * 未选中分支的代价与其内部节点数无关。
+ * 并行分组之后插入一个屏障节点（BARRIER），后续步骤只依赖该屏障；
+ * 限制并发数的分组不增加分支之间的依赖：每个分支之后追加一个没有后继的分支结束节点（BRANCH_END），
+ * 执行时分支的入口节点先领取分组的并发名额，分支结束节点完成或被跳过时把名额交给下一个等待的分支，
+ * 因此任一分支结束都能让等待的分支开始执行，被跳过的分支不占用名额。
+ *
+ * 图在编译期链接到组件实例，组件重新注册后由 ExecutionPlanCache 基于同一 AST 重新构建。
+ */
+public final class FlowGraph {
+
+    private final PlanNode[] nodes;
+    private final int[][] successors;
+    private final int[][] predecessors;
+    private final int[] predecessorCounts;
+    private final int[] entries;
+    private final Condition[] conditions;
+    private final List<String>[] barrierBranches;
+    private final Map<String, PlanNode> nodesById;
+    private final FlowBus flowBus;
+    private final long componentVersion;
+    private final int defaultMaxConcurrency;
+    private final boolean barrierConditions;
+    /**
+     * 限制并发数的分组各自的并发数，图中没有这类分组时为 null，以下三个数组同样
+     */
+    private final int[] laneLimits;
+    /**
+     * 受限分支（在所有受限分组中统一编号）所属的分组
+     */
+    private final int[] laneGroups;
+    /**
+     * 节点作为入口的受限分支，外层分组在前；不是任何受限分支的入口时为 null
+     */
+    private final int[][] laneBranches;
+    /**
+     * 分支结束节点对应的受限分支，其他节点为 -1
+     */
+    private final int[] endedBranches;
+
+    private FlowGraph(Builder builder, long componentVersion) {
+        int size = builder.nodes.size();
+        this.nodes = builder.nodes.toArray(new PlanNode[0]);
+        this.predecessorCounts = new int[size];
+        this.predecessors = builder.predecessors.toArray(new int[0][]);
+        this.conditions = new Condition[size];
+        this.barrierBranches = builder.barrierBranches.toArray(newListArray(0));
+        this.flowBus = builder.flowBus;
+        this.componentVersion = componentVersion;
+        this.defaultMaxConcurrency = builder.defaultMaxConcurrency;
+
+        // 由前驱列表反推后继列表
+        int[] successorCounts = new int[size];
+        for (int i = 0; i < size; i++) {
+            int[] predecessors = builder.predecessors.get(i);
+            predecessorCounts[i] = predecessors.length;
+            for (int predecessor : predecessors) {
+                successorCounts[predecessor]++;
+            }
+        }
+        this.successors = new int[size][];
+        for (int i = 0; i < size; i++) {
+            successors[i] = new int[successorCounts[i]];
+            successorCounts[i] = 0;
+        }
+        int entryCount = 0;
+        for (int i = 0; i < size; i++) {
+            int[] predecessors = builder.predecessors.get(i);
+            if (predecessors.length == 0) {
+                entryCount++;
+            }
+            for (int predecessor : predecessors) {
+                successors[predecessor][successorCounts[predecessor]++] = i;
+            }
+        }
+
+        boolean barrierRouted = false;
+        for (Condition condition : builder.conditions) {
+            conditions[condition.router] = condition.link(successors);
+            barrierRouted |= nodes[condition.router].getType() == NodeType.BARRIER;
+        }
+        this.barrierConditions = barrierRouted;
+
+        if (builder.laneGroups.isEmpty()) {
+            this.laneLimits = null;
+            this.laneGroups = null;
+            this.laneBranches = null;
+            this.endedBranches = null;
+        } else {
+            int groupCount = builder.laneGroups.size();
+            int branchCount = 0;
+            for (LaneGroup group : builder.laneGroups) {
+                branchCount += group.ends.length;
+            }
+            this.laneLimits = new int[groupCount];
+            this.laneGroups = new int[branchCount];
+            this.laneBranches = new int[size][];
+            this.endedBranches = new int[size];
+            Arrays.fill(endedBranches, -1);
+            // 内层分组先于外层登记，倒序编号使外层分组的名额先被领取
+            int branch = 0;
+            for (int g = 0; g < groupCount; g++) {
+                LaneGroup group = builder.laneGroups.get(groupCount - 1 - g);
+                laneLimits[g] = group.limit;
+                for (int i = 0; i < group.ends.length; i++, branch++) {
+                    laneGroups[branch] = g;
+                    endedBranches[group.ends[i]] = branch;
+                    int start = group.starts[i];
+                    int end = i + 1 < group.starts.length ? group.starts[i + 1] : group.ends[0];
+                    // 入口：没有前驱，或有前驱在分支之外（前驱的编号总是更小）
+                    for (int node = start; node < end; node++) {
+                        int[] nodePredecessors = builder.predecessors.get(node);
+                        if (nodePredecessors.length == 0 || Arrays.stream(nodePredecessors).anyMatch(p -> p < start)) {
+                            laneBranches[node] = laneBranches[node] == null
+                                    ? new int[]{branch} : concatLanes(laneBranches[node], branch);
+                        }
+                    }
+                }
+            }
+        }
+
+        this.entries = new int[entryCount];
+        Map<String, PlanNode> byId = new HashMap<>();
+        for (int i = 0, e = 0; i < size; i++) {
+            if (predecessorCounts[i] == 0) {
+                entries[e++] = i;
+            }
+            NodeType type = nodes[i].getType();
+            if (type != NodeType.BARRIER && type != NodeType.BRANCH_END) {
+                byId.putIfAbsent(nodes[i].getId(), nodes[i]);
+            }
+        }
+        this.nodesById = byId;
+    }
+
+    private static int[] concatLanes(int[] branches, int branch) {
+        int[] result = Arrays.copyOf(branches, branches.length + 1);
+        result[branches.length] = branch;
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String>[] newListArray(int size) {
+        return (List<String>[]) new List[size];
+    }
+
+    /**
+     * 由流程 AST 构建执行图，并链接到 FlowBus 当前注册的组件
+     * @param ast 流程 AST
+     * @param flowBus 组件注册中心
+     * @return 执行图
+     */
+    public static FlowGraph build(FlowComponent ast, FlowBus flowBus) {
+        return build(ast, flowBus, 0);
+    }
+
+    /**
+     * 由流程 AST 构建执行图，并链接到 FlowBus 当前注册的组件
+     * @param ast 流程 AST
+     * @param flowBus 组件注册中心
+     * @param defaultMaxConcurrency 未指定 [n] 的并行分组最多同时执行的分支数，0 表示不限制
+     * @return 执行图
+     */
+    public static FlowGraph build(FlowComponent ast, FlowBus flowBus, int defaultMaxConcurrency) {
+        if (defaultMaxConcurrency < 0) {
+            throw new IllegalArgumentException("Invalid parallel concurrency limit: " + defaultMaxConcurrency);
+        }
+        // 先读取版本号：构建过程中若有组件重新注册，下次获取时会再次构建
+        long componentVersion = flowBus.getComponentVersion();
+        Builder builder = new Builder(flowBus, defaultMaxConcurrency);
+        ast.appendTo(builder, Builder.NO_PREDECESSORS);
+        return new FlowGraph(builder, componentVersion);
+    }
+
+    /**
+     * 获取节点数量
+     */
+    public int size() {
+        return nodes.length;
+    }
+
+    /**
+     * 获取指定编号的节点
+     */
+    public PlanNode getNode(int index) {
+        return nodes[index];
+    }
+
+    /**
+     * 获取节点的后继节点编号，调用方不得修改返回的数组
+     */
+    public int[] getSuccessors(int index) {
+        return successors[index];
+    }
+
+    /**
+     * 获取节点的前驱数量
+     */
+    public int getPredecessorCount(int index) {
+        return predecessorCounts[index];
+    }
+
+    /**
+     * 获取节点的前驱节点编号，调用方不得修改返回的数组
+     */
+    public int[] getPredecessors(int index) {
+        return predecessors[index];
+    }
+
+    /**
+     * 是否有以屏障节点为条件节点的条件分支，如 (A, B) ? C : D。
+     * 这类条件由屏障前各出口节点给出的路由结果选择分支
+     */
+    public boolean hasBarrierConditions() {
+        return barrierConditions;
+    }
+
+    /**
+     * 获取没有前驱的入口节点编号，调用方不得修改返回的数组
+     */
+    public int[] getEntries() {
+        return entries;
+    }
+
+    /**
+     * 获取以该节点为条件的条件分支，节点不是条件节点时返回 null
+     */
+    public Condition getCondition(int index) {
+        return conditions[index];
+    }
+
+    /**
+     * 获取屏障节点之前的并行分支（各分支最后一个节点的ID）
+     */
+    public List<String> getBarrierBranches(int index) {
+        List<String> branches = barrierBranches[index];
+        return branches != null ? branches : Collections.emptyList();
+    }
+
+    /**
+     * 是否有限制并发数的并行分组
+     */
+    public boolean hasLaneGroups() {
+        return laneLimits != null;
+    }
+
+    /**
+     * 获取限制并发数的分组数量
+     */
+    public int getLaneGroupCount() {
+        return laneLimits != null ? laneLimits.length : 0;
+    }
+
+    /**
+     * 获取受限分支的总数
+     */
+    public int getLaneBranchCount() {
+        return laneGroups != null ? laneGroups.length : 0;
+    }
+
+    /**
+     * 获取分组最多同时执行的分支数
+     */
+    public int getLaneLimit(int group) {
+        return laneLimits[group];
+    }
+
+    /**
+     * 获取受限分支所属的分组
+     */
+    public int getLaneGroup(int branch) {
+        return laneGroups[branch];
+    }
+
+    /**
+     * 获取节点作为入口的受限分支，外层分组在前，调用方不得修改返回的数组
+     * @return 受限分支编号，不是受限分支的入口时返回 null
+     */
+    public int[] getLaneBranches(int index) {
+        return laneBranches != null ? laneBranches[index] : null;
+    }
+
+    /**
+     * 获取分支结束节点对应的受限分支
+     * @return 受限分支编号，不是分支结束节点时返回 -1
+     */
+    public int getEndedBranch(int index) {
+        return endedBranches != null ? endedBranches[index] : -1;
+    }
+
+    /**
+     * 判断组件是否出现在图中
+     */
+    public boolean contains(String componentId) {
+        return nodesById.containsKey(componentId);
+    }
+
+    /**
+     * 按组件ID解析节点，用于运行时才确定的路由目标。
+     * 图内的组件直接返回已链接节点，图外的组件从 FlowBus 查找。
+     * @param componentId 组件ID
+     * @return 计划节点，组件未注册时其组件实例为 null
+     */
+    public PlanNode resolve(String componentId) {
+        PlanNode node = nodesById.get(componentId);
+        return node != null ? node : PlanNode.of(componentId, flowBus.getComponent(componentId));
+    }
+
+    /**
+     * 获取构建时 FlowBus 的组件版本号
+     */
+    public long getComponentVersion() {
+        return componentVersion;
+    }
+
+    /**
+     * 获取构建时并行分组的默认并发数限制，0 表示不限制
+     */
+    public int getDefaultMaxConcurrency() {
+        return defaultMaxConcurrency;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("FlowGraph{");
+        for (int i = 0; i < nodes.length; i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append(i).append(':').append(nodes[i]);
+            if (successors[i].length > 0) {
+                builder.append("->").append(Arrays.toString(successors[i]));
+            }
+        }
+        return builder.append('}').toString();
+    }
+
+    /**
+     * 条件分支：条件节点完成后，真分支和假分支两段连续编号的节点中只有一段会被激活。
+     * 链接时预先计算每种结果需要激活和跳过的节点，未选中的一段不逐个遍历，
+     * 只对从该段指向段外的边发出跳过信号
+     */
+    public static final class Condition {
+
+        private static final int[] NONE = new int[0];
+
+        private final int router;
+        private final int trueStart;
+        private final int falseStart;
+        private final int end;
+        private final String trueHead;
+        private final String falseHead;
+        private final int[] activatedOnTrue;
+        private final int[] skippedOnTrue;
+        private final int[] activatedOnFalse;
+        private final int[] skippedOnFalse;
+        private final int[] skippedEntirely;
+
+        Condition(int router, int trueStart, int falseStart, int end, String trueHead, String falseHead) {
+            this(router, trueStart, falseStart, end, trueHead, falseHead, NONE, NONE, NONE, NONE, NONE);
+        }
+
+        private Condition(int router, int trueStart, int falseStart, int end, String trueHead, String falseHead,
+                          int[] activatedOnTrue, int[] skippedOnTrue, int[] activatedOnFalse,
+                          int[] skippedOnFalse, int[] skippedEntirely) {
+            this.router = router;
+            this.trueStart = trueStart;
+            this.falseStart = falseStart;
+            this.end = end;
+            this.trueHead = trueHead;
+            this.falseHead = falseHead;
+            this.activatedOnTrue = activatedOnTrue;
+            this.skippedOnTrue = skippedOnTrue;
+            this.activatedOnFalse = activatedOnFalse;
+            this.skippedOnFalse = skippedOnFalse;
+            this.skippedEntirely = skippedEntirely;
+        }
+
+        /**
+         * 根据图的后继关系计算各结果需要通知的节点
+         */
+        Condition link(int[][] successors) {
+            int[] routerSuccessors = successors[router];
+            int[] outside = exclude(routerSuccessors, trueStart, end);
+            return new Condition(router, trueStart, falseStart, end, trueHead, falseHead,
+                    exclude(routerSuccessors, falseStart, end),
+                    exits(successors, falseStart, end),
+                    exclude(routerSuccessors, trueStart, falseStart),
+                    exits(successors, trueStart, falseStart),
+                    concat(outside, exits(successors, trueStart, end)));
+        }
+
+        /**
+         * 编号在 [start, end) 之外的节点
+         */
+        private static int[] exclude(int[] nodes, int start, int end) {
+            return Arrays.stream(nodes).filter(node -> node < start || node >= end).toArray();
+        }
+
+        /**
+         * 从 [start, end) 内的节点指向段外的边的终点，同一终点按边数重复出现
+         */
+        private static int[] exits(int[][] successors, int start, int end) {
+            int[] result = NONE;
+            for (int node = start; node < end; node++) {
+                result = concat(result, exclude(successors[node], start, end));
+            }
+            return result;
+        }
+
+        private static int[] concat(int[] first, int[] second) {
+            if (second.length == 0) {
+                return first;
+            }
+            int[] result = Arrays.copyOf(first, first.length + second.length);
+            System.arraycopy(second, 0, result, first.length, second.length);
+            return result;
+        }
+
+        /**
+         * 判断节点是否属于真分支
+         */
+        public boolean inTrueBranch(int index) {
+            return index >= trueStart && index < falseStart;
+        }
+
+        /**
+         * 判断节点是否属于假分支
+         */
+        public boolean inFalseBranch(int index) {
+            return index >= falseStart && index < end;
+        }
+
+        /**
+         * 获取真分支第一个组件的ID，路由到该组件时选择真分支
+         */
+        public String getTrueHead() {
+            return trueHead;
+        }
+
+        /**
+         * 获取假分支第一个组件的ID，路由到该组件时选择假分支
+         */
+        public String getFalseHead() {
+            return falseHead;
+        }
+
+        /**
+         * 获取选择分支后需要激活的节点：所选分支的入口，以及条件节点在两个分支之外的后继
+         * @param takeTrue 是否选择真分支
+         */
+        public int[] getActivated(boolean takeTrue) {
+            return takeTrue ? activatedOnTrue : activatedOnFalse;
+        }
+
+        /**
+         * 获取选择分支后需要发出跳过信号的节点：未选中分支指向分支之外的边的终点
+         * @param takeTrue 是否选择真分支
+         */
+        public int[] getSkipped(boolean takeTrue) {
+            return takeTrue ? skippedOnTrue : skippedOnFalse;
+        }
+
+        /**
+         * 获取条件节点本身被跳过时需要发出跳过信号的节点，两个分支都不再遍历
+         */
+        public int[] getSkippedEntirely() {
+            return skippedEntirely;
+        }
+    }
+
+    /**
+     * 执行图构建器，由 AST 节点通过 FlowComponent.appendTo() 依次追加节点
+     */
+    public static final class Builder {
+
+        /**
+         * 表示没有前驱
+         */
+        public static final int[] NO_PREDECESSORS = new int[0];
+
+        private final FlowBus flowBus;
+        private final int defaultMaxConcurrency;
+        private final List<PlanNode> nodes = new ArrayList<>();
+        private final List<int[]> predecessors = new ArrayList<>();
+        private final List<List<String>> barrierBranches = new ArrayList<>();
+        private final List<Condition> conditions = new ArrayList<>();
+        private final List<LaneGroup> laneGroups = new ArrayList<>();
+
+        Builder(FlowBus flowBus, int defaultMaxConcurrency) {
+            this.flowBus = flowBus;
+            this.defaultMaxConcurrency = defaultMaxConcurrency;
+        }
+
+        /**
+         * 获取并行分组实际使用的并发数限制
+         * @param maxConcurrency 分组自身的限制，0 表示未指定
+         * @return 分组的限制，未指定时为默认值，0 表示不限制
+         */
+        public int getMaxConcurrency(int maxConcurrency) {
+            return maxConcurrency > 0 ? maxConcurrency : defaultMaxConcurrency;
+        }
+
+        /**
+         * 追加一个组件节点
+         * @param componentId 组件ID
+         * @param predecessors 前驱节点编号
+         * @return 新节点的编号
+         */
+        public int addComponent(String componentId, int[] predecessors) {
+            return add(PlanNode.of(componentId, flowBus.getComponent(componentId)), predecessors, null);
+        }
+
+        /**
+         * 追加一个屏障节点，所有前驱完成后才完成，用于汇聚并行分支
+         * @param name 屏障名称，用于日志
+         * @param predecessors 各并行分支的最后一个节点编号
+         * @return 新节点的编号
+         */
+        public int addBarrier(String name, int[] predecessors) {
+            List<String> branches = new ArrayList<>(predecessors.length);
+            for (int predecessor : predecessors) {
+                branches.add(nodes.get(predecessor).getId());
+            }
+            return add(PlanNode.barrier(name), predecessors, Collections.unmodifiableList(branches));
+        }
+
+        /**
+         * 登记条件分支：真分支为编号 [trueStart, falseStart) 的节点，假分支为 [falseStart, 当前节点数) 的节点
+         * @param router 条件节点编号
+         * @param trueStart 真分支第一个节点编号
+         * @param falseStart 假分支第一个节点编号
+         */
+        public void addCondition(int router, int trueStart, int falseStart) {
+            conditions.add(new Condition(router, trueStart, falseStart, nodes.size(),
+                    nodes.get(trueStart).getId(), nodes.get(falseStart).getId()));
+        }
+
+        /**
+         * 登记限制并发数的并行分组，并在各分支之后追加分支结束节点。
+         * 各分支的节点必须依次连续追加，第 i 个分支为编号 [branchStarts[i], branchStarts[i + 1]) 的节点，
+         * 最后一个分支到当前节点数为止
+         * @param name 分组名称，用于日志
+         * @param limit 最多同时执行的分支数
+         * @param branchStarts 各分支第一个节点编号
+         * @param branchExits 各分支的出口节点编号
+         */
+        public void addLanes(String name, int limit, int[] branchStarts, List<int[]> branchExits) {
+            int[] ends = new int[branchStarts.length];
+            for (int i = 0; i < ends.length; i++) {
+                ends[i] = add(PlanNode.branchEnd(name + "#" + i), branchExits.get(i), null);
+            }
+            laneGroups.add(new LaneGroup(limit, branchStarts, ends));
+        }
+
+        /**
+         * 获取已追加的节点数量，即下一个节点的编号
+         */
+        public int size() {
+            return nodes.size();
+        }
+
+        private int add(PlanNode node, int[] nodePredecessors, List<String> branches) {
+            nodes.add(node);
+            predecessors.add(nodePredecessors);
+            barrierBranches.add(branches);
+            return nodes.size() - 1;
+        }
+    }
+
+    /**
+     * 构建时登记的受限分组：各分支的第一个节点和分支结束节点
+     */
+    private static final class LaneGroup {
+        private final int limit;
+        private final int[] starts;
+        private final int[] ends;
+
+        LaneGroup(int limit, int[] starts, int[] ends) {
+            this.limit = limit;
+            this.starts = starts;
+            this.ends = ends;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.eking.flow.execution;
+
+import com.eking.flow.component.ForkNodeComponent;
+import com.eking.flow.component.JoinNodeComponent;
+import com.eking.flow.component.NodeComponent;
+import com.eking.flow.component.RoutingNodeComponent;
+
+/**
+ * 计划节点的组件类型，在链接执行计划时确定，执行时无需再做 instanceof 判断。
+ */
+public enum NodeType {
+
+    /**
+     * 普通组件
+     */
+    PLAIN,
+
+    /**
+     * 路由组件，执行后需要读取路由结果
+     */
+    ROUTING,
+
+    /**
+     * 分发组件
+     */
+    FORK,
+
+    /**
+     * 汇总组件
+     */
+    JOIN,
+
+    /**
+     * 链接时组件尚未注册
+     */
+    MISSING,
+
+    /**
+     * 执行图中汇聚并行分支的屏障节点，不对应任何组件
+     */
+    BARRIER,
+
+    /**
+     * 限制并发数的并行分组中一个分支的结束节点，不对应任何组件，没有后继；
+     * 分支结束后由执行引擎把并发名额交给下一个等待的分支
+     */
+    BRANCH_END;
+
+    /**
+     * 根据组件实例确定节点类型
+     * @param component 组件实例，可以为 null
+     * @return 节点类型
+     */
+    public static NodeType of(NodeComponent component) {
+        if (component == null) {
+            return MISSING;
+        }
+        if (component instanceof RoutingNodeComponent) {
+            return ROUTING;
+        }
+        if (component instanceof ForkNodeComponent) {
+            return FORK;
+        }
+        if (component instanceof JoinNodeComponent) {
+            return JOIN;
+        }
+        return PLAIN;
+    }
+}
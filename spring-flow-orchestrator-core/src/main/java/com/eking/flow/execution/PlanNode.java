@@ -0,0 +1,74 @@
+package com.eking.flow.execution;
+
+import com.eking.flow.component.NodeComponent;
+
+/**
+ * 已链接的计划节点：持有组件实例的直接引用及其类型，
+ * 执行时无需再通过组件ID查找 FlowBus。
+ */
+public final class PlanNode {
+
+    private final String id;
+    private final NodeComponent component;
+    private final NodeType type;
+
+    private PlanNode(String id, NodeComponent component, NodeType type) {
+        this.id = id;
+        this.component = component;
+        this.type = type;
+    }
+
+    /**
+     * 创建一个组件节点
+     * @param id 组件ID
+     * @param component 组件实例，未注册时为 null
+     * @return 计划节点
+     */
+    public static PlanNode of(String id, NodeComponent component) {
+        return new PlanNode(id, component, NodeType.of(component));
+    }
+
+    /**
+     * 创建一个不对应任何组件的屏障节点
+     * @param name 屏障名称
+     * @return 计划节点
+     */
+    static PlanNode barrier(String name) {
+        return new PlanNode(name, null, NodeType.BARRIER);
+    }
+
+    /**
+     * 创建一个不对应任何组件的分支结束节点
+     * @param name 节点名称
+     * @return 计划节点
+     */
+    static PlanNode branchEnd(String name) {
+        return new PlanNode(name, null, NodeType.BRANCH_END);
+    }
+
+    /**
+     * 获取组件ID
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * 获取组件实例，组件未注册时返回 null
+     */
+    public NodeComponent getComponent() {
+        return component;
+    }
+
+    /**
+     * 获取节点类型
+     */
+    public NodeType getType() {
+        return type;
+    }
+
+    @Override
+    public String toString() {
+        return id + "(" + type + ")";
+    }
+}
@@ -0,0 +1,365 @@
+package com.eking.flow.execution;
+
+import com.eking.flow.ast.ConditionalComponent;
+import com.eking.flow.ast.FlowComponent;
+import com.eking.flow.ast.ParallelComponent;
+import com.eking.flow.ast.SequenceComponent;
+import com.eking.flow.ast.SimpleComponent;
+import com.eking.flow.ast.SubflowComponent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * 已编译流程的二进制存储，启动时直接读取流程 AST，不再经过 ANTLR 解析表达式。
+ *
+ * 文件以内存映射方式只读加载，格式（大端序）：
+ * <pre>
+ * 头部   int 魔数 "EKFP" | int 格式版本 | int 字符串数 | int 流程数 | long 正文 CRC32
+ * 字符串 每项 int 字节数 + UTF-8 字节；组件ID、流程ID和表达式全部驻留在这张表中，重复的组件ID只存一次
+ * 流程   int 流程ID | int 表达式 | long 表达式 CRC32 | int 节点数 n | int 边数 m
+ *        byte[n] 节点类型 | int[n] 节点参数 | int[n] 子节点数 | int[m] 子节点下标
+ * </pre>
+ * 节点按先序排列，0 号为根；简单组件的参数为组件ID在字符串表中的下标，并行分组的参数为并发数限制，
+ * 子流程引用的参数为被引用流程ID的下标，只存引用本身，读取后由 ExecutionPlanCache 重新链接。
+ * 存储的是优化前的 AST，读取后由 ExecutionPlanCache 按当前的优化流水线优化，切换优化设置不会读到过期的结果。
+ * 每个流程记录源表达式的校验和与原文，表达式变化后 find() 返回 null，调用方重新编译即可。
+ * 文件损坏（校验和不符）或格式版本不同时按空存储处理。
+ *
+ * 带 FORK/JOIN 节点的并行分组不会由表达式解析产生，不写入存储。
+ */
+public final class PlanStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(PlanStore.class);
+
+    private static final int MAGIC = 0x454B4650;
+    private static final int FORMAT_VERSION = 3;
+    private static final int HEADER_SIZE = 4 * 4 + 8;
+
+    private static final byte SIMPLE = 1;
+    private static final byte SEQUENCE = 2;
+    private static final byte CONDITIONAL = 3;
+    private static final byte PARALLEL = 4;
+    private static final byte SUBFLOW = 5;
+
+    private static final PlanStore EMPTY = new PlanStore(null, new String[0], Collections.emptyMap());
+
+    private final ByteBuffer buffer;
+    private final String[] strings;
+    /**
+     * 流程ID -> 流程记录在文件中的偏移
+     */
+    private final Map<String, Integer> offsets;
+
+    private PlanStore(ByteBuffer buffer, String[] strings, Map<String, Integer> offsets) {
+        this.buffer = buffer;
+        this.strings = strings;
+        this.offsets = offsets;
+    }
+
+    /**
+     * 获取空存储
+     */
+    public static PlanStore empty() {
+        return EMPTY;
+    }
+
+    /**
+     * 以内存映射方式加载存储文件
+     * @param file 存储文件
+     * @return 存储，文件不存在、损坏或格式版本不同时返回空存储
+     */
+    public static PlanStore load(Path file) {
+        if (!Files.isRegularFile(file)) {
+            return EMPTY;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            PlanStore store = read(buffer);
+            logger.info("Loaded {} compiled flow(s) from {}", store.size(), file);
+            return store;
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Ignoring unreadable plan store {}: {}", file, e.getMessage());
+            return EMPTY;
+        }
+    }
+
+    private static PlanStore read(ByteBuffer buffer) {
+        if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IllegalStateException("Not a plan store");
+        }
+        if (buffer.getInt(4) != FORMAT_VERSION) {
+            throw new IllegalStateException("Unsupported plan store version " + buffer.getInt(4));
+        }
+        int stringCount = buffer.getInt(8);
+        int flowCount = buffer.getInt(12);
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate().position(HEADER_SIZE));
+        if (crc.getValue() != buffer.getLong(16)) {
+            throw new IllegalStateException("Plan store checksum mismatch");
+        }
+
+        int offset = HEADER_SIZE;
+        String[] strings = new String[stringCount];
+        for (int i = 0; i < stringCount; i++) {
+            int length = buffer.getInt(offset);
+            byte[] bytes = new byte[length];
+            buffer.get(offset + 4, bytes);
+            strings[i] = new String(bytes, StandardCharsets.UTF_8);
+            offset += 4 + length;
+        }
+
+        Map<String, Integer> offsets = new HashMap<>(flowCount * 2);
+        for (int i = 0; i < flowCount; i++) {
+            offsets.put(strings[buffer.getInt(offset)], offset);
+            int nodeCount = buffer.getInt(offset + 16);
+            int edgeCount = buffer.getInt(offset + 20);
+            offset += 24 + nodeCount + nodeCount * 8 + edgeCount * 4;
+        }
+        return new PlanStore(buffer, strings, offsets);
+    }
+
+    /**
+     * 查找流程的 AST
+     * @param flowId 流程ID
+     * @param elExpression 当前的流程表达式
+     * @return 存储中的 AST，没有该流程或存储时的表达式与当前表达式不同时返回 null
+     */
+    public FlowComponent find(String flowId, String elExpression) {
+        Integer offset = offsets.get(flowId);
+        if (offset == null) {
+            return null;
+        }
+        if (buffer.getLong(offset + 8) != checksum(elExpression)
+                || !strings[buffer.getInt(offset + 4)].equals(elExpression)) {
+            return null;
+        }
+
+        int nodeCount = buffer.getInt(offset + 16);
+        int kinds = offset + 24;
+        int args = kinds + nodeCount;
+        int childCounts = args + nodeCount * 4;
+        int edges = childCounts + nodeCount * 4;
+        int[] childStart = new int[nodeCount];
+        for (int i = 1; i < nodeCount; i++) {
+            childStart[i] = childStart[i - 1] + buffer.getInt(childCounts + (i - 1) * 4);
+        }
+        return decode(0, kinds, args, childCounts, edges, childStart);
+    }
+
+    private FlowComponent decode(int node, int kinds, int args, int childCounts, int edges, int[] childStart) {
+        byte kind = buffer.get(kinds + node);
+        int arg = buffer.getInt(args + node * 4);
+        if (kind == SIMPLE) {
+            return new SimpleComponent(strings[arg]);
+        }
+        if (kind == SUBFLOW) {
+            return new SubflowComponent(strings[arg]);
+        }
+        int count = buffer.getInt(childCounts + node * 4);
+        List<FlowComponent> children = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int child = buffer.getInt(edges + (childStart[node] + i) * 4);
+            children.add(decode(child, kinds, args, childCounts, edges, childStart));
+        }
+        switch (kind) {
+            case SEQUENCE:
+                return new SequenceComponent(children);
+            case CONDITIONAL:
+                return new ConditionalComponent(children.get(0), children.get(1), children.get(2));
+            case PARALLEL:
+                return new ParallelComponent(children, arg);
+            default:
+                throw new IllegalStateException("Unknown plan node type: " + kind);
+        }
+    }
+
+    /**
+     * 获取存储中的流程数量
+     */
+    public int size() {
+        return offsets.size();
+    }
+
+    /**
+     * 把已编译的流程写入存储文件：先写临时文件再替换，读取中的旧文件映射不受影响
+     * @param file 存储文件
+     * @param compiledFlows 已编译的流程
+     * @return 写入的流程数量
+     */
+    public static int write(Path file, Collection<CompiledFlow> compiledFlows) throws IOException {
+        Map<String, Integer> stringIndex = new HashMap<>();
+        List<String> strings = new ArrayList<>();
+        ByteArrayOutputStream flows = new ByteArrayOutputStream();
+        DataOutputStream flowOut = new DataOutputStream(flows);
+        int flowCount = 0;
+
+        for (CompiledFlow compiledFlow : compiledFlows) {
+            Encoder encoder = new Encoder(stringIndex, strings);
+            if (!encoder.add(compiledFlow.getSourceAst())) {
+                logger.debug("Flow {} cannot be stored, skipped", compiledFlow.getFlowId());
+                continue;
+            }
+            flowOut.writeInt(encoder.intern(compiledFlow.getFlowId()));
+            flowOut.writeInt(encoder.intern(compiledFlow.getElExpression()));
+            flowOut.writeLong(checksum(compiledFlow.getElExpression()));
+            encoder.writeTo(flowOut);
+            flowCount++;
+        }
+
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        DataOutputStream bodyOut = new DataOutputStream(body);
+        for (String string : strings) {
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            bodyOut.writeInt(bytes.length);
+            bodyOut.write(bytes);
+        }
+        flows.writeTo(bodyOut);
+        bodyOut.flush();
+
+        CRC32 crc = new CRC32();
+        crc.update(body.toByteArray());
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+                .putInt(MAGIC).putInt(FORMAT_VERSION).putInt(strings.size()).putInt(flowCount).putLong(crc.getValue());
+
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                out.write(header.array());
+                body.writeTo(out);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        logger.info("Wrote {} compiled flow(s) to {}", flowCount, file);
+        return flowCount;
+    }
+
+    private static long checksum(String elExpression) {
+        CRC32 crc = new CRC32();
+        crc.update(elExpression.getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+
+    /**
+     * 把一个 AST 按先序编码为节点数组和边数组
+     */
+    private static final class Encoder {
+        private final Map<String, Integer> stringIndex;
+        private final List<String> strings;
+        private final ByteArrayOutputStream kinds = new ByteArrayOutputStream();
+        private final List<Integer> args = new ArrayList<>();
+        private final List<Integer> childCounts = new ArrayList<>();
+        private final List<Integer> edges = new ArrayList<>();
+
+        Encoder(Map<String, Integer> stringIndex, List<String> strings) {
+            this.stringIndex = stringIndex;
+            this.strings = strings;
+        }
+
+        int intern(String value) {
+            return stringIndex.computeIfAbsent(value, key -> {
+                strings.add(key);
+                return strings.size() - 1;
+            });
+        }
+
+        /**
+         * 编码整棵树，遇到无法存储的节点时返回 false
+         */
+        boolean add(FlowComponent root) {
+            List<FlowComponent> order = new ArrayList<>();
+            Map<FlowComponent, Integer> index = new IdentityHashMap<>();
+            collect(root, order, index);
+            for (FlowComponent node : order) {
+                if (node instanceof SimpleComponent) {
+                    kinds.write(SIMPLE);
+                    args.add(intern(((SimpleComponent) node).getName()));
+                } else if (node instanceof SequenceComponent) {
+                    kinds.write(SEQUENCE);
+                    args.add(0);
+                } else if (node instanceof ConditionalComponent) {
+                    kinds.write(CONDITIONAL);
+                    args.add(0);
+                } else if (node instanceof ParallelComponent && ((ParallelComponent) node).getForkNodeId() == null
+                        && ((ParallelComponent) node).getJoinNodeId() == null) {
+                    kinds.write(PARALLEL);
+                    args.add(((ParallelComponent) node).getMaxConcurrency());
+                } else if (node instanceof SubflowComponent) {
+                    kinds.write(SUBFLOW);
+                    args.add(intern(((SubflowComponent) node).getFlowId()));
+                } else {
+                    return false;
+                }
+                List<FlowComponent> children = children(node);
+                childCounts.add(children.size());
+                for (FlowComponent child : children) {
+                    edges.add(index.get(child));
+                }
+            }
+            return true;
+        }
+
+        private static void collect(FlowComponent node, List<FlowComponent> order, Map<FlowComponent, Integer> index) {
+            index.put(node, order.size());
+            order.add(node);
+            for (FlowComponent child : children(node)) {
+                collect(child, order, index);
+            }
+        }
+
+        private static List<FlowComponent> children(FlowComponent node) {
+            if (node instanceof SequenceComponent) {
+                return ((SequenceComponent) node).getSteps();
+            }
+            if (node instanceof ConditionalComponent) {
+                ConditionalComponent conditional = (ConditionalComponent) node;
+                return List.of(conditional.getCondition(), conditional.getTrueBranch(), conditional.getFalseBranch());
+            }
+            if (node instanceof ParallelComponent) {
+                return ((ParallelComponent) node).getBranches();
+            }
+            return Collections.emptyList();
+        }
+
+        void writeTo(DataOutputStream out) throws IOException {
+            out.writeInt(args.size());
+            out.writeInt(edges.size());
+            kinds.writeTo(out);
+            for (int arg : args) {
+                out.writeInt(arg);
+            }
+            for (int count : childCounts) {
+                out.writeInt(count);
+            }
+            for (int edge : edges) {
+                out.writeInt(edge);
+            }
+        }
+    }
+}
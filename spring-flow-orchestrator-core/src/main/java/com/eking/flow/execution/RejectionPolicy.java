@@ -0,0 +1,37 @@
+package com.eking.flow.execution;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * 平台线程池的队列已满且线程数达到上限时的处理策略。
+ * 不提供静默丢弃的策略：被丢弃的分支永远不会完成，流程也就永远不会结束。
+ */
+public enum RejectionPolicy {
+
+    /**
+     * 抛出 RejectedExecutionException，流程以失败结束
+     */
+    ABORT,
+
+    /**
+     * 由提交任务的线程直接执行，对调用方形成背压；线程池关闭后与 ABORT 相同
+     */
+    CALLER_RUNS;
+
+    RejectedExecutionHandler handler() {
+        return this == CALLER_RUNS ? RejectionPolicy::callerRuns : new ThreadPoolExecutor.AbortPolicy();
+    }
+
+    /**
+     * ThreadPoolExecutor.CallerRunsPolicy 在线程池关闭后静默丢弃任务，等待该任务的流程永远不会结束，
+     * 因此关闭后改为抛出异常
+     */
+    private static void callerRuns(Runnable task, ThreadPoolExecutor executor) {
+        if (executor.isShutdown()) {
+            throw new RejectedExecutionException("Task " + task + " rejected from " + executor);
+        }
+        task.run();
+    }
+}
@@ -0,0 +1,115 @@
+package com.eking.flow.executor;
+
+import com.eking.flow.response.EkingflowResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 流程执行日志策略：每次流程结束时是否输出一行结构化的执行事件。
+ *
+ * 事件格式为 flow=... success=... duration=...ms components=... trace=[...]，以 INFO 级别输出到本类的日志器。
+ * 可以每次都输出、按 1/N 抽样输出，或只输出耗时达到阈值的慢执行。
+ * 未输出的执行不会拼接任何字符串，抽样使用线程本地随机数，不存在线程间共享的计数器。
+ */
+public final class ExecutionLog {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExecutionLog.class);
+
+    /**
+     * 不输出执行事件
+     */
+    public static final ExecutionLog DISABLED = new ExecutionLog(false, 1, 0);
+
+    private final boolean enabled;
+    private final int sampleRate;
+    private final long slowThresholdMillis;
+
+    private ExecutionLog(boolean enabled, int sampleRate, long slowThresholdMillis) {
+        this.enabled = enabled;
+        this.sampleRate = sampleRate;
+        this.slowThresholdMillis = slowThresholdMillis;
+    }
+
+    /**
+     * 每次执行都输出
+     */
+    public static ExecutionLog every() {
+        return new ExecutionLog(true, 1, 0);
+    }
+
+    /**
+     * 平均每 sampleRate 次执行输出一次
+     * @param sampleRate 抽样间隔，必须大于 0，1 表示每次都输出
+     */
+    public static ExecutionLog sampled(int sampleRate) {
+        if (sampleRate <= 0) {
+            throw new IllegalArgumentException("Invalid execution log sample rate: " + sampleRate);
+        }
+        return new ExecutionLog(true, sampleRate, 0);
+    }
+
+    /**
+     * 只输出耗时不低于阈值的执行，不参与抽样
+     * @param slowThresholdMillis 慢执行阈值（毫秒），必须大于 0
+     */
+    public static ExecutionLog slowerThan(long slowThresholdMillis) {
+        if (slowThresholdMillis <= 0) {
+            throw new IllegalArgumentException("Invalid slow execution threshold: " + slowThresholdMillis);
+        }
+        return new ExecutionLog(true, 1, slowThresholdMillis);
+    }
+
+    /**
+     * 是否可能输出执行事件
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 获取抽样间隔
+     */
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    /**
+     * 获取慢执行阈值（毫秒），0 表示不按耗时过滤
+     */
+    public long getSlowThresholdMillis() {
+        return slowThresholdMillis;
+    }
+
+    /**
+     * 流程结束时调用，按策略决定是否输出执行事件
+     * @param flowId 流程ID
+     * @param response 已完成的响应
+     */
+    void completed(String flowId, EkingflowResponse response) {
+        if (!enabled || !logger.isInfoEnabled()) {
+            return;
+        }
+        long duration = response.getSlot().getDuration();
+        if (slowThresholdMillis > 0) {
+            if (duration < slowThresholdMillis) {
+                return;
+            }
+        } else if (sampleRate > 1 && ThreadLocalRandom.current().nextInt(sampleRate) != 0) {
+            return;
+        }
+        logger.info("flow={} success={} duration={}ms components={} trace={}",
+                flowId, response.isSuccess(), duration, response.getTrace().size(), response.getTrace());
+    }
+
+    @Override
+    public String toString() {
+        if (!enabled) {
+            return "ExecutionLog{disabled}";
+        }
+        return slowThresholdMillis > 0
+                ? "ExecutionLog{slowerThan=" + slowThresholdMillis + "ms}"
+                : "ExecutionLog{sampleRate=1/" + sampleRate + "}";
+    }
+}
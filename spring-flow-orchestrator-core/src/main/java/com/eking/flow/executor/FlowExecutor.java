@@ -1,188 +1,1141 @@
 package com.eking.flow.executor;
 
+import com.eking.flow.aop.ComponentListenerDispatcher;
 import com.eking.flow.bus.FlowBus;
+import com.eking.flow.component.ComponentInvocation;
 import com.eking.flow.component.NodeComponent;
 import com.eking.flow.context.FlowContext;
-import com.eking.flow.execution.ExecutionPlan;
+import com.eking.flow.execution.CompiledFlow;
+import com.eking.flow.execution.ExecutionPlanCache;
+import com.eking.flow.execution.ExecutorMode;
+import com.eking.flow.execution.FlowGraph;
+import com.eking.flow.execution.NodeType;
 import com.eking.flow.execution.ParallelExecutor;
+import com.eking.flow.execution.PlanNode;
+import com.eking.flow.metrics.FlowMetrics;
 import com.eking.flow.parser.ANTLR4FlowParser;
+import com.eking.flow.response.BatchResponse;
 import com.eking.flow.response.EkingflowResponse;
+import com.eking.flow.response.ExecutionTrace;
+import com.eking.flow.routing.ForkResult;
 import com.eking.flow.routing.RoutingResult;
 import com.eking.flow.slot.Slot;
+import com.eking.flow.slot.SlotPool;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.*;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
 
 /**
  * 现在使用ANTLR4解析器支持企业级嵌套表达式。
- * 支持并行执行多个分支。
+ * 表达式编译为执行图，节点在依赖完成后立即调度，互不依赖的分支并行执行。
  */
 public class FlowExecutor {
 
     private static final Logger logger = LoggerFactory.getLogger(FlowExecutor.class);
 
     private FlowBus flowBus;
-    private ANTLR4FlowParser flowParser;
+    private ExecutionPlanCache planCache;
     private ParallelExecutor parallelExecutor;
+    private SlotPool slotPool;
+    private int batchParallelism = Runtime.getRuntime().availableProcessors();
+    private FlowMetrics metrics = FlowMetrics.NOOP;
+    /**
+     * 未设置指标实现时不额外读取时钟
+     */
+    private boolean metricsEnabled;
+    /**
+     * 组件监听器分发表，没有监听器时为 null
+     */
+    private ComponentListenerDispatcher listeners;
+    private ExecutionLog executionLog = ExecutionLog.DISABLED;
 
     public FlowExecutor() {
         this.flowBus = FlowBus.getInstance();
-        this.flowParser = new ANTLR4FlowParser();
+        this.planCache = new ExecutionPlanCache(flowBus, new ANTLR4FlowParser());
         this.parallelExecutor = new ParallelExecutor(64);
+        this.slotPool = new SlotPool();
         logger.info("Initialized FlowExecutor with ANTLR4 parser");
     }
 
     public FlowExecutor(int threadPoolSize) {
+        this(ExecutorMode.PLATFORM, threadPoolSize);
+    }
+
+    public FlowExecutor(ExecutorMode executorMode, int threadPoolSize) {
+        this(new ParallelExecutor(executorMode, threadPoolSize));
+        logger.info("Initialized FlowExecutor with ANTLR4 parser ({} mode, thread pool: {})", executorMode, threadPoolSize);
+    }
+
+    public FlowExecutor(ParallelExecutor parallelExecutor) {
+        this(parallelExecutor, new SlotPool());
+    }
+
+    public FlowExecutor(ParallelExecutor parallelExecutor, SlotPool slotPool) {
         this.flowBus = FlowBus.getInstance();
-        this.flowParser = new ANTLR4FlowParser();
-        this.parallelExecutor = new ParallelExecutor(threadPoolSize);
-        logger.info("Initialized FlowExecutor with ANTLR4 parser (thread pool: {})", threadPoolSize);
+        this.planCache = new ExecutionPlanCache(flowBus, new ANTLR4FlowParser());
+        this.parallelExecutor = parallelExecutor;
+        this.slotPool = slotPool;
     }
 
     /**
      * 执行一个自定义上下文的流程。
+     * 执行图的第一条链在调用方线程上执行；含并行分支时调用方线程等待其余链结束。
      */
     public EkingflowResponse execute(String flowId, FlowContext context) {
-        logger.info("Starting flow execution: {}", flowId);
+        return start(flowId, context).join();
+    }
+
+    /**
+     * 异步执行一个自定义上下文的流程。
+     * 流程提交到执行器的线程池（虚拟线程模式下为一个新的虚拟线程）上执行，调用方线程立即返回；
+     * 同时就绪的节点同样提交到线程池，汇聚节点在最后一个前驱完成的线程上继续执行，
+     * 不会有线程阻塞等待分支。
+     * 返回的 future 总是正常完成，执行失败的信息记录在响应中；
+     * 线程池拒绝接收任务（如已关闭）时返回包含 RejectedExecutionException 的失败响应。
+     * @param flowId 流程ID
+     * @param context 流程上下文
+     * @return 流程执行完成后完成的 future
+     */
+    public CompletableFuture<EkingflowResponse> executeAsync(String flowId, FlowContext context) {
+        return submit(flowId, context, true);
+    }
+
+    /**
+     * 提交到线程池执行，与 executeAsync 相同但不输出单个流程的 INFO 日志，用于批量和流式执行
+     */
+    CompletableFuture<EkingflowResponse> submit(String flowId, FlowContext context) {
+        return submit(flowId, context, false);
+    }
+
+    private CompletableFuture<EkingflowResponse> submit(String flowId, FlowContext context, boolean logEach) {
+        try {
+            return CompletableFuture.supplyAsync(() -> start(flowId, context, null, logEach),
+                            parallelExecutor.getExecutorService())
+                    .thenCompose(execution -> execution);
+        } catch (RejectedExecutionException e) {
+            logger.error("Flow {} rejected by the executor: {}", flowId, e.getMessage());
+            EkingflowResponse response = EkingflowResponse.fail(e);
+            response.setContext(context);
+            return CompletableFuture.completedFuture(response);
+        }
+    }
+
+    /**
+     * 创建流式执行器：订阅上下文的发布者，把每个上下文交给同一个流程执行，并把响应发布给下游。
+     * 正在执行和等待下游消费的流程合计不超过 maxInFlight，下游消费变慢时上游随之被限流
+     * <pre>
+     * FlowStreamProcessor processor = flowExecutor.stream("orderFlow", 64);
+     * contextPublisher.subscribe(processor);
+     * processor.subscribe(responseSubscriber);
+     * </pre>
+     * @param flowId 流程ID
+     * @param maxInFlight 最大在途流程数
+     * @return 流式执行器，只能订阅一个上游和一个下游
+     */
+    public FlowStreamProcessor stream(String flowId, int maxInFlight) {
+        return new FlowStreamProcessor(this, flowId, maxInFlight);
+    }
+
+    /**
+     * 从迭代器依次读取上下文执行同一个流程，直到迭代器耗尽且所有流程完成。
+     * 最多同时执行 maxInFlight 个流程，迭代器只在有空闲名额时才被读取，适合无界或惰性产生的上下文；
+     * 响应按完成顺序在调用方线程上交给 consumer，consumer 处理变慢时读取和执行随之放慢。
+     * consumer 负责在使用完响应后调用 release()
+     * @param flowId 流程ID
+     * @param contexts 上下文迭代器，只在调用方线程上读取
+     * @param maxInFlight 最大在途流程数
+     * @param consumer 在调用方线程上接收每个响应
+     * @return 执行的流程数量
+     */
+    public long executeStream(String flowId, Iterator<? extends FlowContext> contexts, int maxInFlight,
+                              Consumer<EkingflowResponse> consumer) {
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("Invalid max in-flight executions: " + maxInFlight);
+        }
+        BlockingQueue<EkingflowResponse> completed = new LinkedBlockingQueue<>();
+        int inFlight = 0;
+        long count = 0;
+        long start = System.nanoTime();
+        try {
+            for (;;) {
+                while (inFlight < maxInFlight && contexts.hasNext()) {
+                    FlowContext context = contexts.next();
+                    submit(flowId, context).whenComplete((response, error) -> {
+                        if (error != null) {
+                            Throwable cause = error.getCause() != null ? error.getCause() : error;
+                            response = EkingflowResponse.fail(cause instanceof Exception ? (Exception) cause : new RuntimeException(cause));
+                            response.setContext(context);
+                        }
+                        completed.add(response);
+                    });
+                    inFlight++;
+                }
+                if (inFlight == 0) {
+                    break;
+                }
+                EkingflowResponse response = completed.take();
+                inFlight--;
+                count++;
+                consumer.accept(response);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while streaming flow " + flowId + " after " + count + " executions", e);
+        }
+
+        long elapsed = System.nanoTime() - start;
+        logger.info("Flow stream completed: {} x{} in {}ms", flowId, count, elapsed / 1_000_000);
+        return count;
+    }
+
+    /**
+     * 对一组上下文批量执行同一个流程，响应按输入顺序返回。
+     * 执行计划只解析一次，上下文由最多 batchParallelism 个工作者分段领取执行，调用方线程也是其中之一；
+     * 工作者在流程含并行分支时不阻塞等待，由流程最后完成的线程继续领取下一个上下文。
+     * 单个流程不再输出开始/结束日志，每个批次输出一条汇总日志。
+     * 调用方读取完结果后应对每个响应调用 release() 归还槽位
+     * @param flowId 流程ID
+     * @param contexts 流程上下文，每个上下文执行一次
+     * @return 批量执行响应
+     */
+    public BatchResponse executeBatch(String flowId, List<? extends FlowContext> contexts) {
+        return new BatchRun(flowId, contexts, null).run();
+    }
+
+    /**
+     * 对一组上下文批量执行同一个流程，每个流程结束后立即把响应交给回调。
+     * 回调在执行该流程的工作者线程上调用，可能并发调用且不保证按输入顺序；
+     * 回调返回后响应即被释放，其槽位由同一批次的后续流程复用，回调不得保留响应
+     * @param flowId 流程ID
+     * @param contexts 流程上下文，每个上下文执行一次
+     * @param callback 接收响应及其在输入中的序号
+     * @return 批量执行响应，不包含各流程的响应
+     */
+    public BatchResponse executeBatch(String flowId, List<? extends FlowContext> contexts,
+                                      ObjIntConsumer<EkingflowResponse> callback) {
+        return new BatchRun(flowId, contexts, callback).run();
+    }
+
+    /**
+     * 一次批量执行：工作者从共享游标分段领取上下文序号并依次执行
+     */
+    private final class BatchRun {
 
+        /**
+         * 每个工作者平均领取的段数，段越多负载越均衡，游标竞争也越多
+         */
+        private static final int CHUNKS_PER_WORKER = 8;
+
+        private final String flowId;
+        private final List<? extends FlowContext> contexts;
+        private final ObjIntConsumer<EkingflowResponse> callback;
+        private final EkingflowResponse[] responses;
+        private final CompiledFlow compiledFlow;
+        private final int workers;
+        private final int chunkSize;
+        private final AtomicInteger cursor = new AtomicInteger();
+        private final AtomicInteger runningWorkers;
+        private final AtomicInteger failures = new AtomicInteger();
+        private final CompletableFuture<Void> completion = new CompletableFuture<>();
+
+        BatchRun(String flowId, List<? extends FlowContext> contexts, ObjIntConsumer<EkingflowResponse> callback) {
+            this.flowId = flowId;
+            this.contexts = contexts;
+            this.callback = callback;
+            this.responses = callback == null ? new EkingflowResponse[contexts.size()] : null;
+            // 执行计划只解析一次；流程不存在时交给每次执行各自返回失败响应
+            this.compiledFlow = planCache.get(flowId);
+            this.workers = Math.max(1, Math.min(batchParallelism, contexts.size()));
+            this.chunkSize = Math.max(1, contexts.size() / (workers * CHUNKS_PER_WORKER));
+            this.runningWorkers = new AtomicInteger(workers);
+        }
+
+        BatchResponse run() {
+            long start = System.nanoTime();
+            Executor executor = parallelExecutor.getExecutorService();
+            for (int i = 1; i < workers; i++) {
+                try {
+                    executor.execute(() -> runWorker(-1, -1));
+                } catch (RejectedExecutionException e) {
+                    // 线程池已满：由其余工作者领取剩余的上下文
+                    finishWorker();
+                }
+            }
+            runWorker(-1, -1);
+            try {
+                completion.join();
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                throw cause instanceof RuntimeException ? (RuntimeException) cause : e;
+            }
+
+            long elapsed = System.nanoTime() - start;
+            BatchResponse batch = new BatchResponse(flowId, responses != null ? Arrays.asList(responses) : null,
+                    contexts.size(), failures.get(), workers, elapsed);
+            logger.info("Flow batch completed: {} x{} in {}ms on {} workers, {} failed, {} flows/s",
+                    flowId, batch.size(), elapsed / 1_000_000, workers, batch.getFailureCount(),
+                    String.format("%.0f", batch.getThroughput()));
+            return batch;
+        }
+
+        /**
+         * 依次执行领取到的上下文。流程在其他线程上完成时由完成流程的线程接着执行剩余部分
+         * @param index 下一个要执行的序号，-1 表示需要领取新段
+         * @param end 当前段的结束序号（不含）
+         */
+        private void runWorker(int index, int end) {
+            try {
+                for (;;) {
+                    if (index < 0 || index >= end) {
+                        index = cursor.getAndAdd(chunkSize);
+                        if (index >= contexts.size() || completion.isDone()) {
+                            finishWorker();
+                            return;
+                        }
+                        end = Math.min(index + chunkSize, contexts.size());
+                    }
+
+                    int current = index++;
+                    CompletableFuture<EkingflowResponse> execution =
+                            start(flowId, contexts.get(current), compiledFlow, false);
+                    if (!execution.isDone()) {
+                        int next = index;
+                        int chunkEnd = end;
+                        execution.thenAccept(response -> {
+                            if (complete(current, response)) {
+                                runWorker(next, chunkEnd);
+                            }
+                        });
+                        return;
+                    }
+                    if (!complete(current, execution.join())) {
+                        return;
+                    }
+                }
+            } catch (Throwable e) {
+                completion.completeExceptionally(e);
+            }
+        }
+
+        /**
+         * 记录一个流程的结果
+         * @return 是否继续执行，回调抛出异常时整个批次失败
+         */
+        private boolean complete(int index, EkingflowResponse response) {
+            if (!response.isSuccess()) {
+                failures.incrementAndGet();
+            }
+            if (callback == null) {
+                responses[index] = response;
+                return true;
+            }
+            try {
+                callback.accept(response, index);
+                return true;
+            } catch (Throwable e) {
+                completion.completeExceptionally(e);
+                return false;
+            } finally {
+                response.release();
+            }
+        }
+
+        private void finishWorker() {
+            if (runningWorkers.decrementAndGet() == 0) {
+                completion.complete(null);
+            }
+        }
+    }
+
+    /**
+     * 设置批量执行的最大并行工作者数，默认为可用处理器数
+     */
+    public void setBatchParallelism(int batchParallelism) {
+        if (batchParallelism <= 0) {
+            throw new IllegalArgumentException("Invalid batch parallelism: " + batchParallelism);
+        }
+        this.batchParallelism = batchParallelism;
+    }
+
+    /**
+     * 获取批量执行的最大并行工作者数
+     */
+    public int getBatchParallelism() {
+        return batchParallelism;
+    }
+
+    /**
+     * 在当前线程上开始执行流程，直到流程结束或当前线程上没有就绪节点
+     */
+    private CompletableFuture<EkingflowResponse> start(String flowId, FlowContext context) {
+        return start(flowId, context, null, true);
+    }
+
+    /**
+     * 在当前线程上开始执行流程
+     * @param compiledFlow 已解析的执行计划，为 null 时从缓存获取
+     * @param logEach 是否按执行日志策略输出单个流程的执行事件，批量和流式执行只输出汇总日志
+     */
+    private CompletableFuture<EkingflowResponse> start(String flowId, FlowContext context,
+                                                       CompiledFlow compiledFlow, boolean logEach) {
+        logger.debug("Starting flow execution: {}", flowId);
+
+        long startNanos = metricsEnabled ? System.nanoTime() : 0;
         EkingflowResponse response = EkingflowResponse.success();
-        Slot slot = new Slot();
+        Slot slot = slotPool.acquire();
         response.setSlot(slot);
         response.setContext(context);
 
+        CompletableFuture<Void> execution;
         try {
-            // 获取流程定义
-            String elExpression = flowBus.getFlowDefinition(flowId);
-            if (elExpression == null) {
+            // 获取已编译的执行计划，流程定义未变化时直接命中缓存
+            if (compiledFlow == null) {
+                compiledFlow = planCache.get(flowId);
+            }
+            if (compiledFlow == null) {
                 String errorMsg = "Flow not found: " + flowId;
                 logger.error(errorMsg);
                 // 确保失败的response也包含slot和context
                 response.setSuccess(false);
                 response.setMessage(errorMsg);
                 slot.setEndTime(System.currentTimeMillis());
-                return response;
+                if (metricsEnabled) {
+                    metrics.recordFlow(flowId, System.nanoTime() - startNanos, false);
+                }
+                if (logEach) {
+                    executionLog.completed(flowId, response);
+                }
+                return CompletableFuture.completedFuture(response);
             }
 
-            // 匹配表达式到执行计划
-            logger.debug("Using ANTLR4 parser");
-            ExecutionPlan plan = flowParser.parse(elExpression);
-            logger.info("Parsed flow {} into plan: {}", flowId, plan);
+            if (logger.isDebugEnabled()) {
+                // 版本号装箱并分配参数数组，关闭 DEBUG 时不做
+                logger.debug("Using compiled plan for flow {} (version {}): {}",
+                        flowId, compiledFlow.getVersion(), compiledFlow.getGraph());
+            }
 
             // 执行流程
-            executeFlow(plan, response, slot);
+            execution = new FlowRun(flowId, compiledFlow.getGraph(), response, slot).start();
+        } catch (Exception e) {
+            execution = CompletableFuture.failedFuture(e);
+        }
 
-            // 标记slot为完成
-            slot.setEndTime(System.currentTimeMillis());
-            logger.info("Flow execution completed: {} in {}ms", flowId, slot.getDuration());
+        return execution.handle((ignored, error) -> {
+            if (metricsEnabled) {
+                metrics.recordFlow(flowId, System.nanoTime() - startNanos, error == null && response.isSuccess());
+            }
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error;
+                logger.error("Error executing flow: " + flowId, cause);
+                // 确保异常的response也包含slot和context
+                response.setSuccess(false);
+                response.setException(cause instanceof Exception ? (Exception) cause : new RuntimeException(cause));
+                slot.setEndTime(System.currentTimeMillis());
+                if (logEach) {
+                    executionLog.completed(flowId, response);
+                }
+                return response;
+            }
 
-        } catch (Exception e) {
-            logger.error("Error executing flow: " + flowId, e);
-            // 确保异常的response也包含slot和context
-            response.setSuccess(false);
-            response.setException(e);
+            // 标记slot为完成
             slot.setEndTime(System.currentTimeMillis());
+            if (logger.isDebugEnabled()) {
+                logger.debug("Flow execution completed: {} in {}ms", flowId, slot.getDuration());
+            }
+            if (logEach) {
+                executionLog.completed(flowId, response);
+            }
             return response;
-        }
-
-        return response;
+        });
     }
 
     /**
-     * 执行基于执行计划的流程。
+     * 一次流程执行的状态，按执行图的依赖关系调度节点。
+     *
+     * 每个节点的状态是一个整数：低位为尚未完成的前驱数量，ACTIVE 位表示至少有一个前驱激活了该节点。
+     * 前驱完成时对后继发出信号（激活或跳过），计数归零时节点就绪：被激活则执行，否则跳过并继续向后传递跳过信号。
+     * 条件节点完成后只激活所选分支，未选中的分支不逐个遍历，直接跳过到分支之后的节点。
+     * 分发组件在运行时给出的流程外分支由若干条通道领取执行，最后一条结束的通道继续通知分发节点的后继。
+     * 限制并发数的并行分组中，被激活的分支入口先领取分组的名额，没有名额时等待；
+     * 任一分支的结束节点完成或被跳过后，名额立即交给下一个等待的分支。
+     *
+     * 执行以"链"为单位：一条链在一个线程上依次处理就绪节点，同一时刻最多持有一个待执行的节点，
+     * 其余同时就绪的节点各自作为新链提交到线程池，因此没有线程会阻塞等待其他分支。
+     * 所有链结束后合并各链的轨迹段并完成 future。
      */
-    private void executeFlow(ExecutionPlan plan, EkingflowResponse response, Slot slot) throws Exception {
-        Set<String> executedComponents = new HashSet<>();
-        int index = 0;
-
-        while (index < plan.getSequentialComponents().size() && response.isSuccess()) {
-            String componentId = plan.getSequentialComponents().get(index);
-            index++;
-
-            // 检查是否有并行分支（fork节点）
-            List<String> branches = plan.getParallelBranches(componentId);
-            if (branches != null && !branches.isEmpty()) {
-                // 这是一个fork节点 - 并行执行分支
-                logger.debug("Executing parallel branches for fork node: {}", componentId);
-
-                // 先执行fork节点本身
-                executeComponent(componentId, response, slot);
-                executedComponents.add(componentId);
-
-                if (response.isSuccess()) {
-                    // 并行执行所有分支
-                    parallelExecutor.executeParallel(
-                        branches,
-                        (branchId) -> executeComponent(branchId, response, slot),
-                        response,
-                        slot
-                    );
-
-                    // 标记所有分支为已执行
-                    executedComponents.addAll(branches);
-
-                    // 检查是否有join节点（下一个组件）
-                    if (index < plan.getSequentialComponents().size()) {
-                        String joinNodeId = plan.getSequentialComponents().get(index);
-                        logger.debug("Executing join node: {}", joinNodeId);
-                        executeComponent(joinNodeId, response, slot);
-                        executedComponents.add(joinNodeId);
-                        index++; // 跳过join节点，因为它已经执行过了
-                    }
+    private final class FlowRun {
+
+        private static final int ACTIVE = 1 << 30;
+        private static final int PENDING_MASK = ACTIVE - 1;
+
+        /**
+         * 节点执行结果：激活所有后继、只激活条件的真分支、只激活条件的假分支、跳过所有后继、停止流程、
+         * 执行分发组件给出的分支后再通知后继
+         */
+        private static final int PROCEED = 0;
+        private static final int TAKE_TRUE = 1;
+        private static final int TAKE_FALSE = 2;
+        private static final int SKIP = 3;
+        private static final int HALT = 4;
+        private static final int FAN_OUT = 5;
+
+        private final String flowId;
+        private final FlowGraph graph;
+        private final EkingflowResponse response;
+        private final Slot slot;
+        private final Executor executor;
+        private final AtomicIntegerArray states;
+        /**
+         * 路由组件选择的流程内目标，屏障作为条件节点时据此选择分支；图中没有这类条件时为 null
+         */
+        private final AtomicReferenceArray<String> routes;
+        /**
+         * 各受限分组的名额，图中没有受限分组时为 null
+         */
+        private final LaneGate[] gates;
+        /**
+         * 受限分支是否已领取名额，由分支所属分组的 LaneGate 加锁访问
+         */
+        private final boolean[] admitted;
+        private final AtomicInteger activeChains = new AtomicInteger(1);
+        private final Queue<ExecutionTrace.Segment> chainTraces = new ConcurrentLinkedQueue<>();
+        private final CompletableFuture<Void> completion = new CompletableFuture<>();
+        private volatile boolean halted;
+
+        FlowRun(String flowId, FlowGraph graph, EkingflowResponse response, Slot slot) {
+            this.flowId = flowId;
+            this.graph = graph;
+            this.response = response;
+            this.slot = slot;
+            this.executor = parallelExecutor.getExecutorService();
+            int[] initial = new int[graph.size()];
+            for (int i = 0; i < initial.length; i++) {
+                initial[i] = graph.getPredecessorCount(i);
+            }
+            this.states = new AtomicIntegerArray(initial);
+            this.routes = graph.hasBarrierConditions() ? new AtomicReferenceArray<>(initial.length) : null;
+            if (graph.hasLaneGroups()) {
+                this.gates = new LaneGate[graph.getLaneGroupCount()];
+                for (int g = 0; g < gates.length; g++) {
+                    gates[g] = new LaneGate(graph.getLaneLimit(g));
                 }
+                this.admitted = new boolean[graph.getLaneBranchCount()];
             } else {
-                // 这不是一个fork节点 - 顺序执行
-                executeComponent(componentId, response, slot);
-                executedComponents.add(componentId);
-
-                // 检查是否有路由组件
-                RoutingResult routingResult = checkRouting(componentId, response);
-                if (routingResult != null && routingResult.shouldContinue()) {
-                    String targetId = routingResult.getTargetComponentId();
-
-                    // 处理路由结果 - 继续执行或停止
-                    if ("__STOP__".equals(targetId)) {
-                        logger.debug("Routing component {} requested to stop execution", componentId);
+                this.gates = null;
+                this.admitted = null;
+            }
+        }
+
+        /**
+         * 在当前线程上开始执行入口节点
+         */
+        CompletableFuture<Void> start() {
+            Chain chain = new Chain();
+            for (int entry : graph.getEntries()) {
+                chain.admit(entry, 0);
+            }
+            runChain(chain, response.getTrace().getRoot());
+            return completion;
+        }
+
+        /**
+         * 在当前线程上执行一条链，直到没有就绪节点
+         * @param chain 链的初始状态：一个已就绪且被激活的节点，或一条动态分支通道
+         * @param trace 该链独占的轨迹段
+         */
+        private void runChain(Chain chain, ExecutionTrace.Segment trace) {
+            try {
+                if (chain.lane != null) {
+                    chain.lane.runLane(chain, trace);
+                }
+                while (chain.size > 0 && !halted) {
+                    int item = chain.work[--chain.size];
+                    boolean active = item >= 0;
+                    int node = active ? item : ~item;
+                    if (active) {
+                        chain.holdingActive = false;
+                    }
+
+                    int outcome = active ? execute(node, chain, trace) : SKIP;
+                    if (gates != null && graph.getNode(node).getType() == NodeType.BRANCH_END) {
+                        release(graph.getEndedBranch(node), chain);
+                        continue;
+                    }
+                    if (outcome == HALT) {
+                        halted = true;
                         break;
                     }
+                    if (outcome == FAN_OUT) {
+                        FanOut fanOut = chain.lane;
+                        chain.lane = null;
+                        fanOut.start(chain, trace);
+                        continue;
+                    }
 
-                    // 处理路由结果 - 继续执行目标组件
-                    if (targetId != null && !executedComponents.contains(targetId)) {
-                        logger.debug("Routing to component: {}", targetId);
-                        executeComponent(targetId, response, slot);
-                        executedComponents.add(targetId);
+                    FlowGraph.Condition condition = graph.getCondition(node);
+                    if (condition == null || outcome == PROCEED) {
+                        chain.signalAll(graph.getSuccessors(node), outcome != SKIP);
+                    } else if (outcome == SKIP) {
+                        // 整个条件分支都不可达，只通知两个分支之外的节点
+                        chain.signalAll(condition.getSkippedEntirely(), false);
+                    } else {
+                        // 未选中分支的节点不会收到信号，也不会被遍历
+                        boolean takeTrue = outcome == TAKE_TRUE;
+                        chain.signalAll(condition.getActivated(takeTrue), true);
+                        chain.signalAll(condition.getSkipped(takeTrue), false);
                     }
                 }
+            } catch (Throwable e) {
+                fail(e);
+            } finally {
+                if (activeChains.decrementAndGet() == 0) {
+                    finish();
+                }
+            }
+        }
+
+        /**
+         * 一条链的待处理节点：非负数为待执行的节点，取反后为待跳过的节点
+         */
+        private final class Chain {
+
+            int[] work = new int[8];
+            int size;
+            boolean holdingActive;
+            /**
+             * 链开始时先执行的动态分支通道，或刚执行完的分发节点给出的分支
+             */
+            FanOut lane;
+
+            Chain() {
             }
 
-            // 处理路由结果 - 检查是否应该继续执行
-            if (!response.isSuccess() && !response.getContext().isContinueOnError()) {
-                logger.warn("Flow execution stopped due to component failure: {}", componentId);
-                break;
+            Chain(int first) {
+                work[size++] = first;
+                holdingActive = true;
+            }
+
+            Chain(FanOut lane) {
+                this.lane = lane;
+            }
+
+            /**
+             * 通知一组节点有一个前驱已完成，并处理因此就绪的节点
+             */
+            void signalAll(int[] nodes, boolean activate) {
+                for (int node : nodes) {
+                    int state = signal(node, activate);
+                    if ((state & PENDING_MASK) != 0) {
+                        continue;
+                    }
+                    if ((state & ACTIVE) == 0) {
+                        push(~node);
+                    } else {
+                        admit(node, 0);
+                    }
+                }
+            }
+
+            /**
+             * 被激活的节点依次领取其所在受限分支的名额（从第 level 层分组开始），全部领取后执行；
+             * 缺少名额时在该分组等待，由结束的分支继续领取
+             */
+            void admit(int node, int level) {
+                int[] branches = gates != null ? graph.getLaneBranches(node) : null;
+                if (branches != null) {
+                    for (; level < branches.length; level++) {
+                        int branch = branches[level];
+                        if (!gates[graph.getLaneGroup(branch)].enter(branch, node, level)) {
+                            return;
+                        }
+                    }
+                }
+                if (!holdingActive) {
+                    // 链中还没有待执行节点：留在当前线程继续执行
+                    push(node);
+                    holdingActive = true;
+                } else {
+                    fork(new Chain(node));
+                }
+            }
+
+            private void push(int item) {
+                if (size == work.length) {
+                    work = Arrays.copyOf(work, size << 1);
+                }
+                work[size++] = item;
+            }
+        }
+
+        /**
+         * 对后继节点发出一个前驱完成的信号
+         * @return 更新后的节点状态
+         */
+        private int signal(int node, boolean activate) {
+            for (;;) {
+                int current = states.get(node);
+                int next = (current - 1) | (activate ? ACTIVE : 0);
+                if (states.compareAndSet(node, current, next)) {
+                    return next;
+                }
+            }
+        }
+
+        /**
+         * 把就绪节点或动态分支通道作为新链提交到线程池
+         * @return 是否提交成功
+         */
+        private boolean fork(Chain chain) {
+            ExecutionTrace.Segment trace = new ExecutionTrace.Segment();
+            chainTraces.add(trace);
+            activeChains.incrementAndGet();
+            try {
+                if (metricsEnabled) {
+                    long submitted = System.nanoTime();
+                    executor.execute(() -> {
+                        metrics.recordBranchWait(flowId, System.nanoTime() - submitted);
+                        runChain(chain, trace);
+                    });
+                } else {
+                    executor.execute(() -> runChain(chain, trace));
+                }
+                return true;
+            } catch (RejectedExecutionException e) {
+                activeChains.decrementAndGet();
+                fail(e);
+                return false;
+            }
+        }
+
+        /**
+         * 分发组件在一次执行中给出的分支。
+         * 流程中已有的分支组件按执行图调度，fork 结果只决定分发节点的哪些后继被激活；
+         * 流程外的分支组件由最多 maxConcurrency 条通道依次领取执行，每条通道是一条链，
+         * 执行完一个分支立即领取下一个，因此大量分支不会一次性占满线程池。
+         * 最后一条结束的通道通知分发节点的后继，没有线程阻塞等待分支。
+         */
+        private final class FanOut {
+
+            private final PlanNode[] branches;
+            private final List<?> items;
+            private final List<String> branchIds;
+            private final int lanes;
+            private final int[] activated;
+            private final int[] skipped;
+            private final AtomicInteger nextBranch = new AtomicInteger();
+            private final AtomicInteger runningLanes;
+
+            FanOut(int forkNode, ForkResult result) {
+                List<String> ids = result.getBranchComponentIds();
+                int[] successors = graph.getSuccessors(forkNode);
+                FlowGraph.Condition condition = graph.getCondition(forkNode);
+
+                // 选中的后继：fork 结果中出现的、分发节点在流程中的直接后继；
+                // 没有选中任何流程中的分支（结果为空或只有动态分支）时激活所有后继
+                int[] selected = result.isDataDriven() ? new int[0] : Arrays.stream(successors)
+                        .filter(successor -> ids.contains(graph.getNode(successor).getId()))
+                        .toArray();
+                if (condition != null) {
+                    // 分发节点同时是条件节点时只能进入一个分支：选中某个分支的第一个组件时选择该分支，
+                    // 否则与不带路由的条件节点一样默认选择假分支
+                    boolean takeTrue = !result.isDataDriven() && takesTrue(ids, condition);
+                    this.activated = condition.getActivated(takeTrue);
+                    this.skipped = condition.getSkipped(takeTrue);
+                } else if (selected.length == 0) {
+                    this.activated = successors;
+                    this.skipped = new int[0];
+                } else {
+                    this.activated = selected;
+                    this.skipped = Arrays.stream(successors)
+                            .filter(successor -> !ids.contains(graph.getNode(successor).getId()))
+                            .toArray();
+                }
+
+                // 动态分支：数据驱动的分支，以及流程中没有的组件
+                List<PlanNode> dynamic = new ArrayList<>();
+                List<String> dynamicIds = new ArrayList<>();
+                List<Object> dynamicItems = result.isDataDriven() ? new ArrayList<>() : null;
+                for (int i = 0; i < ids.size(); i++) {
+                    String id = ids.get(i);
+                    if (!result.isDataDriven() && graph.contains(id) && !isSuccessor(successors, id)) {
+                        // 流程中的其他组件既不能被选中，也不能重复作为动态分支执行
+                        throw new IllegalArgumentException("Fork branch " + id + " is not a direct successor of fork node "
+                                + graph.getNode(forkNode).getId());
+                    }
+                    if (result.isDataDriven() || !graph.contains(id)) {
+                        dynamic.add(graph.resolve(id));
+                        dynamicIds.add(id);
+                        if (dynamicItems != null) {
+                            dynamicItems.add(result.getItems().get(i));
+                        }
+                    }
+                }
+                this.branches = dynamic.toArray(new PlanNode[0]);
+                this.items = dynamicItems;
+                this.branchIds = dynamicIds;
+
+                int maxConcurrency = result.getMaxConcurrency() > 0
+                        ? result.getMaxConcurrency()
+                        : graph.getDefaultMaxConcurrency() > 0
+                                ? graph.getDefaultMaxConcurrency()
+                                : ForkResult.DEFAULT_MAX_CONCURRENCY;
+                this.lanes = Math.min(maxConcurrency, branches.length);
+                this.runningLanes = new AtomicInteger(lanes);
+            }
+
+            /**
+             * fork 结果中先出现的条件分支第一个组件决定选择哪个分支
+             */
+            private boolean takesTrue(List<String> ids, FlowGraph.Condition condition) {
+                for (String id : ids) {
+                    if (id.equals(condition.getTrueHead())) {
+                        return true;
+                    }
+                    if (id.equals(condition.getFalseHead())) {
+                        return false;
+                    }
+                }
+                return false;
+            }
+
+            private boolean isSuccessor(int[] successors, String id) {
+                for (int successor : successors) {
+                    if (graph.getNode(successor).getId().equals(id)) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+
+            /**
+             * 在分发节点所在的链上开始执行分支：当前线程执行第一条通道，其余通道提交到线程池。
+             * 只有一个分支时直接在当前线程上执行，不提交任何任务
+             */
+            void start(Chain chain, ExecutionTrace.Segment trace) {
+                if (lanes == 0) {
+                    complete(chain);
+                    return;
+                }
+                if (lanes > 1 && logger.isDebugEnabled()) {
+                    logger.debug("Forking into {} dynamic branches on {} lanes", branches.length, lanes);
+                }
+                for (int i = 1; i < lanes; i++) {
+                    if (!fork(new Chain(this))) {
+                        runningLanes.decrementAndGet();
+                    }
+                }
+                runLane(chain, trace);
+            }
+
+            /**
+             * 依次领取并执行分支，直到没有剩余分支；最后一条结束的通道通知分发节点的后继
+             */
+            void runLane(Chain chain, ExecutionTrace.Segment trace) {
+                for (int i = nextBranch.getAndIncrement(); i < branches.length && !halted;
+                     i = nextBranch.getAndIncrement()) {
+                    Object item = items != null ? items.get(i) : null;
+                    if (executeComponent(branches[i], item, response, slot, trace) == null
+                            && !response.getContext().isContinueOnError()) {
+                        logger.warn("Flow execution stopped due to fork branch failure: {}", branches[i].getId());
+                        halted = true;
+                    }
+                }
+                if (runningLanes.decrementAndGet() == 0 && !halted) {
+                    complete(chain);
+                }
+            }
+
+            private void complete(Chain chain) {
+                if (branches.length > 0) {
+                    // 存储已完成的分支到插槽，用于合并节点
+                    slot.setData("__completed_branches__", branchIds);
+                }
+                chain.signalAll(activated, true);
+                chain.signalAll(skipped, false);
+            }
+        }
+
+        /**
+         * 执行一个节点并确定如何通知其后继
+         */
+        private int execute(int index, Chain chain, ExecutionTrace.Segment trace) {
+            PlanNode node = graph.getNode(index);
+            if (node.getType() == NodeType.BRANCH_END) {
+                return PROCEED;
+            }
+            if (node.getType() == NodeType.BARRIER) {
+                // 存储已完成的分支到插槽，用于合并节点
+                slot.setData("__completed_branches__", graph.getBarrierBranches(index));
+                FlowGraph.Condition condition = graph.getCondition(index);
+                return condition != null ? routeBarrier(index, condition) : PROCEED;
+            }
+
+            FlowGraph.Condition condition = graph.getCondition(index);
+            ComponentInvocation invocation = executeComponent(node, null, response, slot, trace);
+            if (invocation == null) {
+                if (!response.getContext().isContinueOnError()) {
+                    logger.warn("Flow execution stopped due to component failure: {}", node.getId());
+                    return HALT;
+                }
+                return condition != null ? TAKE_FALSE : PROCEED;
+            }
+
+            // 分发组件给出的分支
+            if (node.getType() == NodeType.FORK && invocation.getForkResult() != null) {
+                chain.lane = new FanOut(index, invocation.getForkResult());
+                return FAN_OUT;
+            }
+
+            // 检查是否有路由组件
+            RoutingResult routingResult = node.getType() == NodeType.ROUTING ? checkRouting(invocation) : null;
+            if (routingResult == null) {
+                return condition != null ? TAKE_FALSE : PROCEED;
+            }
+
+            // 处理路由结果 - 停止执行
+            if (!routingResult.shouldContinue()) {
+                logger.debug("Routing component {} requested to stop execution", node.getId());
+                return HALT;
+            }
+
+            // 处理路由结果 - 选择条件分支
+            String targetId = routingResult.getTargetComponentId();
+            if (condition != null) {
+                if (targetId.equals(condition.getTrueHead())) {
+                    return TAKE_TRUE;
+                }
+                if (targetId.equals(condition.getFalseHead())) {
+                    return TAKE_FALSE;
+                }
+            }
+
+            // 处理路由结果 - 路由到流程之外的组件时立即执行；流程内的组件按依赖关系执行，不重复执行
+            if (graph.contains(targetId)) {
+                if (routes != null) {
+                    routes.set(index, targetId);
+                }
+            } else {
+                logger.debug("Routing to component: {}", targetId);
+                if (executeComponent(graph.resolve(targetId), null, response, slot, trace) == null
+                        && !response.getContext().isContinueOnError()) {
+                    return HALT;
+                }
+            }
+            return condition != null ? TAKE_FALSE : PROCEED;
+        }
+
+        /**
+         * 屏障作为条件节点时与不带路由的条件节点一样默认选择假分支，
+         * 屏障之前的出口节点路由到某个分支的第一个组件时选择该分支，按前驱顺序取第一个匹配
+         */
+        private int routeBarrier(int index, FlowGraph.Condition condition) {
+            for (int predecessor : graph.getPredecessors(index)) {
+                String targetId = routes.get(predecessor);
+                if (condition.getTrueHead().equals(targetId)) {
+                    return TAKE_TRUE;
+                }
+                if (condition.getFalseHead().equals(targetId)) {
+                    return TAKE_FALSE;
+                }
+            }
+            return TAKE_FALSE;
+        }
+
+        /**
+         * 受限分支结束：归还名额，并让因此领取到名额的等待节点继续执行
+         */
+        private void release(int branch, Chain chain) {
+            List<int[]> resumed = gates[graph.getLaneGroup(branch)].exit(branch);
+            for (int[] waiting : resumed) {
+                chain.admit(waiting[0], waiting[1] + 1);
             }
         }
+
+        /**
+         * 受限分组的名额。分支的第一个被激活的入口领取名额，同一分支的其他入口随之通过；
+         * 分支结束节点完成或被跳过时归还名额。没有领取过名额的分支（整个被跳过）结束时不归还
+         */
+        private final class LaneGate {
+
+            private final int limit;
+            private int running;
+            /**
+             * 等待名额的节点及其所在的分组层级
+             */
+            private final ArrayDeque<int[]> waiting = new ArrayDeque<>();
+
+            LaneGate(int limit) {
+                this.limit = limit;
+            }
+
+            /**
+             * @return 是否已持有或领取到名额，否则节点进入等待
+             */
+            synchronized boolean enter(int branch, int node, int level) {
+                if (admitted[branch]) {
+                    return true;
+                }
+                if (running < limit) {
+                    admitted[branch] = true;
+                    running++;
+                    return true;
+                }
+                waiting.add(new int[]{node, level});
+                return false;
+            }
+
+            /**
+             * @return 领取到名额、可以继续执行的等待节点
+             */
+            synchronized List<int[]> exit(int branch) {
+                if (!admitted[branch]) {
+                    return Collections.emptyList();
+                }
+                running--;
+                List<int[]> resumed = new ArrayList<>();
+                while (running < limit && !waiting.isEmpty()) {
+                    int[] next = waiting.poll();
+                    int nextBranch = graph.getLaneBranches(next[0])[next[1]];
+                    if (!admitted[nextBranch]) {
+                        admitted[nextBranch] = true;
+                        running++;
+                    }
+                    resumed.add(next);
+                }
+                // 同一分支的其他入口不再等待
+                waiting.removeIf(next -> admitted[graph.getLaneBranches(next[0])[next[1]]] && resumed.add(next));
+                return resumed;
+            }
+        }
+
+        private void fail(Throwable e) {
+            logger.error("Error scheduling flow", e);
+            response.setSuccess(false);
+            response.setException(e instanceof Exception ? (Exception) e : new RuntimeException(e));
+            halted = true;
+        }
+
+        /**
+         * 所有链结束后合并轨迹并完成执行
+         */
+        private void finish() {
+            response.getTrace().getRoot().merge(chainTraces);
+            completion.complete(null);
+        }
     }
 
     /**
-     * 检查组件是否是路由组件并获取路由结果
+     * 获取路由组件在本次调用中给出的路由结果
      */
-    private RoutingResult checkRouting(String componentId, EkingflowResponse response) {
-        if (!response.getSlot().hasData("__routing_target__")) {
+    private RoutingResult checkRouting(ComponentInvocation invocation) {
+        String target = invocation != null ? invocation.getRoutingTarget() : null;
+        if (target == null) {
             return null;
         }
 
-        String target = response.getSlot().getData("__routing_target__");
-        response.getSlot().removeData("__routing_target__");
-
         if ("__STOP__".equals(target)) {
             return RoutingResult.stop();
         }
 
-        if (target != null) {
-            return RoutingResult.continueTo(target);
+        return RoutingResult.continueTo(target);
+    }
+
+    /**
+     * 设置执行指标实现，并把执行器的线程池绑定到该实现
+     * @param metrics 指标实现，为 null 时不记录指标
+     */
+    public void setMetrics(FlowMetrics metrics) {
+        this.metrics = metrics != null ? metrics : FlowMetrics.NOOP;
+        this.metricsEnabled = this.metrics != FlowMetrics.NOOP;
+        this.metrics.bindExecutorService(parallelExecutor.getExecutorService());
+    }
+
+    /**
+     * 设置组件监听器分发表，并为已注册的组件预先计算监听器数组
+     * @param listeners 监听器分发表，为 null 或没有监听器时不通知
+     */
+    public void setListenerDispatcher(ComponentListenerDispatcher listeners) {
+        if (listeners == null || listeners.isEmpty()) {
+            this.listeners = null;
+            return;
         }
+        for (String componentId : flowBus.getComponentIds()) {
+            NodeComponent component = flowBus.getComponent(componentId);
+            if (component != null) {
+                listeners.prepare(component.getClass());
+            }
+        }
+        this.listeners = listeners;
+    }
 
-        return null;
+    /**
+     * 获取组件监听器分发表，未设置时返回 null
+     */
+    public ComponentListenerDispatcher getListenerDispatcher() {
+        return listeners;
+    }
+
+    /**
+     * 设置执行日志策略，默认不输出单个流程的执行事件
+     * @param executionLog 执行日志策略，为 null 时不输出
+     */
+    public void setExecutionLog(ExecutionLog executionLog) {
+        this.executionLog = executionLog != null ? executionLog : ExecutionLog.DISABLED;
+    }
+
+    /**
+     * 获取执行日志策略
+     */
+    public ExecutionLog getExecutionLog() {
+        return executionLog;
+    }
+
+    /**
+     * 获取执行指标实现
+     */
+    public FlowMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * 获取执行计划缓存，用于查看命中率、编译耗时或手动失效
+     */
+    public ExecutionPlanCache getPlanCache() {
+        return planCache;
+    }
+
+    /**
+     * 获取槽位池。调用方在读取完结果后调用 EkingflowResponse.release() 把槽位归还到该池
+     */
+    public SlotPool getSlotPool() {
+        return slotPool;
+    }
+
+    /**
+     * 关闭执行器，释放并行分支和异步流程使用的线程池
+     */
+    public void shutdown() {
+        parallelExecutor.shutdown();
     }
 
     /**
@@ -197,55 +1150,84 @@ public class FlowExecutor {
      */
     public EkingflowResponse executeComponent(String componentId, FlowContext context) {
         EkingflowResponse response = EkingflowResponse.success();
-        Slot slot = new Slot();
-        executeComponent(componentId, response, slot);
+        Slot slot = slotPool.acquire();
+        response.setSlot(slot);
+        response.setContext(context);
+        executeComponent(PlanNode.of(componentId, flowBus.getComponent(componentId)), null, response, slot,
+                response.getTrace().getRoot());
         return response;
     }
 
     /**
-     * 执行一个单独的组件并返回响应
+     * 执行一个已链接的计划节点。
+     * 槽位和上下文只绑定到本次调用，不写入单例组件的字段，因此同一组件可以被并发执行。
+     * 执行结果记录到调用方所在的轨迹段，并行分支各自持有独立的段。
+     * @param forkItem 数据驱动的动态分支分配到的数据项，其他情况为 null
+     * @return 本次组件调用（可读取路由结果），组件未注册时返回 null
      */
-    private void executeComponent(String componentId, EkingflowResponse response, Slot slot) {
-        try {
-            // 从总线获取组件实例
-            NodeComponent component = flowBus.getComponent(componentId);
-            if (component == null) {
-                String errorMsg = "Component not found: " + componentId;
-                logger.error(errorMsg);
-                response.setSuccess(false);
-                response.setMessage(errorMsg);
-                return;
+    private ComponentInvocation executeComponent(PlanNode node, Object forkItem, EkingflowResponse response, Slot slot,
+                                                 ExecutionTrace.Segment trace) {
+        NodeComponent component = node.getComponent();
+        if (component == null) {
+            String errorMsg = "Component not found: " + node.getId();
+            logger.error(errorMsg);
+            response.setSuccess(false);
+            response.setMessage(errorMsg);
+            if (metricsEnabled) {
+                metrics.recordComponentError(node.getId(), 0);
             }
+            return null;
+        }
 
-            // 设置组件上下文和插槽
-            component.setContext(response.getContext());
-            component.setSlot(slot);
-
-            logger.debug("Executing component: {}", componentId);
+        long start = System.nanoTime();
+        try (ComponentInvocation invocation = ComponentInvocation.open(slot, response.getContext(), forkItem)) {
+            logger.debug("Executing component: {}", node.getId());
 
             // 执行组件生命周期方法
             component.beforeProcess();
-            response.addExecutedComponent(component.getName());
+            if (listeners != null) {
+                listeners.fireBefore(component);
+            }
+            long processStart = metricsEnabled ? System.nanoTime() : 0;
 
             component.process();
+            long processEnd = metricsEnabled ? System.nanoTime() : 0;
 
             component.afterProcess();
+            if (listeners != null) {
+                listeners.fireAfter(component);
+            }
 
-            logger.debug("Component executed successfully: {}", componentId);
+            long end = System.nanoTime();
+            trace.record(node.getId(), component, start, end, true);
+            if (metricsEnabled) {
+                metrics.recordComponent(node.getId(), processStart - start, processEnd - processStart, end - processEnd);
+            }
+            logger.debug("Component executed successfully: {}", node.getId());
+            return invocation;
 
         } catch (Exception e) {
-            logger.error("Error executing component: " + componentId, e);
+            long end = System.nanoTime();
+            trace.record(node.getId(), component, start, end, false);
+            if (metricsEnabled) {
+                metrics.recordComponentError(node.getId(), end - start);
+            }
+            logger.error("Error executing component: " + node.getId(), e);
             response.setSuccess(false);
             response.setException(e);
 
-            try {
-                NodeComponent component = flowBus.getComponent(componentId);
-                if (component != null) {
+            try (ComponentInvocation ignored = ComponentInvocation.open(slot, response.getContext(), forkItem)) {
+                try {
                     component.onError(e);
+                } finally {
+                    if (listeners != null) {
+                        listeners.fireError(component);
+                    }
                 }
             } catch (Exception handlerError) {
-                logger.error("Error in component error handler: " + componentId, handlerError);
+                logger.error("Error in component error handler: " + node.getId(), handlerError);
             }
+            return null;
         }
     }
 
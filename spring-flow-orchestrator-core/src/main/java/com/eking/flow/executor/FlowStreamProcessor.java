@@ -0,0 +1,235 @@
+package com.eking.flow.executor;
+
+import com.eking.flow.context.FlowContext;
+import com.eking.flow.response.EkingflowResponse;
+
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 流式执行：把上游发布的每个上下文交给同一个流程执行，并把响应发布给下游。
+ *
+ * 上游的请求量就是许可数：开始时请求 maxInFlight 个上下文，之后每向下游交付一个响应才再请求一个，
+ * 因此正在执行和等待下游消费的流程合计不超过 maxInFlight。下游消费变慢时上游随之停止发送，
+ * 响应不会在内存中无限堆积。
+ *
+ * 响应按流程完成的顺序发布，不保证与输入顺序一致；下游读取完响应后应调用 release() 归还槽位。
+ * 只支持一个下游订阅者。
+ */
+public class FlowStreamProcessor implements Flow.Processor<FlowContext, EkingflowResponse> {
+
+    private final FlowExecutor flowExecutor;
+    private final String flowId;
+    private final int maxInFlight;
+
+    private final Queue<EkingflowResponse> results = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicLong requested = new AtomicLong();
+    private final AtomicInteger drainRequests = new AtomicInteger();
+    private final AtomicReference<Flow.Subscriber<? super EkingflowResponse>> downstream = new AtomicReference<>();
+
+    private volatile Flow.Subscription upstream;
+    private volatile boolean upstreamDone;
+    private volatile Throwable upstreamError;
+    private volatile boolean cancelled;
+    private volatile Throwable requestError;
+
+    /**
+     * 只在 drain() 中访问，drain() 同一时刻只有一个线程执行
+     */
+    private boolean terminated;
+
+    FlowStreamProcessor(FlowExecutor flowExecutor, String flowId, int maxInFlight) {
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("Invalid max in-flight executions: " + maxInFlight);
+        }
+        this.flowExecutor = flowExecutor;
+        this.flowId = flowId;
+        this.maxInFlight = maxInFlight;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        if (upstream != null) {
+            subscription.cancel();
+            return;
+        }
+        upstream = subscription;
+        if (cancelled) {
+            subscription.cancel();
+        } else {
+            subscription.request(maxInFlight);
+        }
+    }
+
+    @Override
+    public void onNext(FlowContext context) {
+        Objects.requireNonNull(context, "context");
+        if (cancelled) {
+            return;
+        }
+        running.incrementAndGet();
+        CompletableFuture<EkingflowResponse> execution;
+        try {
+            execution = flowExecutor.submit(flowId, context);
+        } catch (Exception e) {
+            execution = CompletableFuture.failedFuture(e);
+        }
+        execution.whenComplete((response, error) -> {
+            if (error != null) {
+                Throwable cause = error.getCause() != null ? error.getCause() : error;
+                response = EkingflowResponse.fail(cause instanceof Exception ? (Exception) cause : new RuntimeException(cause));
+                response.setContext(context);
+            }
+            // 先入队再减少计数，drain() 看到计数为 0 时结果一定已经入队
+            results.add(response);
+            running.decrementAndGet();
+            drain();
+        });
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        upstreamError = throwable;
+        upstreamDone = true;
+        drain();
+    }
+
+    @Override
+    public void onComplete() {
+        upstreamDone = true;
+        drain();
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super EkingflowResponse> subscriber) {
+        Objects.requireNonNull(subscriber, "subscriber");
+        if (!downstream.compareAndSet(null, subscriber)) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                }
+
+                @Override
+                public void cancel() {
+                }
+            });
+            subscriber.onError(new IllegalStateException("FlowStreamProcessor supports only one subscriber"));
+            return;
+        }
+        subscriber.onSubscribe(new Flow.Subscription() {
+            @Override
+            public void request(long n) {
+                if (n <= 0) {
+                    // 非法请求量：取消上游并以 onError 结束下游
+                    requestError = new IllegalArgumentException("Non-positive request: " + n);
+                    cancel();
+                    return;
+                }
+                requested.getAndAccumulate(n, (current, added) -> {
+                    long sum = current + added;
+                    return sum < 0 ? Long.MAX_VALUE : sum;
+                });
+                drain();
+            }
+
+            @Override
+            public void cancel() {
+                cancelled = true;
+                Flow.Subscription subscription = upstream;
+                if (subscription != null) {
+                    subscription.cancel();
+                }
+                drain();
+            }
+        });
+    }
+
+    /**
+     * 获取正在执行的流程数量
+     */
+    public int getRunningCount() {
+        return running.get();
+    }
+
+    /**
+     * 获取已完成但尚未交付给下游的响应数量
+     */
+    public int getBufferedCount() {
+        return results.size();
+    }
+
+    /**
+     * 在满足下游请求量的前提下交付已完成的响应，上游结束且全部交付后通知下游结束。
+     * 多个线程同时调用时只有一个线程执行交付，其余调用合并到该线程的下一轮
+     */
+    private void drain() {
+        if (drainRequests.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        for (;;) {
+            Flow.Subscriber<? super EkingflowResponse> subscriber = downstream.get();
+            Throwable failure = requestError;
+            if (failure != null && subscriber != null && !terminated) {
+                terminated = true;
+                subscriber.onError(failure);
+            }
+            if (cancelled) {
+                // 下游已取消：释放已完成的响应，仍在执行的流程完成后同样在这里释放
+                EkingflowResponse response;
+                while ((response = results.poll()) != null) {
+                    response.release();
+                }
+            } else if (subscriber != null && !terminated) {
+                long demand = requested.get();
+                long delivered = 0;
+                while (delivered != demand) {
+                    EkingflowResponse response = results.poll();
+                    if (response == null) {
+                        break;
+                    }
+                    subscriber.onNext(response);
+                    delivered++;
+                    Flow.Subscription subscription = upstream;
+                    if (subscription != null && !upstreamDone) {
+                        subscription.request(1);
+                    }
+                }
+                if (delivered != 0 && demand != Long.MAX_VALUE) {
+                    requested.addAndGet(-delivered);
+                }
+                if (upstreamDone && running.get() == 0 && results.isEmpty()) {
+                    terminated = true;
+                    Throwable error = upstreamError;
+                    if (error != null) {
+                        subscriber.onError(error);
+                    } else {
+                        subscriber.onComplete();
+                    }
+                }
+            }
+
+            missed = drainRequests.addAndGet(-missed);
+            if (missed == 0) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "FlowStreamProcessor{" +
+                "flowId='" + flowId + '\'' +
+                ", maxInFlight=" + maxInFlight +
+                ", running=" + running.get() +
+                ", buffered=" + results.size() +
+                '}';
+    }
+}
@@ -0,0 +1,35 @@
+package com.eking.flow.metrics;
+
+/**
+ * 组件生命周期阶段，分别记录耗时
+ */
+public enum ComponentPhase {
+
+    /**
+     * NodeComponent.beforeProcess()
+     */
+    BEFORE_PROCESS("beforeProcess"),
+
+    /**
+     * NodeComponent.process()
+     */
+    PROCESS("process"),
+
+    /**
+     * NodeComponent.afterProcess()
+     */
+    AFTER_PROCESS("afterProcess");
+
+    private final String tag;
+
+    ComponentPhase(String tag) {
+        this.tag = tag;
+    }
+
+    /**
+     * 获取用作指标标签的名称，即对应的方法名
+     */
+    public String getTag() {
+        return tag;
+    }
+}
@@ -0,0 +1,76 @@
+package com.eking.flow.metrics;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * 流程执行指标 SPI。
+ *
+ * 执行引擎在热点路径上调用这些方法，耗时均为 System.nanoTime() 的差值（纳秒）。
+ * 实现必须线程安全，并且应避免在每次调用时分配对象或查找注册表，例如按ID缓存计时器。
+ * 所有方法都有空实现，只需覆盖关心的指标；未设置实现时引擎使用 NOOP，且不会额外读取时钟。
+ */
+public interface FlowMetrics {
+
+    /**
+     * 不记录任何指标
+     */
+    FlowMetrics NOOP = new FlowMetrics() {
+    };
+
+    /**
+     * 记录一次流程执行
+     * @param flowId 流程ID
+     * @param durationNanos 从开始执行到响应完成的耗时
+     * @param success 是否执行成功
+     */
+    default void recordFlow(String flowId, long durationNanos, boolean success) {
+    }
+
+    /**
+     * 记录组件一个生命周期阶段的耗时，只在组件执行成功时记录
+     * @param componentId 组件ID
+     * @param phase 生命周期阶段
+     * @param durationNanos 耗时
+     */
+    default void recordComponent(String componentId, ComponentPhase phase, long durationNanos) {
+    }
+
+    /**
+     * 记录组件一次成功执行的各生命周期阶段耗时，引擎每次组件执行只调用一次。
+     * 默认按阶段依次调用 recordComponent(componentId, phase, durationNanos)；
+     * 按组件ID缓存计时器的实现可以覆盖该方法，每次执行只查找一次
+     * @param componentId 组件ID
+     * @param beforeNanos beforeProcess() 的耗时
+     * @param processNanos process() 的耗时
+     * @param afterNanos afterProcess() 的耗时
+     */
+    default void recordComponent(String componentId, long beforeNanos, long processNanos, long afterNanos) {
+        recordComponent(componentId, ComponentPhase.BEFORE_PROCESS, beforeNanos);
+        recordComponent(componentId, ComponentPhase.PROCESS, processNanos);
+        recordComponent(componentId, ComponentPhase.AFTER_PROCESS, afterNanos);
+    }
+
+    /**
+     * 记录一次组件执行失败
+     * @param componentId 组件ID
+     * @param durationNanos 从开始执行到抛出异常的耗时
+     */
+    default void recordComponentError(String componentId, long durationNanos) {
+    }
+
+    /**
+     * 记录并行分支的等待时间：节点就绪并提交到线程池，到开始在工作线程上执行之间的耗时
+     * @param flowId 流程ID
+     * @param waitNanos 等待时间
+     */
+    default void recordBranchWait(String flowId, long waitNanos) {
+    }
+
+    /**
+     * 绑定执行器使用的线程池，实现可以据此注册队列深度、活跃线程数等指标。
+     * 在设置到 FlowExecutor 时调用一次
+     * @param executorService 流程和并行分支使用的线程池
+     */
+    default void bindExecutorService(ExecutorService executorService) {
+    }
+}
@@ -0,0 +1,29 @@
+package com.eking.flow.optimizer;
+
+import com.eking.flow.ast.FlowComponent;
+import com.eking.flow.ast.ParallelComponent;
+
+/**
+ * 折叠只有一个分支的并行分组：(A -> B)[2] 变为 A -> B。
+ * 分支有多个出口时原本会在分组后插入一个屏障节点，折叠后后续步骤直接依赖这些出口，少一次调度。
+ * 带 FORK/JOIN 节点的分组会执行这两个组件，不折叠
+ */
+public class CollapseSingleBranchPass extends RewritePass {
+
+    @Override
+    public String getName() {
+        return "collapseSingleBranch";
+    }
+
+    @Override
+    protected FlowComponent rewrite(FlowComponent node) {
+        if (node instanceof ParallelComponent) {
+            ParallelComponent parallel = (ParallelComponent) node;
+            if (parallel.getBranches().size() == 1
+                    && parallel.getForkNodeId() == null && parallel.getJoinNodeId() == null) {
+                return parallel.getBranches().get(0);
+            }
+        }
+        return node;
+    }
+}
@@ -0,0 +1,85 @@
+package com.eking.flow.optimizer;
+
+import com.eking.flow.ast.ConditionalComponent;
+import com.eking.flow.ast.FlowComponent;
+import com.eking.flow.ast.ParallelComponent;
+import com.eking.flow.ast.SequenceComponent;
+import com.eking.flow.ast.SimpleComponent;
+import com.eking.flow.ast.SubflowComponent;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * 合并结构相同的子树：同一表达式中重复出现的组件、分支和分组只保留一个实例，各处引用共享。
+ * 执行图仍在每个位置展开节点，减少的是常驻内存的 AST 节点数；应放在最后执行，使前面步骤产生的重复也被合并
+ */
+public class DeduplicatePass implements OptimizationPass {
+
+    @Override
+    public String getName() {
+        return "deduplicate";
+    }
+
+    @Override
+    public FlowComponent apply(FlowComponent root) {
+        return new Canonicalizer().apply(root);
+    }
+
+    /**
+     * 单次优化的规范实例表。子节点先于父节点规范化，因此父节点的键只需引用子节点实例的编号
+     */
+    private static final class Canonicalizer extends RewritePass {
+        private final Map<String, FlowComponent> canonical = new HashMap<>();
+        private final Map<FlowComponent, Integer> ids = new IdentityHashMap<>();
+
+        @Override
+        public String getName() {
+            return "deduplicate";
+        }
+
+        @Override
+        protected FlowComponent rewrite(FlowComponent node) {
+            String key = key(node);
+            if (key == null) {
+                return node;
+            }
+            FlowComponent existing = canonical.putIfAbsent(key, node);
+            if (existing == null) {
+                return node;
+            }
+            if (node instanceof SubflowComponent
+                    && ((SubflowComponent) existing).getTarget() != ((SubflowComponent) node).getTarget()) {
+                return node;
+            }
+            return existing;
+        }
+
+        private String key(FlowComponent node) {
+            if (node instanceof SimpleComponent) {
+                return "S:" + ((SimpleComponent) node).getName();
+            }
+            if (node instanceof SubflowComponent) {
+                return "F:" + ((SubflowComponent) node).getFlowId();
+            }
+            StringBuilder key;
+            if (node instanceof SequenceComponent) {
+                key = new StringBuilder("Q(");
+            } else if (node instanceof ConditionalComponent) {
+                key = new StringBuilder("C(");
+            } else if (node instanceof ParallelComponent) {
+                ParallelComponent parallel = (ParallelComponent) node;
+                key = new StringBuilder("P:").append(parallel.getMaxConcurrency())
+                        .append(':').append(parallel.getForkNodeId())
+                        .append(':').append(parallel.getJoinNodeId()).append('(');
+            } else {
+                return null;
+            }
+            for (FlowComponent child : FlowTrees.children(node)) {
+                key.append(ids.computeIfAbsent(child, c -> ids.size())).append(',');
+            }
+            return key.append(')').toString();
+        }
+    }
+}
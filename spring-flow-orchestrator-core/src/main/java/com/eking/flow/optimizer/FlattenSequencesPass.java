@@ -0,0 +1,31 @@
+package com.eking.flow.optimizer;
+
+import com.eking.flow.ast.FlowComponent;
+import com.eking.flow.ast.SequenceComponent;
+
+import java.util.List;
+
+/**
+ * 展开嵌套的顺序流程：A -> (B -> C) -> D 变为 A -> B -> C -> D，只有一步的顺序流程替换为该步骤。
+ * 执行图不变，生成执行计划时少一层中间 ExecutionPlan 的合并
+ */
+public class FlattenSequencesPass extends RewritePass {
+
+    @Override
+    public String getName() {
+        return "flattenSequences";
+    }
+
+    @Override
+    protected FlowComponent rewrite(FlowComponent node) {
+        if (!(node instanceof SequenceComponent)) {
+            return node;
+        }
+        List<FlowComponent> steps = ((SequenceComponent) node).getSteps();
+        boolean nested = steps.size() == 1;
+        for (FlowComponent step : steps) {
+            nested |= step instanceof SequenceComponent;
+        }
+        return nested ? FlowTrees.sequence(FlowTrees.steps(node)) : node;
+    }
+}
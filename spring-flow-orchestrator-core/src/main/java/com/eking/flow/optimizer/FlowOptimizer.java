@@ -0,0 +1,76 @@
+package com.eking.flow.optimizer;
+
+import com.eking.flow.ast.FlowComponent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * AST 优化流水线，由 ExecutionPlanCache 在解析和链接子流程之后、生成执行计划和执行图之前调用。
+ *
+ * 表达式原样转换得到的 AST 含有括号产生的嵌套顺序流程、只有一个分支的并行分组、
+ * 两个分支里重复的步骤和变量展开后重复的子树，它们会生成多余的中间执行计划、屏障节点和执行图节点。
+ * 标准流水线依次折叠单分支并行分组、移出条件分支中不变的步骤、展开嵌套顺序流程，最后合并相同子树。
+ */
+public final class FlowOptimizer {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlowOptimizer.class);
+
+    /**
+     * 不做任何优化
+     */
+    public static final FlowOptimizer NONE = new FlowOptimizer(Collections.emptyList());
+
+    private final List<OptimizationPass> passes;
+
+    public FlowOptimizer(List<OptimizationPass> passes) {
+        this.passes = Collections.unmodifiableList(new ArrayList<>(passes));
+    }
+
+    /**
+     * 创建标准优化流水线
+     */
+    public static FlowOptimizer standard() {
+        return new FlowOptimizer(List.of(
+                new CollapseSingleBranchPass(),
+                new HoistConditionsPass(),
+                new FlattenSequencesPass(),
+                new DeduplicatePass()));
+    }
+
+    /**
+     * 获取按执行顺序排列的优化步骤
+     */
+    public List<OptimizationPass> getPasses() {
+        return passes;
+    }
+
+    /**
+     * 依次执行所有优化步骤
+     * @param ast 已链接子流程的 AST，不会被修改
+     * @return 优化后的 AST，没有可优化的部分时返回 ast 本身
+     */
+    public FlowComponent optimize(FlowComponent ast) {
+        FlowComponent result = ast;
+        for (OptimizationPass pass : passes) {
+            FlowComponent optimized = pass.apply(result);
+            if (optimized != result && logger.isTraceEnabled()) {
+                logger.trace("Optimization pass {}: {} -> {}", pass.getName(), result, optimized);
+            }
+            result = optimized;
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        List<String> names = new ArrayList<>();
+        for (OptimizationPass pass : passes) {
+            names.add(pass.getName());
+        }
+        return "FlowOptimizer" + names;
+    }
+}
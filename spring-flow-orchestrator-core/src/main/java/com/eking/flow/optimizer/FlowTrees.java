@@ -0,0 +1,104 @@
+package com.eking.flow.optimizer;
+
+import com.eking.flow.ast.ConditionalComponent;
+import com.eking.flow.ast.FlowComponent;
+import com.eking.flow.ast.ParallelComponent;
+import com.eking.flow.ast.SequenceComponent;
+import com.eking.flow.ast.SimpleComponent;
+import com.eking.flow.ast.SubflowComponent;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 优化步骤共用的 AST 工具方法
+ */
+final class FlowTrees {
+
+    private FlowTrees() {
+    }
+
+    /**
+     * 获取节点的直接子节点，子流程引用没有子节点
+     */
+    static List<FlowComponent> children(FlowComponent node) {
+        if (node instanceof SequenceComponent) {
+            return ((SequenceComponent) node).getSteps();
+        }
+        if (node instanceof ConditionalComponent) {
+            ConditionalComponent conditional = (ConditionalComponent) node;
+            return List.of(conditional.getCondition(), conditional.getTrueBranch(), conditional.getFalseBranch());
+        }
+        if (node instanceof ParallelComponent) {
+            return ((ParallelComponent) node).getBranches();
+        }
+        return Collections.emptyList();
+    }
+
+    /**
+     * 把节点展开为顺序步骤，嵌套的顺序流程逐层展开
+     */
+    static List<FlowComponent> steps(FlowComponent node) {
+        List<FlowComponent> steps = new ArrayList<>();
+        addSteps(node, steps);
+        return steps;
+    }
+
+    private static void addSteps(FlowComponent node, List<FlowComponent> steps) {
+        if (node instanceof SequenceComponent) {
+            for (FlowComponent step : ((SequenceComponent) node).getSteps()) {
+                addSteps(step, steps);
+            }
+        } else {
+            steps.add(node);
+        }
+    }
+
+    /**
+     * 由顺序步骤构建节点，只有一步时直接返回该步骤
+     */
+    static FlowComponent sequence(List<FlowComponent> steps) {
+        return steps.size() == 1 ? steps.get(0) : new SequenceComponent(steps);
+    }
+
+    /**
+     * 判断两个节点是否结构相同，即生成的执行图相同
+     */
+    static boolean sameStructure(FlowComponent first, FlowComponent second) {
+        if (first == second) {
+            return true;
+        }
+        if (first instanceof SimpleComponent && second instanceof SimpleComponent) {
+            return ((SimpleComponent) first).getName().equals(((SimpleComponent) second).getName());
+        }
+        if (first instanceof SubflowComponent && second instanceof SubflowComponent) {
+            return ((SubflowComponent) first).getFlowId().equals(((SubflowComponent) second).getFlowId())
+                    && ((SubflowComponent) first).getTarget() == ((SubflowComponent) second).getTarget();
+        }
+        if (first instanceof ParallelComponent && second instanceof ParallelComponent) {
+            ParallelComponent left = (ParallelComponent) first;
+            ParallelComponent right = (ParallelComponent) second;
+            if (left.getMaxConcurrency() != right.getMaxConcurrency()
+                    || !Objects.equals(left.getForkNodeId(), right.getForkNodeId())
+                    || !Objects.equals(left.getJoinNodeId(), right.getJoinNodeId())) {
+                return false;
+            }
+        } else if (!(first instanceof SequenceComponent && second instanceof SequenceComponent)
+                && !(first instanceof ConditionalComponent && second instanceof ConditionalComponent)) {
+            return false;
+        }
+        List<FlowComponent> left = children(first);
+        List<FlowComponent> right = children(second);
+        if (left.size() != right.size()) {
+            return false;
+        }
+        for (int i = 0; i < left.size(); i++) {
+            if (!sameStructure(left.get(i), right.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,57 @@
+package com.eking.flow.optimizer;
+
+import com.eking.flow.ast.ConditionalComponent;
+import com.eking.flow.ast.FlowComponent;
+import com.eking.flow.ast.SequenceComponent;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 把不随条件变化的步骤移出条件分支：
+ * <ul>
+ *     <li>两个分支相同：r ? X : X 变为 r -> X</li>
+ *     <li>两个分支以相同的步骤结尾：r ? (A -> S) : (B -> S) 变为 (r ? A : B) -> S</li>
+ * </ul>
+ * 路由按分支的第一个组件选择分支，因此每个分支至少保留第一个步骤；
+ * 两个分支相同时无论路由到哪一侧都执行同样的步骤，路由到流程之外的组件和停止执行的行为也不变。
+ * 移出的步骤在执行图中只出现一次，不再在两个分支中各建一份
+ */
+public class HoistConditionsPass extends RewritePass {
+
+    @Override
+    public String getName() {
+        return "hoistConditions";
+    }
+
+    @Override
+    protected FlowComponent rewrite(FlowComponent node) {
+        if (!(node instanceof ConditionalComponent)) {
+            return node;
+        }
+        ConditionalComponent conditional = (ConditionalComponent) node;
+        if (FlowTrees.sameStructure(conditional.getTrueBranch(), conditional.getFalseBranch())) {
+            List<FlowComponent> steps = FlowTrees.steps(conditional.getCondition());
+            steps.addAll(FlowTrees.steps(conditional.getTrueBranch()));
+            return FlowTrees.sequence(steps);
+        }
+
+        List<FlowComponent> trueSteps = FlowTrees.steps(conditional.getTrueBranch());
+        List<FlowComponent> falseSteps = FlowTrees.steps(conditional.getFalseBranch());
+        int common = 0;
+        int limit = Math.min(trueSteps.size(), falseSteps.size()) - 1;
+        while (common < limit && FlowTrees.sameStructure(trueSteps.get(trueSteps.size() - 1 - common),
+                falseSteps.get(falseSteps.size() - 1 - common))) {
+            common++;
+        }
+        if (common == 0) {
+            return node;
+        }
+        List<FlowComponent> steps = new ArrayList<>();
+        steps.add(new ConditionalComponent(conditional.getCondition(),
+                FlowTrees.sequence(new ArrayList<>(trueSteps.subList(0, trueSteps.size() - common))),
+                FlowTrees.sequence(new ArrayList<>(falseSteps.subList(0, falseSteps.size() - common)))));
+        steps.addAll(trueSteps.subList(trueSteps.size() - common, trueSteps.size()));
+        return new SequenceComponent(steps);
+    }
+}
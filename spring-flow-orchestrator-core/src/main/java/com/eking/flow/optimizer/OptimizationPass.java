@@ -0,0 +1,24 @@
+package com.eking.flow.optimizer;
+
+import com.eking.flow.ast.FlowComponent;
+
+/**
+ * AST 优化步骤。
+ * 实现不能修改输入的任何节点（同一版本的 AST 被多个流程共享），只能返回新的节点，
+ * 且优化前后生成的执行图必须按相同的依赖顺序执行相同的组件。
+ * 子流程引用 flow(id) 视为叶子节点，被引用流程的 AST 已单独优化。
+ */
+public interface OptimizationPass {
+
+    /**
+     * 获取步骤名称，用于日志
+     */
+    String getName();
+
+    /**
+     * 优化整棵 AST
+     * @param root 根节点
+     * @return 优化后的根节点，没有可优化的部分时返回 root 本身
+     */
+    FlowComponent apply(FlowComponent root);
+}
@@ -0,0 +1,83 @@
+package com.eking.flow.optimizer;
+
+import com.eking.flow.ast.ConditionalComponent;
+import com.eking.flow.ast.FlowComponent;
+import com.eking.flow.ast.ParallelComponent;
+import com.eking.flow.ast.SequenceComponent;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 自底向上逐个节点改写的优化步骤：先改写子节点，子节点有变化时重建父节点，再把父节点交给 rewrite()。
+ * 变量定义会让同一个节点出现在多处，每个节点只改写一次，改写结果同样在这些位置共享。
+ */
+public abstract class RewritePass implements OptimizationPass {
+
+    @Override
+    public FlowComponent apply(FlowComponent root) {
+        return visit(root, new IdentityHashMap<>());
+    }
+
+    /**
+     * 改写一个子节点已经改写完成的节点
+     * @param node 节点
+     * @return 改写后的节点，不需要改写时返回 node 本身
+     */
+    protected abstract FlowComponent rewrite(FlowComponent node);
+
+    private FlowComponent visit(FlowComponent node, Map<FlowComponent, FlowComponent> visited) {
+        FlowComponent done = visited.get(node);
+        if (done != null) {
+            return done;
+        }
+        FlowComponent rebuilt = node;
+        if (node instanceof SequenceComponent) {
+            List<FlowComponent> steps = ((SequenceComponent) node).getSteps();
+            List<FlowComponent> newSteps = visitAll(steps, visited);
+            if (newSteps != steps) {
+                rebuilt = new SequenceComponent(newSteps);
+            }
+        } else if (node instanceof ConditionalComponent) {
+            ConditionalComponent conditional = (ConditionalComponent) node;
+            FlowComponent condition = visit(conditional.getCondition(), visited);
+            FlowComponent trueBranch = visit(conditional.getTrueBranch(), visited);
+            FlowComponent falseBranch = visit(conditional.getFalseBranch(), visited);
+            if (condition != conditional.getCondition() || trueBranch != conditional.getTrueBranch()
+                    || falseBranch != conditional.getFalseBranch()) {
+                rebuilt = new ConditionalComponent(condition, trueBranch, falseBranch);
+            }
+        } else if (node instanceof ParallelComponent) {
+            ParallelComponent parallel = (ParallelComponent) node;
+            List<FlowComponent> branches = parallel.getBranches();
+            List<FlowComponent> newBranches = visitAll(branches, visited);
+            if (newBranches != branches) {
+                rebuilt = new ParallelComponent(newBranches, parallel.getForkNodeId(), parallel.getJoinNodeId(),
+                        parallel.getMaxConcurrency());
+            }
+        }
+        FlowComponent result = rewrite(rebuilt);
+        visited.put(node, result);
+        return result;
+    }
+
+    /**
+     * 改写一组子节点，全部未变化时返回原列表
+     */
+    private List<FlowComponent> visitAll(List<FlowComponent> nodes, Map<FlowComponent, FlowComponent> visited) {
+        List<FlowComponent> result = null;
+        for (int i = 0; i < nodes.size(); i++) {
+            FlowComponent node = nodes.get(i);
+            FlowComponent rewritten = visit(node, visited);
+            if (rewritten != node && result == null) {
+                result = new ArrayList<>(nodes.subList(0, i));
+            }
+            if (result != null) {
+                result.add(rewritten);
+            }
+        }
+        return result != null ? result : nodes;
+    }
+}
@@ -2,28 +2,90 @@ package com.eking.flow.parser;
 
 import com.eking.flow.ast.FlowComponent;
 import com.eking.flow.execution.ExecutionPlan;
+import org.antlr.v4.runtime.BailErrorStrategy;
+import org.antlr.v4.runtime.BaseErrorListener;
 import org.antlr.v4.runtime.CharStream;
 import org.antlr.v4.runtime.CharStreams;
 import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.DefaultErrorStrategy;
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.Recognizer;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
 import org.antlr.v4.runtime.tree.ParseTree;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * ANTLR4-based Flow Parser
  * Uses generated parser code and custom Visitor to convert flow expressions to ExecutionPlan
+ *
+ * 默认分两阶段解析：先用 SLL 预测模式和遇错即停的错误策略解析，绝大多数表达式在这一阶段完成；
+ * 只有 SLL 失败时才回退到完整的 LL 预测模式重新解析，真正的语法错误在 LL 阶段报告。
+ * 两种模式对合法表达式生成相同的语法树。
  */
 public class ANTLR4FlowParser {
 
     private static final Logger logger = LoggerFactory.getLogger(ANTLR4FlowParser.class);
 
+    private final boolean sllFirst;
+
+    /**
+     * SLL 阶段失败、回退到 LL 重新解析的次数
+     */
+    private final AtomicLong llFallbacks = new AtomicLong();
+
+    public ANTLR4FlowParser() {
+        this(true);
+    }
+
+    /**
+     * @param sllFirst 是否先尝试 SLL 预测模式，false 时总是使用完整的 LL 预测模式解析
+     */
+    public ANTLR4FlowParser(boolean sllFirst) {
+        this.sllFirst = sllFirst;
+    }
+
+    /**
+     * 是否先尝试 SLL 预测模式
+     */
+    public boolean isSllFirst() {
+        return sllFirst;
+    }
+
+    /**
+     * 获取 SLL 阶段失败、回退到 LL 重新解析的次数
+     */
+    public long getLlFallbackCount() {
+        return llFallbacks.get();
+    }
+
     /**
      * Parse EL expression and return execution plan
      */
     public ExecutionPlan parse(String elExpression) {
+        FlowComponent ast = parseAst(elExpression);
+
+        // Convert AST to ExecutionPlan
+        ExecutionPlan plan = ast.toExecutionPlan();
+
+        if (plan == null) {
+            logger.error("toExecutionPlan() returned null!");
+            throw new RuntimeException("Failed to convert AST to ExecutionPlan");
+        }
+
+        logger.debug("Parsed successfully: {}", plan);
+        return plan;
+    }
+
+    /**
+     * 解析EL表达式并返回流程 AST，用于构建执行图
+     */
+    public FlowComponent parseAst(String elExpression) {
         if (elExpression == null || elExpression.trim().isEmpty()) {
             throw new IllegalArgumentException("EL expression cannot be empty");
         }
@@ -37,15 +99,31 @@ public class ANTLR4FlowParser {
 
             // Create lexer
             FlowExpressionLexer lexer = new FlowExpressionLexer(charStream);
+            lexer.removeErrorListeners();
+            lexer.addErrorListener(ThrowingErrorListener.INSTANCE);
 
             // Create token stream
             CommonTokenStream tokens = new CommonTokenStream(lexer);
 
-            // Create parser
+            // Create parser，语法错误直接抛出而不是打印到控制台后继续恢复
             FlowExpressionParser parser = new FlowExpressionParser(tokens);
+            parser.removeErrorListeners();
 
             // Parse from program rule
-            ParseTree tree = parser.program();
+            ParseTree tree;
+            if (sllFirst) {
+                try {
+                    tree = parseSll(parser);
+                } catch (ParseCancellationException e) {
+                    // SLL 无法确定或表达式有误：回到第一个词法单元，用完整的 LL 重新解析
+                    llFallbacks.incrementAndGet();
+                    logger.debug("SLL parse failed, retrying with full LL: {}", trimmedExpression);
+                    parser.reset();
+                    tree = parseLl(parser);
+                }
+            } else {
+                tree = parseLl(parser);
+            }
 
             // Create visitor and definitions map
             Map<String, FlowComponent> definitions = new HashMap<>();
@@ -79,18 +157,9 @@ public class ANTLR4FlowParser {
                 throw new RuntimeException("Visitor failed to create AST - returned null");
             }
 
-            logger.debug("AST toString: {}", finalAst.toString());
-
-            // Convert AST to ExecutionPlan
-            ExecutionPlan plan = finalAst.toExecutionPlan();
-
-            if (plan == null) {
-                logger.error("toExecutionPlan() returned null!");
-                throw new RuntimeException("Failed to convert AST to ExecutionPlan");
-            }
-
-            logger.debug("Parsed successfully: {}", plan);
-            return plan;
+            logger.debug("AST toString: {}", finalAst);
+            ParserRuntime.enforceLimit();
+            return finalAst;
 
         } catch (Exception e) {
             logger.error("Failed to parse EL expression: {}", trimmedExpression, e);
@@ -98,6 +167,41 @@ public class ANTLR4FlowParser {
         }
     }
 
+    /**
+     * SLL 预测模式不回溯完整上下文，遇到第一个错误即以 ParseCancellationException 终止，不报告给监听器
+     */
+    private static FlowExpressionParser.ProgramContext parseSll(FlowExpressionParser parser) {
+        parser.getInterpreter().setPredictionMode(PredictionMode.SLL);
+        parser.setErrorHandler(new BailErrorStrategy());
+        return parser.program();
+    }
+
+    /**
+     * 完整的 LL 预测模式，语法错误通过 ThrowingErrorListener 抛出
+     */
+    private static FlowExpressionParser.ProgramContext parseLl(FlowExpressionParser parser) {
+        parser.getInterpreter().setPredictionMode(PredictionMode.LL);
+        parser.setErrorHandler(new DefaultErrorStrategy());
+        parser.removeErrorListeners();
+        parser.addErrorListener(ThrowingErrorListener.INSTANCE);
+        return parser.program();
+    }
+
+    /**
+     * 语法错误监听器：遇到任何词法或语法错误立即抛出异常，
+     * 避免错误的表达式被ANTLR自动恢复成不完整的流程。
+     */
+    private static class ThrowingErrorListener extends BaseErrorListener {
+
+        static final ThrowingErrorListener INSTANCE = new ThrowingErrorListener();
+
+        @Override
+        public void syntaxError(Recognizer<?, ?> recognizer, Object offendingSymbol,
+                                int line, int charPositionInLine, String msg, RecognitionException e) {
+            throw new IllegalArgumentException("Syntax error at " + line + ":" + charPositionInLine + " - " + msg);
+        }
+    }
+
     /**
      * Test method to parse and print AST
      */
@@ -1,12 +1,13 @@
 // Generated from com/orchestrator/flow/parser/FlowExpression.g4 by ANTLR 4.13.1
 package com.eking.flow.parser;
-
+import org.antlr.v4.runtime.Lexer;
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenStream;
 import org.antlr.v4.runtime.*;
-import org.antlr.v4.runtime.atn.ATN;
-import org.antlr.v4.runtime.atn.ATNDeserializer;
-import org.antlr.v4.runtime.atn.LexerATNSimulator;
-import org.antlr.v4.runtime.atn.PredictionContextCache;
+import org.antlr.v4.runtime.atn.*;
 import org.antlr.v4.runtime.dfa.DFA;
+import org.antlr.v4.runtime.misc.*;
 
 @SuppressWarnings({"all", "warnings", "unchecked", "unused", "cast", "CheckReturnValue", "this-escape"})
 public class FlowExpressionLexer extends Lexer {
@@ -16,7 +17,8 @@ public class FlowExpressionLexer extends Lexer {
 	protected static final PredictionContextCache _sharedContextCache =
 		new PredictionContextCache();
 	public static final int
-		ARROW=1, QMARK=2, COLON=3, COMMA=4, EQ=5, LPAREN=6, RPAREN=7, ID=8, WS=9;
+		ARROW=1, QMARK=2, COLON=3, COMMA=4, EQ=5, LPAREN=6, RPAREN=7, LBRACK=8, 
+		RBRACK=9, FLOW=10, ID=11, INT=12, WS=13;
 	public static String[] channelNames = {
 		"DEFAULT_TOKEN_CHANNEL", "HIDDEN"
 	};
@@ -27,21 +29,23 @@ public class FlowExpressionLexer extends Lexer {
 
 	private static String[] makeRuleNames() {
 		return new String[] {
-			"ARROW", "QMARK", "COLON", "COMMA", "EQ", "LPAREN", "RPAREN", "ID", "WS"
+			"ARROW", "QMARK", "COLON", "COMMA", "EQ", "LPAREN", "RPAREN", "LBRACK", 
+			"RBRACK", "FLOW", "ID", "INT", "WS"
 		};
 	}
 	public static final String[] ruleNames = makeRuleNames();
 
 	private static String[] makeLiteralNames() {
 		return new String[] {
-			null, "'->'", "'?'", "':'", "','", "'='", "'('", "')'"
+			null, "'->'", "'?'", "':'", "','", "'='", "'('", "')'", "'['", "']'", 
+			"'flow'"
 		};
 	}
 	private static final String[] _LITERAL_NAMES = makeLiteralNames();
 	private static String[] makeSymbolicNames() {
 		return new String[] {
-			null, "ARROW", "QMARK", "COLON", "COMMA", "EQ", "LPAREN", "RPAREN", "ID", 
-			"WS"
+			null, "ARROW", "QMARK", "COLON", "COMMA", "EQ", "LPAREN", "RPAREN", "LBRACK", 
+			"RBRACK", "FLOW", "ID", "INT", "WS"
 		};
 	}
 	private static final String[] _SYMBOLIC_NAMES = makeSymbolicNames();
@@ -103,38 +107,49 @@ public class FlowExpressionLexer extends Lexer {
 	public ATN getATN() { return _ATN; }
 
 	public static final String _serializedATN =
-		"\u0004\u0000\t0\u0006\uffff\uffff\u0002\u0000\u0007\u0000\u0002\u0001"+
+		"\u0004\u0000\rF\u0006\uffff\uffff\u0002\u0000\u0007\u0000\u0002\u0001"+
 		"\u0007\u0001\u0002\u0002\u0007\u0002\u0002\u0003\u0007\u0003\u0002\u0004"+
 		"\u0007\u0004\u0002\u0005\u0007\u0005\u0002\u0006\u0007\u0006\u0002\u0007"+
-		"\u0007\u0007\u0002\b\u0007\b\u0001\u0000\u0001\u0000\u0001\u0000\u0001"+
+		"\u0007\u0007\u0002\b\u0007\b\u0002\t\u0007\t\u0002\n\u0007\n\u0002\u000b"+
+		"\u0007\u000b\u0002\f\u0007\f\u0001\u0000\u0001\u0000\u0001\u0000\u0001"+
 		"\u0001\u0001\u0001\u0001\u0002\u0001\u0002\u0001\u0003\u0001\u0003\u0001"+
 		"\u0004\u0001\u0004\u0001\u0005\u0001\u0005\u0001\u0006\u0001\u0006\u0001"+
-		"\u0007\u0001\u0007\u0005\u0007%\b\u0007\n\u0007\f\u0007(\t\u0007\u0001"+
-		"\b\u0004\b+\b\b\u000b\b\f\b,\u0001\b\u0001\b\u0000\u0000\t\u0001\u0001"+
-		"\u0003\u0002\u0005\u0003\u0007\u0004\t\u0005\u000b\u0006\r\u0007\u000f"+
-		"\b\u0011\t\u0001\u0000\u0003\u0003\u0000AZ__az\u0004\u000009AZ__az\u0003"+
-		"\u0000\t\n\r\r  1\u0000\u0001\u0001\u0000\u0000\u0000\u0000\u0003\u0001"+
-		"\u0000\u0000\u0000\u0000\u0005\u0001\u0000\u0000\u0000\u0000\u0007\u0001"+
-		"\u0000\u0000\u0000\u0000\t\u0001\u0000\u0000\u0000\u0000\u000b\u0001\u0000"+
-		"\u0000\u0000\u0000\r\u0001\u0000\u0000\u0000\u0000\u000f\u0001\u0000\u0000"+
-		"\u0000\u0000\u0011\u0001\u0000\u0000\u0000\u0001\u0013\u0001\u0000\u0000"+
-		"\u0000\u0003\u0016\u0001\u0000\u0000\u0000\u0005\u0018\u0001\u0000\u0000"+
-		"\u0000\u0007\u001a\u0001\u0000\u0000\u0000\t\u001c\u0001\u0000\u0000\u0000"+
-		"\u000b\u001e\u0001\u0000\u0000\u0000\r \u0001\u0000\u0000\u0000\u000f"+
-		"\"\u0001\u0000\u0000\u0000\u0011*\u0001\u0000\u0000\u0000\u0013\u0014"+
-		"\u0005-\u0000\u0000\u0014\u0015\u0005>\u0000\u0000\u0015\u0002\u0001\u0000"+
-		"\u0000\u0000\u0016\u0017\u0005?\u0000\u0000\u0017\u0004\u0001\u0000\u0000"+
-		"\u0000\u0018\u0019\u0005:\u0000\u0000\u0019\u0006\u0001\u0000\u0000\u0000"+
-		"\u001a\u001b\u0005,\u0000\u0000\u001b\b\u0001\u0000\u0000\u0000\u001c"+
-		"\u001d\u0005=\u0000\u0000\u001d\n\u0001\u0000\u0000\u0000\u001e\u001f"+
-		"\u0005(\u0000\u0000\u001f\f\u0001\u0000\u0000\u0000 !\u0005)\u0000\u0000"+
-		"!\u000e\u0001\u0000\u0000\u0000\"&\u0007\u0000\u0000\u0000#%\u0007\u0001"+
-		"\u0000\u0000$#\u0001\u0000\u0000\u0000%(\u0001\u0000\u0000\u0000&$\u0001"+
-		"\u0000\u0000\u0000&\'\u0001\u0000\u0000\u0000\'\u0010\u0001\u0000\u0000"+
-		"\u0000(&\u0001\u0000\u0000\u0000)+\u0007\u0002\u0000\u0000*)\u0001\u0000"+
-		"\u0000\u0000+,\u0001\u0000\u0000\u0000,*\u0001\u0000\u0000\u0000,-\u0001"+
-		"\u0000\u0000\u0000-.\u0001\u0000\u0000\u0000./\u0006\b\u0000\u0000/\u0012"+
-		"\u0001\u0000\u0000\u0000\u0003\u0000&,\u0001\u0006\u0000\u0000";
+		"\u0007\u0001\u0007\u0001\b\u0001\b\u0001\t\u0001\t\u0001\t\u0001\t\u0001"+
+		"\t\u0001\n\u0001\n\u0005\n6\b\n\n\n\f\n9\t\n\u0001\u000b\u0004\u000b<"+
+		"\b\u000b\u000b\u000b\f\u000b=\u0001\f\u0004\fA\b\f\u000b\f\f\fB\u0001"+
+		"\f\u0001\f\u0000\u0000\r\u0001\u0001\u0003\u0002\u0005\u0003\u0007\u0004"+
+		"\t\u0005\u000b\u0006\r\u0007\u000f\b\u0011\t\u0013\n\u0015\u000b\u0017"+
+		"\f\u0019\r\u0001\u0000\u0004\u0003\u0000AZ__az\u0004\u000009AZ__az\u0001"+
+		"\u000009\u0003\u0000\t\n\r\r  H\u0000\u0001\u0001\u0000\u0000\u0000\u0000"+
+		"\u0003\u0001\u0000\u0000\u0000\u0000\u0005\u0001\u0000\u0000\u0000\u0000"+
+		"\u0007\u0001\u0000\u0000\u0000\u0000\t\u0001\u0000\u0000\u0000\u0000\u000b"+
+		"\u0001\u0000\u0000\u0000\u0000\r\u0001\u0000\u0000\u0000\u0000\u000f\u0001"+
+		"\u0000\u0000\u0000\u0000\u0011\u0001\u0000\u0000\u0000\u0000\u0013\u0001"+
+		"\u0000\u0000\u0000\u0000\u0015\u0001\u0000\u0000\u0000\u0000\u0017\u0001"+
+		"\u0000\u0000\u0000\u0000\u0019\u0001\u0000\u0000\u0000\u0001\u001b\u0001"+
+		"\u0000\u0000\u0000\u0003\u001e\u0001\u0000\u0000\u0000\u0005 \u0001\u0000"+
+		"\u0000\u0000\u0007\"\u0001\u0000\u0000\u0000\t$\u0001\u0000\u0000\u0000"+
+		"\u000b&\u0001\u0000\u0000\u0000\r(\u0001\u0000\u0000\u0000\u000f*\u0001"+
+		"\u0000\u0000\u0000\u0011,\u0001\u0000\u0000\u0000\u0013.\u0001\u0000\u0000"+
+		"\u0000\u00153\u0001\u0000\u0000\u0000\u0017;\u0001\u0000\u0000\u0000\u0019"+
+		"@\u0001\u0000\u0000\u0000\u001b\u001c\u0005-\u0000\u0000\u001c\u001d\u0005"+
+		">\u0000\u0000\u001d\u0002\u0001\u0000\u0000\u0000\u001e\u001f\u0005?\u0000"+
+		"\u0000\u001f\u0004\u0001\u0000\u0000\u0000 !\u0005:\u0000\u0000!\u0006"+
+		"\u0001\u0000\u0000\u0000\"#\u0005,\u0000\u0000#\b\u0001\u0000\u0000\u0000"+
+		"$%\u0005=\u0000\u0000%\n\u0001\u0000\u0000\u0000&\'\u0005(\u0000\u0000"+
+		"\'\f\u0001\u0000\u0000\u0000()\u0005)\u0000\u0000)\u000e\u0001\u0000\u0000"+
+		"\u0000*+\u0005[\u0000\u0000+\u0010\u0001\u0000\u0000\u0000,-\u0005]\u0000"+
+		"\u0000-\u0012\u0001\u0000\u0000\u0000./\u0005f\u0000\u0000/0\u0005l\u0000"+
+		"\u000001\u0005o\u0000\u000012\u0005w\u0000\u00002\u0014\u0001\u0000\u0000"+
+		"\u000037\u0007\u0000\u0000\u000046\u0007\u0001\u0000\u000054\u0001\u0000"+
+		"\u0000\u000069\u0001\u0000\u0000\u000075\u0001\u0000\u0000\u000078\u0001"+
+		"\u0000\u0000\u00008\u0016\u0001\u0000\u0000\u000097\u0001\u0000\u0000"+
+		"\u0000:<\u0007\u0002\u0000\u0000;:\u0001\u0000\u0000\u0000<=\u0001\u0000"+
+		"\u0000\u0000=;\u0001\u0000\u0000\u0000=>\u0001\u0000\u0000\u0000>\u0018"+
+		"\u0001\u0000\u0000\u0000?A\u0007\u0003\u0000\u0000@?\u0001\u0000\u0000"+
+		"\u0000AB\u0001\u0000\u0000\u0000B@\u0001\u0000\u0000\u0000BC\u0001\u0000"+
+		"\u0000\u0000CD\u0001\u0000\u0000\u0000DE\u0006\f\u0000\u0000E\u001a\u0001"+
+		"\u0000\u0000\u0000\u0004\u00007=B\u0001\u0006\u0000\u0000";
 	public static final ATN _ATN =
 		new ATNDeserializer().deserialize(_serializedATN.toCharArray());
 	static {
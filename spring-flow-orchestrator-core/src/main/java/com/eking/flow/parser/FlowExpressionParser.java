@@ -1,16 +1,13 @@
 // Generated from com/orchestrator/flow/parser/FlowExpression.g4 by ANTLR 4.13.1
 package com.eking.flow.parser;
-
-import org.antlr.v4.runtime.*;
-import org.antlr.v4.runtime.atn.ATN;
-import org.antlr.v4.runtime.atn.ATNDeserializer;
-import org.antlr.v4.runtime.atn.ParserATNSimulator;
-import org.antlr.v4.runtime.atn.PredictionContextCache;
+import org.antlr.v4.runtime.atn.*;
 import org.antlr.v4.runtime.dfa.DFA;
-import org.antlr.v4.runtime.tree.ParseTreeVisitor;
-import org.antlr.v4.runtime.tree.TerminalNode;
-
+import org.antlr.v4.runtime.*;
+import org.antlr.v4.runtime.misc.*;
+import org.antlr.v4.runtime.tree.*;
 import java.util.List;
+import java.util.Iterator;
+import java.util.ArrayList;
 
 @SuppressWarnings({"all", "warnings", "unchecked", "unused", "cast", "CheckReturnValue"})
 public class FlowExpressionParser extends Parser {
@@ -20,7 +17,8 @@ public class FlowExpressionParser extends Parser {
 	protected static final PredictionContextCache _sharedContextCache =
 		new PredictionContextCache();
 	public static final int
-		ARROW=1, QMARK=2, COLON=3, COMMA=4, EQ=5, LPAREN=6, RPAREN=7, ID=8, WS=9;
+		ARROW=1, QMARK=2, COLON=3, COMMA=4, EQ=5, LPAREN=6, RPAREN=7, LBRACK=8, 
+		RBRACK=9, FLOW=10, ID=11, INT=12, WS=13;
 	public static final int
 		RULE_program = 0, RULE_statement = 1, RULE_flow = 2, RULE_conditional = 3, 
 		RULE_parallel = 4, RULE_atom = 5;
@@ -33,14 +31,15 @@ public class FlowExpressionParser extends Parser {
 
 	private static String[] makeLiteralNames() {
 		return new String[] {
-			null, "'->'", "'?'", "':'", "','", "'='", "'('", "')'"
+			null, "'->'", "'?'", "':'", "','", "'='", "'('", "')'", "'['", "']'", 
+			"'flow'"
 		};
 	}
 	private static final String[] _LITERAL_NAMES = makeLiteralNames();
 	private static String[] makeSymbolicNames() {
 		return new String[] {
-			null, "ARROW", "QMARK", "COLON", "COMMA", "EQ", "LPAREN", "RPAREN", "ID", 
-			"WS"
+			null, "ARROW", "QMARK", "COLON", "COMMA", "EQ", "LPAREN", "RPAREN", "LBRACK", 
+			"RBRACK", "FLOW", "ID", "INT", "WS"
 		};
 	}
 	private static final String[] _SYMBOLIC_NAMES = makeSymbolicNames();
@@ -134,7 +133,7 @@ public class FlowExpressionParser extends Parser {
 				setState(15); 
 				_errHandler.sync(this);
 				_la = _input.LA(1);
-			} while ( _la==LPAREN || _la==ID );
+			} while ( (((_la) & ~0x3f) == 0 && ((1L << _la) & 3136L) != 0) );
 			setState(17);
 			match(EOF);
 			}
@@ -371,6 +370,9 @@ public class FlowExpressionParser extends Parser {
 		public TerminalNode COMMA(int i) {
 			return getToken(FlowExpressionParser.COMMA, i);
 		}
+		public TerminalNode LBRACK() { return getToken(FlowExpressionParser.LBRACK, 0); }
+		public TerminalNode INT() { return getToken(FlowExpressionParser.INT, 0); }
+		public TerminalNode RBRACK() { return getToken(FlowExpressionParser.RBRACK, 0); }
 		public ParallelContext(ParserRuleContext parent, int invokingState) {
 			super(parent, invokingState);
 		}
@@ -387,9 +389,9 @@ public class FlowExpressionParser extends Parser {
 		enterRule(_localctx, 8, RULE_parallel);
 		int _la;
 		try {
-			setState(53);
+			setState(57);
 			_errHandler.sync(this);
-			switch ( getInterpreter().adaptivePredict(_input,5,_ctx) ) {
+			switch ( getInterpreter().adaptivePredict(_input,6,_ctx) ) {
 			case 1:
 				enterOuterAlt(_localctx, 1);
 				{
@@ -422,6 +424,20 @@ public class FlowExpressionParser extends Parser {
 				}
 				setState(51);
 				match(RPAREN);
+				setState(55);
+				_errHandler.sync(this);
+				_la = _input.LA(1);
+				if (_la==LBRACK) {
+					{
+					setState(52);
+					match(LBRACK);
+					setState(53);
+					match(INT);
+					setState(54);
+					match(RBRACK);
+					}
+				}
+
 				}
 				break;
 			}
@@ -439,12 +455,13 @@ public class FlowExpressionParser extends Parser {
 
 	@SuppressWarnings("CheckReturnValue")
 	public static class AtomContext extends ParserRuleContext {
-		public TerminalNode ID() { return getToken(FlowExpressionParser.ID, 0); }
+		public TerminalNode FLOW() { return getToken(FlowExpressionParser.FLOW, 0); }
 		public TerminalNode LPAREN() { return getToken(FlowExpressionParser.LPAREN, 0); }
+		public TerminalNode ID() { return getToken(FlowExpressionParser.ID, 0); }
+		public TerminalNode RPAREN() { return getToken(FlowExpressionParser.RPAREN, 0); }
 		public FlowContext flow() {
 			return getRuleContext(FlowContext.class,0);
 		}
-		public TerminalNode RPAREN() { return getToken(FlowExpressionParser.RPAREN, 0); }
 		public AtomContext(ParserRuleContext parent, int invokingState) {
 			super(parent, invokingState);
 		}
@@ -460,24 +477,37 @@ public class FlowExpressionParser extends Parser {
 		AtomContext _localctx = new AtomContext(_ctx, getState());
 		enterRule(_localctx, 10, RULE_atom);
 		try {
-			setState(60);
+			setState(68);
 			_errHandler.sync(this);
 			switch (_input.LA(1)) {
-			case ID:
+			case FLOW:
 				enterOuterAlt(_localctx, 1);
 				{
-				setState(55);
+				setState(59);
+				match(FLOW);
+				setState(60);
+				match(LPAREN);
+				setState(61);
 				match(ID);
+				setState(62);
+				match(RPAREN);
 				}
 				break;
-			case LPAREN:
+			case ID:
 				enterOuterAlt(_localctx, 2);
 				{
-				setState(56);
+				setState(63);
+				match(ID);
+				}
+				break;
+			case LPAREN:
+				enterOuterAlt(_localctx, 3);
+				{
+				setState(64);
 				match(LPAREN);
-				setState(57);
+				setState(65);
 				flow();
-				setState(58);
+				setState(66);
 				match(RPAREN);
 				}
 				break;
@@ -497,7 +527,7 @@ public class FlowExpressionParser extends Parser {
 	}
 
 	public static final String _serializedATN =
-		"\u0004\u0001\t?\u0002\u0000\u0007\u0000\u0002\u0001\u0007\u0001\u0002"+
+		"\u0004\u0001\rG\u0002\u0000\u0007\u0000\u0002\u0001\u0007\u0001\u0002"+
 		"\u0002\u0007\u0002\u0002\u0003\u0007\u0003\u0002\u0004\u0007\u0004\u0002"+
 		"\u0005\u0007\u0005\u0001\u0000\u0004\u0000\u000e\b\u0000\u000b\u0000\f"+
 		"\u0000\u000f\u0001\u0000\u0001\u0000\u0001\u0001\u0001\u0001\u0001\u0001"+
@@ -505,37 +535,41 @@ public class FlowExpressionParser extends Parser {
 		"\u0005\u0002\u001d\b\u0002\n\u0002\f\u0002 \t\u0002\u0001\u0003\u0001"+
 		"\u0003\u0001\u0003\u0001\u0003\u0001\u0003\u0001\u0003\u0003\u0003(\b"+
 		"\u0003\u0001\u0004\u0001\u0004\u0001\u0004\u0001\u0004\u0001\u0004\u0005"+
-		"\u0004/\b\u0004\n\u0004\f\u00042\t\u0004\u0001\u0004\u0001\u0004\u0003"+
-		"\u00046\b\u0004\u0001\u0005\u0001\u0005\u0001\u0005\u0001\u0005\u0001"+
-		"\u0005\u0003\u0005=\b\u0005\u0001\u0005\u0000\u0000\u0006\u0000\u0002"+
-		"\u0004\u0006\b\n\u0000\u0000?\u0000\r\u0001\u0000\u0000\u0000\u0002\u0017"+
-		"\u0001\u0000\u0000\u0000\u0004\u0019\u0001\u0000\u0000\u0000\u0006!\u0001"+
-		"\u0000\u0000\u0000\b5\u0001\u0000\u0000\u0000\n<\u0001\u0000\u0000\u0000"+
-		"\f\u000e\u0003\u0002\u0001\u0000\r\f\u0001\u0000\u0000\u0000\u000e\u000f"+
-		"\u0001\u0000\u0000\u0000\u000f\r\u0001\u0000\u0000\u0000\u000f\u0010\u0001"+
-		"\u0000\u0000\u0000\u0010\u0011\u0001\u0000\u0000\u0000\u0011\u0012\u0005"+
-		"\u0000\u0000\u0001\u0012\u0001\u0001\u0000\u0000\u0000\u0013\u0014\u0005"+
-		"\b\u0000\u0000\u0014\u0015\u0005\u0005\u0000\u0000\u0015\u0018\u0003\u0004"+
-		"\u0002\u0000\u0016\u0018\u0003\u0004\u0002\u0000\u0017\u0013\u0001\u0000"+
-		"\u0000\u0000\u0017\u0016\u0001\u0000\u0000\u0000\u0018\u0003\u0001\u0000"+
-		"\u0000\u0000\u0019\u001e\u0003\u0006\u0003\u0000\u001a\u001b\u0005\u0001"+
-		"\u0000\u0000\u001b\u001d\u0003\u0006\u0003\u0000\u001c\u001a\u0001\u0000"+
-		"\u0000\u0000\u001d \u0001\u0000\u0000\u0000\u001e\u001c\u0001\u0000\u0000"+
-		"\u0000\u001e\u001f\u0001\u0000\u0000\u0000\u001f\u0005\u0001\u0000\u0000"+
-		"\u0000 \u001e\u0001\u0000\u0000\u0000!\'\u0003\b\u0004\u0000\"#\u0005"+
-		"\u0002\u0000\u0000#$\u0003\u0006\u0003\u0000$%\u0005\u0003\u0000\u0000"+
-		"%&\u0003\u0006\u0003\u0000&(\u0001\u0000\u0000\u0000\'\"\u0001\u0000\u0000"+
-		"\u0000\'(\u0001\u0000\u0000\u0000(\u0007\u0001\u0000\u0000\u0000)6\u0003"+
-		"\n\u0005\u0000*+\u0005\u0006\u0000\u0000+0\u0003\u0004\u0002\u0000,-\u0005"+
-		"\u0004\u0000\u0000-/\u0003\u0004\u0002\u0000.,\u0001\u0000\u0000\u0000"+
-		"/2\u0001\u0000\u0000\u00000.\u0001\u0000\u0000\u000001\u0001\u0000\u0000"+
-		"\u000013\u0001\u0000\u0000\u000020\u0001\u0000\u0000\u000034\u0005\u0007"+
-		"\u0000\u000046\u0001\u0000\u0000\u00005)\u0001\u0000\u0000\u00005*\u0001"+
-		"\u0000\u0000\u00006\t\u0001\u0000\u0000\u00007=\u0005\b\u0000\u000089"+
-		"\u0005\u0006\u0000\u00009:\u0003\u0004\u0002\u0000:;\u0005\u0007\u0000"+
-		"\u0000;=\u0001\u0000\u0000\u0000<7\u0001\u0000\u0000\u0000<8\u0001\u0000"+
-		"\u0000\u0000=\u000b\u0001\u0000\u0000\u0000\u0007\u000f\u0017\u001e\'"+
-		"05<";
+		"\u0004/\b\u0004\n\u0004\f\u00042\t\u0004\u0001\u0004\u0001\u0004\u0001"+
+		"\u0004\u0001\u0004\u0003\u00048\b\u0004\u0003\u0004:\b\u0004\u0001\u0005"+
+		"\u0001\u0005\u0001\u0005\u0001\u0005\u0001\u0005\u0001\u0005\u0001\u0005"+
+		"\u0001\u0005\u0001\u0005\u0003\u0005E\b\u0005\u0001\u0005\u0000\u0000"+
+		"\u0006\u0000\u0002\u0004\u0006\b\n\u0000\u0000I\u0000\r\u0001\u0000\u0000"+
+		"\u0000\u0002\u0017\u0001\u0000\u0000\u0000\u0004\u0019\u0001\u0000\u0000"+
+		"\u0000\u0006!\u0001\u0000\u0000\u0000\b9\u0001\u0000\u0000\u0000\nD\u0001"+
+		"\u0000\u0000\u0000\f\u000e\u0003\u0002\u0001\u0000\r\f\u0001\u0000\u0000"+
+		"\u0000\u000e\u000f\u0001\u0000\u0000\u0000\u000f\r\u0001\u0000\u0000\u0000"+
+		"\u000f\u0010\u0001\u0000\u0000\u0000\u0010\u0011\u0001\u0000\u0000\u0000"+
+		"\u0011\u0012\u0005\u0000\u0000\u0001\u0012\u0001\u0001\u0000\u0000\u0000"+
+		"\u0013\u0014\u0005\u000b\u0000\u0000\u0014\u0015\u0005\u0005\u0000\u0000"+
+		"\u0015\u0018\u0003\u0004\u0002\u0000\u0016\u0018\u0003\u0004\u0002\u0000"+
+		"\u0017\u0013\u0001\u0000\u0000\u0000\u0017\u0016\u0001\u0000\u0000\u0000"+
+		"\u0018\u0003\u0001\u0000\u0000\u0000\u0019\u001e\u0003\u0006\u0003\u0000"+
+		"\u001a\u001b\u0005\u0001\u0000\u0000\u001b\u001d\u0003\u0006\u0003\u0000"+
+		"\u001c\u001a\u0001\u0000\u0000\u0000\u001d \u0001\u0000\u0000\u0000\u001e"+
+		"\u001c\u0001\u0000\u0000\u0000\u001e\u001f\u0001\u0000\u0000\u0000\u001f"+
+		"\u0005\u0001\u0000\u0000\u0000 \u001e\u0001\u0000\u0000\u0000!\'\u0003"+
+		"\b\u0004\u0000\"#\u0005\u0002\u0000\u0000#$\u0003\u0006\u0003\u0000$%"+
+		"\u0005\u0003\u0000\u0000%&\u0003\u0006\u0003\u0000&(\u0001\u0000\u0000"+
+		"\u0000\'\"\u0001\u0000\u0000\u0000\'(\u0001\u0000\u0000\u0000(\u0007\u0001"+
+		"\u0000\u0000\u0000):\u0003\n\u0005\u0000*+\u0005\u0006\u0000\u0000+0\u0003"+
+		"\u0004\u0002\u0000,-\u0005\u0004\u0000\u0000-/\u0003\u0004\u0002\u0000"+
+		".,\u0001\u0000\u0000\u0000/2\u0001\u0000\u0000\u00000.\u0001\u0000\u0000"+
+		"\u000001\u0001\u0000\u0000\u000013\u0001\u0000\u0000\u000020\u0001\u0000"+
+		"\u0000\u000037\u0005\u0007\u0000\u000045\u0005\b\u0000\u000056\u0005\f"+
+		"\u0000\u000068\u0005\t\u0000\u000074\u0001\u0000\u0000\u000078\u0001\u0000"+
+		"\u0000\u00008:\u0001\u0000\u0000\u00009)\u0001\u0000\u0000\u00009*\u0001"+
+		"\u0000\u0000\u0000:\t\u0001\u0000\u0000\u0000;<\u0005\n\u0000\u0000<="+
+		"\u0005\u0006\u0000\u0000=>\u0005\u000b\u0000\u0000>E\u0005\u0007\u0000"+
+		"\u0000?E\u0005\u000b\u0000\u0000@A\u0005\u0006\u0000\u0000AB\u0003\u0004"+
+		"\u0002\u0000BC\u0005\u0007\u0000\u0000CE\u0001\u0000\u0000\u0000D;\u0001"+
+		"\u0000\u0000\u0000D?\u0001\u0000\u0000\u0000D@\u0001\u0000\u0000\u0000"+
+		"E\u000b\u0001\u0000\u0000\u0000\b\u000f\u0017\u001e\'079D";
 	public static final ATN _ATN =
 		new ATNDeserializer().deserialize(_serializedATN.toCharArray());
 	static {
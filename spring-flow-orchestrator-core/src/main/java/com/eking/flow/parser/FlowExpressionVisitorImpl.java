@@ -48,21 +48,31 @@ public class FlowExpressionVisitorImpl extends FlowExpressionBaseVisitor<FlowCom
         return visit(ctx.parallel());
     }
 
-    // 处理并行流程: (A, B, C)
+    // 处理并行流程: (A, B, C) 或限制并发数的 (A, B, C)[2]
     @Override
     public FlowComponent visitParallel(FlowExpressionParser.ParallelContext ctx) {
         if (ctx.LPAREN() != null && ctx.flow().size() > 0) {
             List<FlowComponent> branches = ctx.flow().stream()
                     .map(this::visit)
                     .collect(Collectors.toList());
+            if (ctx.INT() != null) {
+                int maxConcurrency = Integer.parseInt(ctx.INT().getText());
+                if (maxConcurrency <= 0) {
+                    throw new IllegalArgumentException("Invalid parallel concurrency limit: " + ctx.getText());
+                }
+                return new ParallelComponent(branches, maxConcurrency);
+            }
             return new ParallelComponent(branches);
         }
         return visit(ctx.atom());
     }
 
-    // 处理原子单元: ID 或 (flow)
+    // 处理原子单元: ID、(flow) 或子流程引用 flow(id)
     @Override
     public FlowComponent visitAtom(FlowExpressionParser.AtomContext ctx) {
+        if (ctx.FLOW() != null) {
+            return new SubflowComponent(ctx.ID().getText());
+        }
         if (ctx.ID() != null) {
             String id = ctx.ID().getText();
             // 如果 ID 是一个已定义的变量，则返回其对应的 AST
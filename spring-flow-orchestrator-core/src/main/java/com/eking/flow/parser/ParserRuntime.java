@@ -0,0 +1,156 @@
+package com.eking.flow.parser;
+
+import org.antlr.v4.runtime.atn.LexerATNSimulator;
+import org.antlr.v4.runtime.atn.ParserATNSimulator;
+import org.antlr.v4.runtime.dfa.DFA;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 生成的 FlowExpressionParser / FlowExpressionLexer 运行时管理。
+ *
+ * ANTLR 把预测结果缓存在生成类的静态 DFA 中，所有解析器实例共享：进程启动时 DFA 为空，
+ * 首次遇到的语法结构需要经过 ATN 模拟才能预测，之后才走缓存；解析的表达式结构越多，DFA 状态越多且不会自动回收。
+ * 本类负责在启动时用代表性表达式预热 DFA、查看 DFA 大小、按需清空，并可设置状态数上限，
+ * 超过上限时由 ANTLR4FlowParser 在解析后自动清空。
+ *
+ * 清空时把 decisionToDFA 中的每个 DFA 替换为新的空对象。模拟器每次预测都重新读取 decisionToDFA，
+ * 因此正在进行的解析会在下一次预测时切换到新的 DFA，并由 ATN 模拟重新建立缓存：只是变慢，预测结果不变；
+ * 清空时已经开始的那一次预测在旧 DFA 上完成，写入的状态随旧 DFA 一起丢弃。
+ * ANTLR 的共享预测上下文缓存没有清空接口，不在管理范围内。
+ */
+public final class ParserRuntime {
+
+    private static final Logger logger = LoggerFactory.getLogger(ParserRuntime.class);
+
+    /**
+     * 覆盖全部语法结构的预热表达式：顺序、条件、嵌套条件、并行分组、并发数限制、括号、变量定义和子流程引用
+     */
+    private static final List<String> WARM_UP_CORPUS = List.of(
+            "A -> B -> C",
+            "A->B->C",
+            "A -> B ? C : D -> E",
+            "A -> B ? (C -> D) : (E ? F : G) -> H",
+            "A -> rT ? C : (rF ? C : (rT ? C : D) -> E) -> F",
+            "A -> (B, C -> D, E) -> F",
+            "A -> (B -> C, D -> E ? F : G)[2] -> H ? I : J -> K",
+            "(A, B) -> (C) -> ((D))",
+            "A -> (B ? (C, D) : (E, F), G)[1] -> H",
+            "X = A -> B ? C : D\nM -> X -> N",
+            "A -> flow(B) -> (C, flow(D)) -> E"
+    );
+
+    /**
+     * 共享 DFA 的访问入口，构造时不读取输入
+     */
+    private static final ParserATNSimulator PARSER_SIMULATOR = new FlowExpressionParser(null).getInterpreter();
+    private static final LexerATNSimulator LEXER_SIMULATOR = new FlowExpressionLexer(null).getInterpreter();
+
+    private static volatile int maxDfaStates;
+
+    private ParserRuntime() {
+    }
+
+    /**
+     * 用内置的代表性表达式预热 DFA
+     * @return 成功解析的表达式数量
+     */
+    public static int warmUp() {
+        return warmUp(WARM_UP_CORPUS);
+    }
+
+    /**
+     * 用给定的表达式预热 DFA，例如应用中已注册的流程定义；解析失败的表达式会被忽略
+     * @param expressions 表达式
+     * @return 成功解析的表达式数量
+     */
+    public static int warmUp(Collection<String> expressions) {
+        long start = System.nanoTime();
+        ANTLR4FlowParser parser = new ANTLR4FlowParser();
+        int parsed = 0;
+        for (String expression : expressions) {
+            try {
+                parser.parseAst(expression);
+                parsed++;
+            } catch (RuntimeException e) {
+                logger.debug("Skipped warm-up expression: {}", expression);
+            }
+        }
+        logger.info("Warmed up flow parser with {} expression(s) in {}us, {} DFA state(s)",
+                parsed, (System.nanoTime() - start) / 1000, getDfaStateCount());
+        return parsed;
+    }
+
+    /**
+     * 获取解析器和词法分析器 DFA 的状态总数
+     */
+    public static int getDfaStateCount() {
+        return getParserDfaStateCount() + getLexerDfaStateCount();
+    }
+
+    /**
+     * 获取解析器 DFA 的状态数
+     */
+    public static int getParserDfaStateCount() {
+        return countStates(PARSER_SIMULATOR.decisionToDFA);
+    }
+
+    /**
+     * 获取词法分析器 DFA 的状态数
+     */
+    public static int getLexerDfaStateCount() {
+        return countStates(LEXER_SIMULATOR.decisionToDFA);
+    }
+
+    /**
+     * 清空解析器和词法分析器的 DFA，之后的解析重新从 ATN 建立缓存
+     */
+    public static synchronized void reset() {
+        PARSER_SIMULATOR.clearDFA();
+        LEXER_SIMULATOR.clearDFA();
+    }
+
+    /**
+     * 设置 DFA 状态数上限，超过后在下一次解析结束时清空 DFA。
+     * 上限应明显大于常用表达式所需的状态数（可在预热后通过 getDfaStateCount() 查看），否则会反复清空
+     * @param maxDfaStates 上限，0 表示不限制
+     */
+    public static void setMaxDfaStates(int maxDfaStates) {
+        if (maxDfaStates < 0) {
+            throw new IllegalArgumentException("Invalid DFA state limit: " + maxDfaStates);
+        }
+        ParserRuntime.maxDfaStates = maxDfaStates;
+    }
+
+    /**
+     * 获取 DFA 状态数上限，0 表示不限制
+     */
+    public static int getMaxDfaStates() {
+        return maxDfaStates;
+    }
+
+    /**
+     * 解析结束后调用：设置了上限且 DFA 超过上限时清空
+     */
+    static void enforceLimit() {
+        int limit = maxDfaStates;
+        if (limit > 0) {
+            int states = getDfaStateCount();
+            if (states > limit) {
+                reset();
+                logger.info("Flow parser DFA reset: {} state(s) exceeded the limit of {}", states, limit);
+            }
+        }
+    }
+
+    private static int countStates(DFA[] decisionToDFA) {
+        int count = 0;
+        for (DFA dfa : decisionToDFA) {
+            count += dfa.states.size();
+        }
+        return count;
+    }
+}
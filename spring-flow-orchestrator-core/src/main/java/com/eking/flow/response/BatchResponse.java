@@ -0,0 +1,103 @@
+package com.eking.flow.response;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 批量执行响应：同一流程对一组上下文的执行结果和本批次的吞吐量
+ */
+public class BatchResponse {
+
+    private final String flowId;
+    private final List<EkingflowResponse> responses;
+    private final int size;
+    private final int failureCount;
+    private final int workerCount;
+    private final long elapsedNanos;
+
+    public BatchResponse(String flowId, List<EkingflowResponse> responses, int size, int failureCount,
+                         int workerCount, long elapsedNanos) {
+        this.flowId = flowId;
+        this.responses = responses != null ? Collections.unmodifiableList(responses) : Collections.emptyList();
+        this.size = size;
+        this.failureCount = failureCount;
+        this.workerCount = workerCount;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * 获取流程ID
+     */
+    public String getFlowId() {
+        return flowId;
+    }
+
+    /**
+     * 获取各上下文的执行响应，顺序与输入一致。
+     * 通过回调接收结果时响应已在回调返回后释放，此处为空列表
+     */
+    public List<EkingflowResponse> getResponses() {
+        return responses;
+    }
+
+    /**
+     * 获取本批次执行的流程数量
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 获取执行成功的数量
+     */
+    public int getSuccessCount() {
+        return size - failureCount;
+    }
+
+    /**
+     * 获取执行失败的数量
+     */
+    public int getFailureCount() {
+        return failureCount;
+    }
+
+    /**
+     * 是否全部执行成功
+     */
+    public boolean isSuccess() {
+        return failureCount == 0;
+    }
+
+    /**
+     * 获取并行执行本批次的工作者数量
+     */
+    public int getWorkerCount() {
+        return workerCount;
+    }
+
+    /**
+     * 获取本批次的总耗时（纳秒）
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * 获取吞吐量（每秒执行的流程数）
+     */
+    public double getThroughput() {
+        return elapsedNanos > 0 ? size * 1_000_000_000d / elapsedNanos : 0;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchResponse{" +
+                "flowId='" + flowId + '\'' +
+                ", size=" + size +
+                ", failed=" + failureCount +
+                ", workers=" + workerCount +
+                ", elapsed=" + elapsedNanos / 1_000_000 + "ms" +
+                ", throughput=" + String.format("%.0f", getThroughput()) + "/s" +
+                '}';
+    }
+}
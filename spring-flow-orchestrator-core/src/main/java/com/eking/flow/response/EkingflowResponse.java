@@ -3,7 +3,6 @@ package com.eking.flow.response;
 import com.eking.flow.context.FlowContext;
 import com.eking.flow.slot.Slot;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -16,11 +15,12 @@ public class EkingflowResponse {
     private Exception exception;
     private FlowContext context;
     private Slot slot;
-    private List<String> executedComponents;
+    private final ExecutionTrace trace;
     private Object data;
+    private boolean released;
 
     public EkingflowResponse() {
-        this.executedComponents = new ArrayList<>();
+        this.trace = new ExecutionTrace();
     }
 
     /**
@@ -110,8 +110,12 @@ public class EkingflowResponse {
 
     /**
      * 获取槽位
+     * @throws IllegalStateException 响应已经释放
      */
     public Slot getSlot() {
+        if (released) {
+            throw new IllegalStateException("Response has been released, its slot may already serve another execution");
+        }
         return slot;
     }
 
@@ -123,17 +127,25 @@ public class EkingflowResponse {
     }
 
     /**
-     * 获取执行的组件列表
+     * 获取执行的组件名称列表，由执行轨迹按执行顺序生成
      */
     public List<String> getExecutedComponents() {
-        return executedComponents;
+        return trace.getComponentNames();
     }
 
     /**
-     * 添加执行的组件名称
+     * 添加执行的组件名称到执行轨迹的根段。
+     * 引擎内部通过 ExecutionTrace.Segment 记录组件，并行分支各自写入独立的段。
      */
     public void addExecutedComponent(String componentName) {
-        this.executedComponents.add(componentName);
+        trace.getRoot().record(componentName);
+    }
+
+    /**
+     * 获取执行轨迹，包含每个组件的ID、执行线程和开始/结束时间
+     */
+    public ExecutionTrace getTrace() {
+        return trace;
     }
 
     /**
@@ -150,13 +162,35 @@ public class EkingflowResponse {
         this.data = data;
     }
 
+    /**
+     * 释放响应，把槽位归还给分配它的槽位池以便复用。
+     * 只能在流程执行结束、不再需要读取槽位数据后调用；释放后 getSlot() 以及对原槽位的访问都会抛出 IllegalStateException。
+     * 重复调用没有效果。
+     */
+    public void release() {
+        if (released) {
+            return;
+        }
+        released = true;
+        if (slot != null && slot.getPool() != null) {
+            slot.getPool().release(slot);
+        }
+    }
+
+    /**
+     * 是否已经释放
+     */
+    public boolean isReleased() {
+        return released;
+    }
+
     @Override
     public String toString() {
         return "LiteflowResponse{" +
                 "success=" + success +
                 ", message='" + message + '\'' +
                 ", exception=" + (exception != null ? exception.getClass().getSimpleName() : "null") +
-                ", executedComponents=" + executedComponents.size() +
+                ", executedComponents=" + trace.size() +
                 '}';
     }
 }
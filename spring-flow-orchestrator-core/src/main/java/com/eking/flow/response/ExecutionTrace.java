@@ -0,0 +1,203 @@
+package com.eking.flow.response;
+
+import com.eking.flow.component.NodeComponent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 流程执行轨迹，记录每个组件的ID、执行线程以及开始/结束时间（纳秒）。
+ *
+ * 轨迹由若干只追加的段（Segment）组成：主流程写入根段，执行图中并发执行的节点链各自写入独立的段，
+ * 每个段在同一时刻只有一个线程写入，因此记录时不需要加锁；
+ * 流程结束后把这些段合并回根段，并按开始时间排序。
+ */
+public final class ExecutionTrace {
+
+    private final Segment root = new Segment();
+
+    /**
+     * 获取根段，主流程的组件记录写入该段
+     */
+    public Segment getRoot() {
+        return root;
+    }
+
+    /**
+     * 获取所有已合并的轨迹记录
+     * @return 按执行顺序排列的不可修改列表
+     */
+    public List<Entry> getEntries() {
+        return root.snapshot();
+    }
+
+    /**
+     * 获取已合并的轨迹记录数量
+     */
+    public int size() {
+        return root.size;
+    }
+
+    /**
+     * 轨迹段：单线程追加写入的记录数组
+     */
+    public static final class Segment {
+
+        private Entry[] entries = new Entry[8];
+        private int size;
+
+        /**
+         * 追加一条组件执行记录
+         * @param componentId 组件ID
+         * @param component 组件实例，用于按需获取组件名称，可以为 null
+         * @param startNanos 开始时间（System.nanoTime）
+         * @param endNanos 结束时间（System.nanoTime）
+         * @param success 是否执行成功
+         */
+        public void record(String componentId, NodeComponent component,
+                           long startNanos, long endNanos, boolean success) {
+            append(new Entry(componentId, component, null, Thread.currentThread().getName(),
+                    startNanos, endNanos, success));
+        }
+
+        /**
+         * 追加一条只有名称的记录
+         * @param componentName 组件名称
+         */
+        public void record(String componentName) {
+            long now = System.nanoTime();
+            append(new Entry(null, null, componentName, Thread.currentThread().getName(), now, now, true));
+        }
+
+        /**
+         * 所有并发写入的段都结束后，把它们合并到当前段，并按开始时间重新排序全部记录。
+         * 用于执行图调度：互不依赖的节点在不同线程上执行，没有固定的分支顺序
+         * @param segments 其他线程写入的段
+         */
+        public void merge(Collection<Segment> segments) {
+            if (segments.isEmpty()) {
+                return;
+            }
+            for (Segment segment : segments) {
+                for (int i = 0; i < segment.size; i++) {
+                    append(segment.entries[i]);
+                }
+            }
+            Arrays.sort(entries, 0, size, Comparator.comparingLong(Entry::getStartNanos));
+        }
+
+        private void append(Entry entry) {
+            if (size == entries.length) {
+                entries = Arrays.copyOf(entries, size << 1);
+            }
+            entries[size++] = entry;
+        }
+
+        List<Entry> snapshot() {
+            return Collections.unmodifiableList(Arrays.asList(Arrays.copyOf(entries, size)));
+        }
+    }
+
+    /**
+     * 一条组件执行记录
+     */
+    public static final class Entry {
+
+        private final String componentId;
+        private final NodeComponent component;
+        private final String componentName;
+        private final String threadName;
+        private final long startNanos;
+        private final long endNanos;
+        private final boolean success;
+
+        Entry(String componentId, NodeComponent component, String componentName, String threadName,
+              long startNanos, long endNanos, boolean success) {
+            this.componentId = componentId;
+            this.component = component;
+            this.componentName = componentName;
+            this.threadName = threadName;
+            this.startNanos = startNanos;
+            this.endNanos = endNanos;
+            this.success = success;
+        }
+
+        /**
+         * 获取组件ID
+         */
+        public String getComponentId() {
+            return componentId;
+        }
+
+        /**
+         * 获取组件名称，只在需要时计算
+         */
+        public String getComponentName() {
+            if (componentName != null) {
+                return componentName;
+            }
+            return component != null ? component.getName() : componentId;
+        }
+
+        /**
+         * 获取执行线程名称
+         */
+        public String getThreadName() {
+            return threadName;
+        }
+
+        /**
+         * 获取开始时间（System.nanoTime）
+         */
+        public long getStartNanos() {
+            return startNanos;
+        }
+
+        /**
+         * 获取结束时间（System.nanoTime）
+         */
+        public long getEndNanos() {
+            return endNanos;
+        }
+
+        /**
+         * 获取执行耗时（纳秒）
+         */
+        public long getDurationNanos() {
+            return endNanos - startNanos;
+        }
+
+        /**
+         * 是否执行成功
+         */
+        public boolean isSuccess() {
+            return success;
+        }
+
+        @Override
+        public String toString() {
+            return getComponentName() + "@" + threadName + "(" + (getDurationNanos() / 1000) + "us"
+                    + (success ? "" : ", failed") + ")";
+        }
+    }
+
+    /**
+     * 获取已合并记录的组件名称列表
+     */
+    List<String> getComponentNames() {
+        List<String> names = new ArrayList<>(root.size);
+        for (int i = 0; i < root.size; i++) {
+            names.add(root.entries[i].getComponentName());
+        }
+        return names;
+    }
+
+    @Override
+    public String toString() {
+        return "ExecutionTrace" + getEntries();
+    }
+}
@@ -1,16 +1,35 @@
 package com.eking.flow.routing;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
  * 表示 fork 操作的结果。
+ *
+ * 分支组件已经出现在流程中时，只激活 fork 节点之后被选中的分支，这类组件必须是 fork 节点的直接后继，否则流程执行失败；
+ * 不在流程中的组件在运行时作为动态分支执行，全部完成后再继续执行 fork 节点的后继。
+ * forEach() 为每个数据项创建一个分支，分支组件通过 NodeComponent.getForkItem() 读取各自的数据项。
  */
 public class ForkResult {
 
+    /**
+     * 未指定并发数时动态分支最多同时执行的数量
+     */
+    public static final int DEFAULT_MAX_CONCURRENCY = 16;
+
     private List<String> branchComponentIds;
+    private final List<?> items;
+    private final int maxConcurrency;
 
     private ForkResult(List<String> branchComponentIds) {
+        this(branchComponentIds, null, 0);
+    }
+
+    private ForkResult(List<String> branchComponentIds, List<?> items, int maxConcurrency) {
         this.branchComponentIds = branchComponentIds;
+        this.items = items;
+        this.maxConcurrency = maxConcurrency;
     }
 
     /**
@@ -33,6 +52,29 @@ public class ForkResult {
     public static ForkResult continueSequential(String componentId) {
         return new ForkResult(List.of(componentId));
     }
+
+    /**
+     * 创建一个数据驱动的 fork 结果：同一个组件按数据项各执行一次，例如每个订单行一个分支
+     * @param componentId 分支组件ID
+     * @param items 数据项，每项对应一个分支
+     */
+    public static ForkResult forEach(String componentId, List<?> items) {
+        List<?> copy = Collections.unmodifiableList(new ArrayList<>(items));
+        return new ForkResult(Collections.nCopies(copy.size(), componentId), copy, 0);
+    }
+
+    /**
+     * 限制动态分支最多同时执行的数量
+     * @param maxConcurrency 并发数，必须大于 0
+     * @return 新的 fork 结果
+     */
+    public ForkResult withMaxConcurrency(int maxConcurrency) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("Invalid fork concurrency limit: " + maxConcurrency);
+        }
+        return new ForkResult(branchComponentIds, items, maxConcurrency);
+    }
+
     /**
      * 获取分支组件 ID 列表
      */
@@ -40,6 +82,28 @@ public class ForkResult {
         return branchComponentIds;
     }
 
+    /**
+     * 获取各分支的数据项，与分支组件 ID 一一对应
+     * @return 数据项列表，不是 forEach() 创建的结果时返回 null
+     */
+    public List<?> getItems() {
+        return items;
+    }
+
+    /**
+     * 是否由 forEach() 创建，数据驱动的分支总是作为动态分支执行
+     */
+    public boolean isDataDriven() {
+        return items != null;
+    }
+
+    /**
+     * 获取动态分支最多同时执行的数量，0 表示使用默认值
+     */
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
     /**
      * 判断是否需要 fork
      */
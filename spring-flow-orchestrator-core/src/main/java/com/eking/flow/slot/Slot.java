@@ -2,83 +2,152 @@ package com.eking.flow.slot;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 用于并发执行中的上下文隔离。
+ * 数据存储基于 ConcurrentHashMap：读操作无锁，写操作只锁定单个哈希桶，
+ * 并行分支可以同时向同一个槽位写入数据而不会相互阻塞或破坏数据结构。
+ * 由 SlotPool 分配的槽位只是一次执行的租约：数据存储在释放时归还给槽位池清空后复用，
+ * 每次分配都得到一个新的 Slot 对象，释放后通过旧 Slot 的访问都会抛出 IllegalStateException。
+ * 每次访问只读取一次释放标记，不写任何共享状态，因此并行分支之间没有额外的争用。
+ * 引擎在流程的所有分支汇聚之后才完成执行，释放只能发生在此之后；
+ * 组件自行启动、在流程结束后仍在访问槽位的线程不受保护，与释放同时进行的写入可能落到下一次执行的数据中。
  */
 public class Slot {
 
-    private static final AtomicLong ID_GENERATOR = new AtomicLong(0);
+    /**
+     * ConcurrentHashMap 不允许 null 值，用该占位对象表示显式写入的 null
+     */
+    private static final Object NULL_VALUE = new Object();
 
-    private final Long id;
-    private final Long startTime;
-    private Long endTime;
-    private Map<String, Object> data;
+    private static final AtomicIntegerFieldUpdater<Slot> RELEASED =
+            AtomicIntegerFieldUpdater.newUpdater(Slot.class, "released");
+
+    private final long id;
+    private final SlotPool pool;
+    private long startTime;
+    private long endTime;
+    /**
+     * 数据存储，释放后由槽位池复用，本 Slot 不再访问
+     */
+    private final Storage storage;
+    private final Map<String, Object> data;
+    /**
+     * 释放后为 1
+     */
+    private volatile int released;
 
     public Slot() {
-        this.id = ID_GENERATOR.incrementAndGet();
+        this(null, new Storage());
+    }
+
+    /**
+     * @param pool 分配该槽位的槽位池
+     * @param storage 空的数据存储，新建或由槽位池复用
+     */
+    Slot(SlotPool pool, Storage storage) {
+        this.id = storage.nextLeaseId();
+        this.pool = pool;
         this.startTime = System.currentTimeMillis();
-        this.data = new HashMap<>();
+        this.storage = storage;
+        this.data = storage.data;
     }
 
     /**
-     * 获取槽 ID
+     * 获取槽 ID，每次分配唯一
      */
-    public Long getId() {
+    public long getId() {
         return id;
     }
 
     /**
      * 获取开始时间
      */
-    public Long getStartTime() {
+    public long getStartTime() {
         return startTime;
     }
 
     /**
-     * 获取结束时间
+     * 获取结束时间，尚未结束时为 0
      */
-    public Long getEndTime() {
+    public long getEndTime() {
         return endTime;
     }
 
     /**
      * 设置结束时间
      */
-    public void setEndTime(Long endTime) {
+    public void setEndTime(long endTime) {
         this.endTime = endTime;
     }
 
     /**
      * 获取执行持续时间（毫秒）
      */
-    public Long getDuration() {
-        if (endTime == null) {
+    public long getDuration() {
+        if (endTime == 0) {
             return System.currentTimeMillis() - startTime;
         }
         return endTime - startTime;
     }
 
+    /**
+     * 获取分配该槽位的槽位池，直接创建的槽位返回 null
+     */
+    public SlotPool getPool() {
+        return pool;
+    }
+
+    /**
+     * 是否已释放回槽位池
+     */
+    public boolean isReleased() {
+        return released != 0;
+    }
+
+    /**
+     * 释放时与槽位分离数据存储，之后该 Slot 对象不再能访问任何数据
+     * @return 数据存储，由槽位池清空后复用
+     */
+    Storage detach() {
+        if (!RELEASED.compareAndSet(this, 0, 1)) {
+            throw new IllegalStateException("Slot " + id + " has already been released");
+        }
+        return storage;
+    }
+
+    private void checkLease() {
+        if (released != 0) {
+            throw new IllegalStateException("Slot " + id + " has been released");
+        }
+    }
+
     /**
      * 获取数据
      */
     @SuppressWarnings("unchecked")
     public <T> T getData(String key) {
-        return (T) data.get(key);
+        checkLease();
+        Object value = data.get(key);
+        return value == NULL_VALUE ? null : (T) value;
     }
 
     /**
      * 设置数据
      */
     public void setData(String key, Object value) {
-        data.put(key, value);
+        checkLease();
+        data.put(key, value != null ? value : NULL_VALUE);
     }
 
     /**
      * 移除数据
      */
     public void removeData(String key) {
+        checkLease();
         data.remove(key);
     }
 
@@ -86,6 +155,7 @@ public class Slot {
      * 检查是否存在指定键的数据
      */
     public boolean hasData(String key) {
+        checkLease();
         return data.containsKey(key);
     }
 
@@ -93,16 +163,38 @@ public class Slot {
      * 获取所有数据
      */
     public Map<String, Object> getData() {
-        return new HashMap<>(data);
+        checkLease();
+        Map<String, Object> copy = new HashMap<>(data.size() * 2);
+        data.forEach((key, value) -> copy.put(key, value == NULL_VALUE ? null : value));
+        return copy;
     }
 
     /**
      * 清除所有数据
      */
     public void clearData() {
+        checkLease();
         data.clear();
     }
 
+    /**
+     * 可复用的数据存储。
+     * 槽位 ID 由存储编号和该存储的租约序号组成，分配槽位时不需要更新全局计数器；
+     * 存储在槽位池的空闲队列中交接，同一时刻只有一个槽位持有它
+     */
+    static final class Storage {
+
+        private static final AtomicLong STORAGE_IDS = new AtomicLong(0);
+
+        final Map<String, Object> data = new ConcurrentHashMap<>();
+        private final long base = STORAGE_IDS.incrementAndGet() << 32;
+        private int leases;
+
+        private long nextLeaseId() {
+            return base | (++leases & 0xFFFFFFFFL);
+        }
+    }
+
     @Override
     public String toString() {
         return "Slot{" +
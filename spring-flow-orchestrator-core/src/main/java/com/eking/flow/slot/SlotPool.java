@@ -0,0 +1,106 @@
+package com.eking.flow.slot;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 有界槽位池，复用已释放槽位的数据存储，减少每次执行分配的短命对象。
+ *
+ * 每次取出只分配一个新的 Slot 对象作为本次执行的租约，清空后的数据存储在执行之间复用，
+ * 因此释放后通过旧 Slot 的访问会被拒绝。调用方应在流程的所有分支汇聚、执行结束后再释放（FlowExecutor 返回的响应满足这一点），
+ * 释放不等待、也不跟踪仍在访问槽位的线程。空闲存储保存在有界的空闲队列中，
+ * 归还后立即可以被下一次取出复用；没有空闲存储时直接新建，归还时队列已满则丢弃，因此池的大小不会限制并发执行数。
+ */
+public class SlotPool {
+
+    /**
+     * 默认容量，与 flow.orchestrator.slot-size 的默认值一致
+     */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    /**
+     * 空闲的数据存储，容量为 0 时为 null
+     */
+    private final ArrayBlockingQueue<Slot.Storage> idle;
+    private final int capacity;
+
+    private final LongAdder reused = new LongAdder();
+    private final LongAdder created = new LongAdder();
+
+    public SlotPool() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity 最多保留的空闲槽位数，0 表示不复用槽位
+     */
+    public SlotPool(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Invalid slot pool capacity: " + capacity);
+        }
+        this.capacity = capacity;
+        this.idle = capacity > 0 ? new ArrayBlockingQueue<>(capacity) : null;
+    }
+
+    /**
+     * 取出一个空槽位，优先复用空闲的数据存储
+     */
+    public Slot acquire() {
+        Slot.Storage storage = idle != null ? idle.poll() : null;
+        if (storage != null) {
+            reused.increment();
+        } else {
+            created.increment();
+            storage = new Slot.Storage();
+        }
+        return new Slot(this, storage);
+    }
+
+    /**
+     * 归还槽位。槽位数据会被清空，之后对该槽位的任何访问都会抛出 IllegalStateException
+     * @param slot 由本池分配的槽位
+     * @throws IllegalStateException 槽位已经被释放过
+     * @throws IllegalArgumentException 槽位不是由本池分配的
+     */
+    public void release(Slot slot) {
+        if (slot.getPool() != this) {
+            throw new IllegalArgumentException("Slot " + slot.getId() + " does not belong to this pool");
+        }
+        Slot.Storage storage = slot.detach();
+        if (idle != null) {
+            storage.data.clear();
+            // 队列已满时丢弃
+            idle.offer(storage);
+        }
+    }
+
+    /**
+     * 获取池容量
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * 获取复用槽位的次数
+     */
+    public long getReusedCount() {
+        return reused.sum();
+    }
+
+    /**
+     * 获取新建槽位的次数
+     */
+    public long getCreatedCount() {
+        return created.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "SlotPool{" +
+                "capacity=" + capacity +
+                ", reused=" + reused.sum() +
+                ", created=" + created.sum() +
+                '}';
+    }
+}
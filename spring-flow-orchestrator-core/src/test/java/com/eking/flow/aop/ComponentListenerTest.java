@@ -0,0 +1,198 @@
+package com.eking.flow.aop;
+
+import com.eking.flow.annontation.TargetedListener;
+import com.eking.flow.bus.FlowBus;
+import com.eking.flow.component.NodeComponent;
+import com.eking.flow.context.FlowContext;
+import com.eking.flow.executor.FlowExecutor;
+import com.eking.flow.response.EkingflowResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.annotation.Order;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * ComponentListenerDispatcher: listeners only see the component types named by @TargetedListener,
+ * run in getOrder() order, error listeners fire after onError(), and before-listeners
+ * do not fire when beforeProcess() throws.
+ */
+public class ComponentListenerTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(ComponentListenerTest.class);
+
+    /**
+     * 监听器按通知顺序记录 "监听器:组件ID"
+     */
+    private static final List<String> events = Collections.synchronizedList(new ArrayList<>());
+
+    public static void main(String[] args) {
+        FlowBus flowBus = FlowBus.getInstance();
+        flowBus.registerComponent("lsA", new ComponentA());
+        flowBus.registerComponent("lsB", new ComponentB());
+        flowBus.registerComponent("lsBoom", new FailingComponent());
+        flowBus.registerComponent("lsBadBefore", new FailingBeforeComponent());
+        flowBus.registerFlow("lsOk", "lsA -> lsB");
+        flowBus.registerFlow("lsFail", "lsA -> lsBoom -> lsB");
+        flowBus.registerFlow("lsFailBefore", "lsBadBefore -> lsB");
+
+        FlowExecutor flowExecutor = new FlowExecutor(2);
+        // 故意按与 getOrder() 相反的顺序传入
+        flowExecutor.setListenerDispatcher(new ComponentListenerDispatcher(
+                List.of(new AllBefore(), new OnlyABefore()),
+                List.of(new OnlyAAfter(), new AllAfter()),
+                List.of(new AllError(), new OnlyBoomError())));
+        try {
+            expectEvents(flowExecutor, "lsOk", true, List.of(
+                    "onlyABefore:lsA", "allBefore:lsA", "allAfter:lsA", "onlyAAfter:lsA",
+                    "allBefore:lsB", "allAfter:lsB"));
+
+            // 组件失败后错误监听器在 onError() 之后按顺序通知，失败的组件不通知 after 监听器
+            expectEvents(flowExecutor, "lsFail", false, List.of(
+                    "onlyABefore:lsA", "allBefore:lsA", "allAfter:lsA", "onlyAAfter:lsA",
+                    "allBefore:lsBoom", "onlyBoomError:lsBoom", "allError:lsBoom"));
+
+            // beforeProcess() 抛出异常时不通知 before 监听器
+            expectEvents(flowExecutor, "lsFailBefore", false, List.of("allError:lsBadBefore"));
+        } finally {
+            flowExecutor.shutdown();
+        }
+
+        logger.info("✓ Listeners are filtered by target type, ordered and notified on errors");
+        System.exit(0);
+    }
+
+    private static void expectEvents(FlowExecutor flowExecutor, String flowId, boolean success, List<String> expected) {
+        events.clear();
+        EkingflowResponse response = flowExecutor.execute(flowId, new TestContext());
+        List<String> actual = new ArrayList<>(events);
+        if (response.isSuccess() != success || !actual.equals(expected)) {
+            throw new IllegalStateException(flowId + ": success=" + response.isSuccess() + ", events " + actual
+                    + "; expected success=" + success + ", events " + expected);
+        }
+        logger.info("{} -> {}", flowId, actual);
+    }
+
+    private static String id(Object source) {
+        return ((NodeComponent) source).getId();
+    }
+
+    static class TestContext extends FlowContext {
+    }
+
+    static class ComponentA extends NodeComponent {
+        @Override
+        public void process() {
+        }
+    }
+
+    static class ComponentB extends NodeComponent {
+        @Override
+        public void process() {
+        }
+    }
+
+    static class FailingComponent extends NodeComponent {
+        @Override
+        public void process() {
+            throw new IllegalStateException("Component " + getId() + " failed");
+        }
+    }
+
+    static class FailingBeforeComponent extends NodeComponent {
+        @Override
+        public void beforeProcess() {
+            throw new IllegalStateException("Component " + getId() + " rejected its input");
+        }
+
+        @Override
+        public void process() {
+        }
+    }
+
+    @Order(1)
+    @TargetedListener(ComponentA.class)
+    static class OnlyABefore implements BeforeListener {
+        @Override
+        public void onBefore(Object source) {
+            events.add("onlyABefore:" + id(source));
+        }
+
+        @Override
+        public int getOrder() {
+            return 1;
+        }
+    }
+
+    @Order(2)
+    @TargetedListener(NodeComponent.class)
+    static class AllBefore implements BeforeListener {
+        @Override
+        public void onBefore(Object source) {
+            events.add("allBefore:" + id(source));
+        }
+
+        @Override
+        public int getOrder() {
+            return 2;
+        }
+    }
+
+    @Order(-1)
+    @TargetedListener(NodeComponent.class)
+    static class AllAfter implements AfterListener {
+        @Override
+        public void onAfter(Object source) {
+            events.add("allAfter:" + id(source));
+        }
+
+        @Override
+        public int getOrder() {
+            return -1;
+        }
+    }
+
+    @Order(5)
+    @TargetedListener(ComponentA.class)
+    static class OnlyAAfter implements AfterListener {
+        @Override
+        public void onAfter(Object source) {
+            events.add("onlyAAfter:" + id(source));
+        }
+
+        @Override
+        public int getOrder() {
+            return 5;
+        }
+    }
+
+    @Order(3)
+    @TargetedListener(FailingComponent.class)
+    static class OnlyBoomError implements ErrorListener {
+        @Override
+        public void onError(Object source) {
+            events.add("onlyBoomError:" + id(source));
+        }
+
+        @Override
+        public int getOrder() {
+            return 3;
+        }
+    }
+
+    @Order(4)
+    @TargetedListener(NodeComponent.class)
+    static class AllError implements ErrorListener {
+        @Override
+        public void onError(Object source) {
+            events.add("allError:" + id(source));
+        }
+
+        @Override
+        public int getOrder() {
+            return 4;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.eking.flow.execution;
+
+import com.eking.flow.bus.FlowBus;
+import com.eking.flow.component.NodeComponent;
+import com.eking.flow.optimizer.FlowOptimizer;
+import com.eking.flow.parser.ANTLR4FlowParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Flows loaded from a PlanStore must compile to the same graphs as flows parsed from their expressions,
+ * whichever optimizer wrote the store and whichever optimizer reads it; changed expressions,
+ * corrupted files and files of another format version must fall back to parsing.
+ */
+public class PlanStoreTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(PlanStoreTest.class);
+
+    private static final List<String> FLOW_IDS = List.of(
+            "psSequence", "psBranch", "psNested", "psParallel", "psVariable", "psSubflow");
+
+    public static void main(String[] args) throws Exception {
+        FlowBus flowBus = FlowBus.getInstance();
+        for (String id : new String[]{"psA", "psB", "psC", "psD", "psR"}) {
+            flowBus.registerComponent(id, new NoopComponent());
+        }
+        flowBus.registerFlow("psSequence", "psA -> psB -> psC");
+        flowBus.registerFlow("psBranch", "psA -> psR ? (psB -> psD) : (psC -> psD)");
+        flowBus.registerFlow("psNested", "psA -> ((psB -> psC))[2] -> (psD)");
+        flowBus.registerFlow("psParallel", "psA -> (psB -> psC, psD)[1] -> psR ? psB : psC");
+        flowBus.registerFlow("psVariable", "X = psB -> psC\npsA -> (X, psD) -> X");
+        flowBus.registerFlow("psSubflow", "psA -> flow(psSequence) -> psR ? flow(psNested) : psD");
+
+        ExecutionPlanCache optimized = cache(flowBus, FlowOptimizer.standard(), null);
+        ExecutionPlanCache unoptimized = cache(flowBus, FlowOptimizer.NONE, null);
+        long optimizedNodes = 0;
+        long unoptimizedNodes = 0;
+        // 子流程引用展开的是被引用流程优化后的共享 AST，只比较不含引用的流程
+        for (String flowId : FLOW_IDS.subList(0, FLOW_IDS.size() - 1)) {
+            optimizedNodes += optimized.get(flowId).getGraph().size();
+            unoptimizedNodes += unoptimized.get(flowId).getGraph().size();
+        }
+        if (optimizedNodes >= unoptimizedNodes) {
+            throw new IllegalStateException("The optimizer removed no graph nodes: " + optimizedNodes);
+        }
+        // 统计的是执行图节点数，与不优化时构建的执行图一致
+        if (optimized.getNodeCountBeforeOptimization() != unoptimizedNodes
+                || optimized.getNodeCountAfterOptimization() != optimizedNodes) {
+            throw new IllegalStateException("Node counts " + optimized + " do not match graph sizes "
+                    + unoptimizedNodes + "->" + optimizedNodes);
+        }
+        optimized.get("psSubflow");
+        unoptimized.get("psSubflow");
+
+        Path file = Files.createTempFile("plan-store", ".bin");
+        try {
+            for (ExecutionPlanCache writer : new ExecutionPlanCache[]{optimized, unoptimized}) {
+                if (writer.savePlans(file) != FLOW_IDS.size()) {
+                    throw new IllegalStateException("Not every flow was stored");
+                }
+                PlanStore store = PlanStore.load(file);
+                // 读取方切换优化设置后仍得到与直接解析相同的结果
+                verifyLoaded(store, flowBus, FlowOptimizer.standard(), optimized);
+                verifyLoaded(store, flowBus, FlowOptimizer.NONE, unoptimized);
+            }
+
+            // 正文任一字节损坏时校验和不符，按空存储处理
+            byte[] original = Files.readAllBytes(file);
+            byte[] corrupted = original.clone();
+            corrupted[corrupted.length - 1] ^= 1;
+            Files.write(file, corrupted);
+            expectEmpty(PlanStore.load(file), flowBus, "corrupted");
+
+            // 格式版本不同时同样按空存储处理
+            byte[] otherVersion = original.clone();
+            ByteBuffer.wrap(otherVersion).putInt(4, ByteBuffer.wrap(original).getInt(4) + 1);
+            Files.write(file, otherVersion);
+            expectEmpty(PlanStore.load(file), flowBus, "other format version");
+
+            // 表达式变化后不再使用存储中的 AST
+            Files.write(file, original);
+            flowBus.registerFlow("psBranch", "psA -> psB");
+            ExecutionPlanCache changed = cache(flowBus, FlowOptimizer.standard(), PlanStore.load(file));
+            if (changed.get("psBranch").getGraph().size() != 2 || changed.getStoreHitCount() != 0) {
+                throw new IllegalStateException("A changed expression was served from the store: " + changed);
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+
+        logger.info("✓ PlanStore round trip matches parsed flows: {} -> {} graph nodes; corrupted and foreign files are ignored",
+                unoptimizedNodes, optimizedNodes);
+        System.exit(0);
+    }
+
+    private static ExecutionPlanCache cache(FlowBus flowBus, FlowOptimizer optimizer, PlanStore store) {
+        ExecutionPlanCache cache = new ExecutionPlanCache(flowBus, new ANTLR4FlowParser());
+        cache.setOptimizer(optimizer);
+        cache.setPlanStore(store);
+        return cache;
+    }
+
+    private static void verifyLoaded(PlanStore store, FlowBus flowBus, FlowOptimizer optimizer,
+                                     ExecutionPlanCache expected) {
+        if (store.size() != FLOW_IDS.size()) {
+            throw new IllegalStateException("Loaded " + store.size() + " of " + FLOW_IDS.size() + " flows");
+        }
+        ExecutionPlanCache loaded = cache(flowBus, optimizer, store);
+        for (String flowId : FLOW_IDS) {
+            String actualGraph = loaded.get(flowId).getGraph().toString();
+            String expectedGraph = expected.get(flowId).getGraph().toString();
+            if (!actualGraph.equals(expectedGraph)) {
+                throw new IllegalStateException(flowId + " loaded with " + optimizer + ": "
+                        + actualGraph + " != " + expectedGraph);
+            }
+        }
+        if (loaded.getStoreHitCount() != FLOW_IDS.size()) {
+            throw new IllegalStateException("Not every flow was read from the store: " + loaded);
+        }
+    }
+
+    private static void expectEmpty(PlanStore store, FlowBus flowBus, String description) {
+        if (store.size() != 0) {
+            throw new IllegalStateException("A " + description + " store was loaded with " + store.size() + " flow(s)");
+        }
+        ExecutionPlanCache cache = cache(flowBus, FlowOptimizer.standard(), store);
+        cache.get("psSequence");
+        if (cache.getStoreHitCount() != 0 || cache.getCompileCount() != 1) {
+            throw new IllegalStateException("A " + description + " store was used: " + cache);
+        }
+    }
+
+    static class NoopComponent extends NodeComponent {
+        @Override
+        public void process() {
+        }
+    }
+}
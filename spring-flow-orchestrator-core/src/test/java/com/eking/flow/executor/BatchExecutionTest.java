@@ -0,0 +1,130 @@
+package com.eking.flow.executor;
+
+import com.eking.flow.bus.FlowBus;
+import com.eking.flow.component.NodeComponent;
+import com.eking.flow.context.FlowContext;
+import com.eking.flow.response.BatchResponse;
+import com.eking.flow.response.EkingflowResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Batch execution returns responses in input order and reports every response to the callback.
+ */
+public class BatchExecutionTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchExecutionTest.class);
+
+    private static final int COUNT = 2000;
+    private static final int BATCH_PARALLELISM = 4;
+
+    private static final AtomicInteger running = new AtomicInteger();
+    private static final AtomicInteger peak = new AtomicInteger();
+
+    public static void main(String[] args) {
+        FlowBus flowBus = FlowBus.getInstance();
+        flowBus.registerComponent("bsEnter", new EnterComponent());
+        flowBus.registerComponent("bsLeave", new LeaveComponent());
+        flowBus.registerComponent("bsFail", new FailSomeComponent());
+        flowBus.registerComponent("bsB", new NoopComponent());
+        flowBus.registerFlow("bsBatch", "bsEnter -> (bsB, bsFail) -> bsLeave");
+
+        FlowExecutor flowExecutor = new FlowExecutor(16);
+        flowExecutor.setBatchParallelism(BATCH_PARALLELISM);
+        try {
+            checkBatch(flowExecutor);
+        } finally {
+            flowExecutor.shutdown();
+        }
+
+        logger.info("✓ Batch responses are ordered and reported by index");
+        System.exit(0);
+    }
+
+    private static void checkBatch(FlowExecutor flowExecutor) {
+        List<TestContext> contexts = IntStream.range(0, COUNT).mapToObj(TestContext::new).collect(Collectors.toList());
+        BatchResponse batch = flowExecutor.executeBatch("bsBatch", contexts);
+        int expectedFailures = 0;
+        for (int i = 0; i < COUNT; i++) {
+            EkingflowResponse response = batch.getResponses().get(i);
+            boolean shouldFail = FailSomeComponent.fails(i);
+            expectedFailures += shouldFail ? 1 : 0;
+            expect(response.getContext() == contexts.get(i), "response " + i + " belongs to another context");
+            expect(response.isSuccess() != shouldFail, "response " + i + " success=" + response.isSuccess());
+            expect(shouldFail || Integer.valueOf(i).equals(response.getSlot().getData("n")),
+                    "response " + i + " carries slot data " + response.getSlot().getData("n"));
+            response.release();
+        }
+        expect(batch.getFailureCount() == expectedFailures, "failure count " + batch.getFailureCount()
+                + ", expected " + expectedFailures);
+        expect(peak.get() <= BATCH_PARALLELISM, peak.get() + " flows of the batch ran concurrently");
+
+        // 回调按输入下标收到每个响应
+        BitSet seen = new BitSet(COUNT);
+        flowExecutor.executeBatch("bsBatch", contexts, (response, index) -> {
+            expect(response.getContext() == contexts.get(index), "callback index " + index + " mismatched");
+            synchronized (seen) {
+                seen.set(index);
+            }
+        });
+        expect(seen.cardinality() == COUNT, "callback saw " + seen.cardinality() + " responses");
+        logger.info("executeBatch: {}", batch);
+    }
+
+    private static void expect(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalStateException(message);
+        }
+    }
+
+    static class TestContext extends FlowContext {
+        final int n;
+
+        TestContext(int n) {
+            this.n = n;
+        }
+    }
+
+    static class EnterComponent extends NodeComponent {
+        @Override
+        public void process() {
+            peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+            setData("n", ((TestContext) getContext()).n);
+        }
+    }
+
+    static class LeaveComponent extends NodeComponent {
+        @Override
+        public void process() {
+            running.decrementAndGet();
+        }
+    }
+
+    static class FailSomeComponent extends NodeComponent {
+        static boolean fails(int n) {
+            return n % 100 == 7;
+        }
+
+        @Override
+        public void process() {
+            int n = ((TestContext) getContext()).n;
+            if (fails(n)) {
+                // 失败的流程不会执行 bsLeave
+                running.decrementAndGet();
+                throw new IllegalStateException("Context " + n + " rejected");
+            }
+        }
+    }
+
+    static class NoopComponent extends NodeComponent {
+        @Override
+        public void process() {
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.eking.flow.executor;
+
+import com.eking.flow.bus.FlowBus;
+import com.eking.flow.component.NodeComponent;
+import com.eking.flow.component.RoutingNodeComponent;
+import com.eking.flow.context.FlowContext;
+import com.eking.flow.response.EkingflowResponse;
+import com.eking.flow.routing.RoutingResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Stress test: one singleton component instance serving many concurrent flows
+ * must always see the slot and context of its own execution.
+ */
+public class ComponentIsolationStressTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(ComponentIsolationStressTest.class);
+
+    private static final int THREADS = 32;
+    private static final int EXECUTIONS_PER_THREAD = 2000;
+
+    private static final AtomicInteger crossTalk = new AtomicInteger();
+
+    public static void main(String[] args) throws Exception {
+        FlowBus flowBus = FlowBus.getInstance();
+        flowBus.registerComponent("stamp", new StampComponent());
+        flowBus.registerComponent("router", new ParityRouterComponent());
+        flowBus.registerComponent("even", new VerifyComponent());
+        flowBus.registerComponent("odd", new VerifyComponent());
+        flowBus.registerComponent("verify", new VerifyComponent());
+        flowBus.registerFlow("isolation", "stamp -> router -> verify");
+
+        FlowExecutor flowExecutor = new FlowExecutor(8);
+        ExecutorService callers = Executors.newFixedThreadPool(THREADS);
+        AtomicInteger failures = new AtomicInteger();
+        long start = System.nanoTime();
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            final long base = (long) t * EXECUTIONS_PER_THREAD;
+            futures.add(callers.submit(() -> {
+                for (int i = 0; i < EXECUTIONS_PER_THREAD; i++) {
+                    TestContext context = new TestContext();
+                    context.setRequestId(base + i);
+                    EkingflowResponse response = flowExecutor.execute("isolation", context);
+                    Long stamped = response.getSlot().getData("stamp");
+                    if (!response.isSuccess() || stamped == null || stamped != base + i) {
+                        failures.incrementAndGet();
+                    }
+                    // 归还槽位，让后续执行复用同一批槽位
+                    response.release();
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        callers.shutdown();
+
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        int total = THREADS * EXECUTIONS_PER_THREAD;
+        logger.info("Executed {} flows on {} threads in {}ms: {} failed responses, {} cross-talk observations, {}",
+                total, THREADS, elapsedMs, failures.get(), crossTalk.get(), flowExecutor.getSlotPool());
+
+        if (failures.get() > 0 || crossTalk.get() > 0) {
+            throw new IllegalStateException("Components observed another execution's slot or context");
+        }
+        logger.info("✓ No cross-talk between concurrent executions");
+        System.exit(0);
+    }
+
+    private static void pause() {
+        if (ThreadLocalRandom.current().nextInt(4) == 0) {
+            Thread.yield();
+        }
+    }
+
+    static class TestContext extends FlowContext {
+    }
+
+    /**
+     * Writes the request id into the slot, yielding between reads to widen race windows.
+     */
+    static class StampComponent extends NodeComponent {
+        @Override
+        public void process() {
+            long requestId = getContext().getRequestId();
+            pause();
+            setData("stamp", requestId);
+            pause();
+            if (getContext().getRequestId() != requestId) {
+                crossTalk.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Routes on request id parity; a wrong context would pick the wrong branch.
+     */
+    static class ParityRouterComponent extends RoutingNodeComponent {
+        @Override
+        public RoutingResult route() {
+            pause();
+            return RoutingResult.continueTo(getContext().getRequestId() % 2 == 0 ? "even" : "odd");
+        }
+    }
+
+    /**
+     * Checks that the slot still carries the stamp of this execution's context.
+     */
+    static class VerifyComponent extends NodeComponent {
+        @Override
+        public void process() {
+            pause();
+            Long stamped = getData("stamp");
+            if (stamped == null || !stamped.equals(getContext().getRequestId())) {
+                crossTalk.incrementAndGet();
+            }
+        }
+    }
+}
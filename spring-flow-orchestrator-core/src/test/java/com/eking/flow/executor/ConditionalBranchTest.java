@@ -0,0 +1,94 @@
+package com.eking.flow.executor;
+
+import com.eking.flow.bus.FlowBus;
+import com.eking.flow.component.NodeComponent;
+import com.eking.flow.component.RoutingNodeComponent;
+import com.eking.flow.context.FlowContext;
+import com.eking.flow.response.EkingflowResponse;
+import com.eking.flow.response.ExecutionTrace;
+import com.eking.flow.routing.RoutingResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Conditions whose condition part ends in several nodes, e.g. (A, B) ? C : D, are routed
+ * through a barrier; exactly one branch must run.
+ */
+public class ConditionalBranchTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConditionalBranchTest.class);
+
+    private static int failures;
+
+    public static void main(String[] args) {
+        FlowBus flowBus = FlowBus.getInstance();
+        for (String id : new String[]{"cbA", "cbB", "cbC", "cbD", "cbX", "cbY", "cbE"}) {
+            flowBus.registerComponent(id, new NoopComponent());
+        }
+        flowBus.registerComponent("cbToC", new RouteComponent("cbC"));
+        flowBus.registerComponent("cbToD", new RouteComponent("cbD"));
+        flowBus.registerComponent("cbToX", new RouteComponent("cbX"));
+
+        FlowExecutor flowExecutor = new FlowExecutor(4);
+
+        // 屏障没有路由结果时与不带路由的条件节点一样选择假分支
+        check(flowExecutor, "(cbA, cbB) ? cbC : cbD -> cbE", List.of("cbA", "cbB", "cbD", "cbE"));
+        // 屏障之前的路由组件选择分支
+        check(flowExecutor, "(cbA, cbToC) ? cbC : cbD -> cbE", List.of("cbA", "cbToC", "cbC", "cbE"));
+        check(flowExecutor, "(cbToD, cbB) ? cbC : cbD -> cbE", List.of("cbToD", "cbB", "cbD", "cbE"));
+        // 条件部分本身是条件分支，两个出口经屏障汇聚
+        check(flowExecutor, "(cbToX ? cbX : cbY) ? cbC : cbD", List.of("cbToX", "cbX", "cbD"));
+        // 单个路由组件作为条件节点
+        check(flowExecutor, "cbA -> cbToC ? cbC : cbD -> cbE", List.of("cbA", "cbToC", "cbC", "cbE"));
+
+        flowExecutor.shutdown();
+        if (failures > 0) {
+            throw new IllegalStateException(failures + " conditional flow(s) ran the wrong branches");
+        }
+        logger.info("✓ Exactly one branch ran for every condition");
+        System.exit(0);
+    }
+
+    private static void check(FlowExecutor flowExecutor, String expression, List<String> expected) {
+        String flowId = "cb-" + expression.hashCode();
+        FlowBus.getInstance().registerFlow(flowId, expression);
+        EkingflowResponse response = flowExecutor.execute(flowId, new TestContext());
+        List<String> executed = new ArrayList<>();
+        for (ExecutionTrace.Entry entry : response.getTrace().getEntries()) {
+            executed.add(entry.getComponentId());
+        }
+        // 并行分支的完成顺序不固定，按集合比较，并要求没有组件重复执行
+        boolean ok = response.isSuccess() && executed.size() == expected.size() && executed.containsAll(expected);
+        if (ok) {
+            logger.info("{} -> {}", expression, executed);
+        } else {
+            failures++;
+            logger.error("{} -> {}, expected {}", expression, executed, expected);
+        }
+    }
+
+    static class TestContext extends FlowContext {
+    }
+
+    static class NoopComponent extends NodeComponent {
+        @Override
+        public void process() {
+        }
+    }
+
+    static class RouteComponent extends RoutingNodeComponent {
+        private final String target;
+
+        RouteComponent(String target) {
+            this.target = target;
+        }
+
+        @Override
+        public RoutingResult route() {
+            return RoutingResult.continueTo(target);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.eking.flow.executor;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.eking.flow.bus.FlowBus;
+import com.eking.flow.component.NodeComponent;
+import com.eking.flow.context.FlowContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * ExecutionLog policies: every execution, a 1-in-N sample and slow executions only,
+ * including flows that fail because they are not registered.
+ */
+public class ExecutionLogTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExecutionLogTest.class);
+
+    private static final int SAMPLED_RUNS = 2000;
+    private static final int SAMPLE_RATE = 10;
+    private static final long SLOW_MILLIS = 50;
+
+    public static void main(String[] args) {
+        FlowBus flowBus = FlowBus.getInstance();
+        flowBus.registerComponent("elA", new NoopComponent());
+        flowBus.registerComponent("elSlow", new SlowComponent());
+        flowBus.registerComponent("elBoom", new FailingComponent());
+        flowBus.registerFlow("elFast", "elA");
+        flowBus.registerFlow("elSlowFlow", "elA -> elSlow");
+        flowBus.registerFlow("elFail", "elA -> elBoom");
+
+        ListAppender<ILoggingEvent> appender = new ListAppender<>();
+        appender.start();
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(ExecutionLog.class)).addAppender(appender);
+
+        FlowExecutor flowExecutor = new FlowExecutor(2);
+        try {
+            // 默认不输出
+            run(flowExecutor, "elFast", 10);
+            expectEvents(appender, List.of(), "disabled");
+
+            // 每次输出，失败和未注册的流程同样输出
+            flowExecutor.setExecutionLog(ExecutionLog.every());
+            run(flowExecutor, "elFast", 3);
+            run(flowExecutor, "elFail", 1);
+            run(flowExecutor, "elNowhere", 1);
+            expectEvents(appender, List.of("flow=elFast success=true", "flow=elFast success=true",
+                    "flow=elFast success=true", "flow=elFail success=false", "flow=elNowhere success=false"), "every");
+
+            // 批量执行的单个流程不输出
+            List<TestContext> contexts = Stream.generate(TestContext::new).limit(20).collect(Collectors.toList());
+            flowExecutor.executeBatch("elFast", contexts);
+            expectEvents(appender, List.of(), "batch items");
+
+            // 1/N 抽样：期望 SAMPLED_RUNS / SAMPLE_RATE 次，标准差约 13
+            flowExecutor.setExecutionLog(ExecutionLog.sampled(SAMPLE_RATE));
+            run(flowExecutor, "elFast", SAMPLED_RUNS);
+            int sampled = drain(appender).size();
+            int expected = SAMPLED_RUNS / SAMPLE_RATE;
+            expect(Math.abs(sampled - expected) <= expected / 2,
+                    "sampled(" + SAMPLE_RATE + ") logged " + sampled + " of " + SAMPLED_RUNS + " executions");
+            logger.info("sampled({}): {} of {} executions", SAMPLE_RATE, sampled, SAMPLED_RUNS);
+
+            // 只输出慢执行，不参与抽样
+            flowExecutor.setExecutionLog(ExecutionLog.slowerThan(SLOW_MILLIS));
+            run(flowExecutor, "elFast", 20);
+            run(flowExecutor, "elSlowFlow", 2);
+            expectEvents(appender, List.of("flow=elSlowFlow success=true", "flow=elSlowFlow success=true"), "slowerThan");
+        } finally {
+            flowExecutor.shutdown();
+        }
+
+        expectInvalid(() -> ExecutionLog.sampled(0), "sampled(0)");
+        expectInvalid(() -> ExecutionLog.slowerThan(0), "slowerThan(0)");
+
+        logger.info("✓ Execution log policies log exactly the executions they select");
+        System.exit(0);
+    }
+
+    private static void run(FlowExecutor flowExecutor, String flowId, int times) {
+        for (int i = 0; i < times; i++) {
+            flowExecutor.execute(flowId, new TestContext()).release();
+        }
+    }
+
+    private static List<String> drain(ListAppender<ILoggingEvent> appender) {
+        List<String> messages;
+        synchronized (appender.list) {
+            messages = appender.list.stream().map(ILoggingEvent::getFormattedMessage).collect(Collectors.toList());
+            appender.list.clear();
+        }
+        return messages;
+    }
+
+    /**
+     * @param expected 每个事件的前缀，按输出顺序排列
+     */
+    private static void expectEvents(ListAppender<ILoggingEvent> appender, List<String> expected, String policy) {
+        List<String> messages = drain(appender);
+        boolean matches = messages.size() == expected.size();
+        for (int i = 0; matches && i < expected.size(); i++) {
+            matches = messages.get(i).startsWith(expected.get(i) + " ");
+        }
+        expect(matches, policy + " logged " + messages + ", expected " + expected);
+        logger.info("{}: {} event(s)", policy, messages.size());
+    }
+
+    private static void expectInvalid(Runnable factory, String call) {
+        try {
+            factory.run();
+        } catch (IllegalArgumentException expected) {
+            return;
+        }
+        throw new IllegalStateException(call + " was accepted");
+    }
+
+    private static void expect(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalStateException(message);
+        }
+    }
+
+    static class TestContext extends FlowContext {
+    }
+
+    static class NoopComponent extends NodeComponent {
+        @Override
+        public void process() {
+        }
+    }
+
+    static class SlowComponent extends NodeComponent {
+        @Override
+        public void process() throws Exception {
+            Thread.sleep(SLOW_MILLIS + 10);
+        }
+    }
+
+    static class FailingComponent extends NodeComponent {
+        @Override
+        public void process() {
+            throw new IllegalStateException("Component " + getId() + " failed");
+        }
+    }
+}
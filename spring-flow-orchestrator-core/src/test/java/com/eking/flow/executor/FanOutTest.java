@@ -0,0 +1,183 @@
+package com.eking.flow.executor;
+
+import com.eking.flow.bus.FlowBus;
+import com.eking.flow.component.ForkNodeComponent;
+import com.eking.flow.component.JoinNodeComponent;
+import com.eking.flow.component.NodeComponent;
+import com.eking.flow.context.FlowContext;
+import com.eking.flow.response.EkingflowResponse;
+import com.eking.flow.response.ExecutionTrace;
+import com.eking.flow.routing.ForkResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Fork components: selecting branches that are part of the flow, rejecting flow components that are not branches
+ * of the fork, dynamic branches run by a bounded number of lanes, and the join seeing every completed branch.
+ */
+public class FanOutTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(FanOutTest.class);
+
+    private static final int ITEMS = 50;
+    private static final int LANES = 5;
+
+    private static final AtomicInteger running = new AtomicInteger();
+    private static final AtomicInteger peak = new AtomicInteger();
+    private static final Set<Object> items = ConcurrentHashMap.newKeySet();
+    private static final AtomicInteger duplicateItems = new AtomicInteger();
+    private static volatile int joinedBranches;
+
+    public static void main(String[] args) {
+        FlowBus flowBus = FlowBus.getInstance();
+        for (String id : new String[]{"foA", "foB", "foC", "foD", "foE", "foX", "foY"}) {
+            flowBus.registerComponent(id, new ItemComponent(0));
+        }
+        flowBus.registerComponent("foItem", new ItemComponent(5));
+        flowBus.registerComponent("foJoin", new CountingJoin());
+        List<Integer> data = IntStream.range(0, ITEMS).boxed().collect(Collectors.toList());
+        flowBus.registerComponent("foEach", new Fork(() -> ForkResult.forEach("foItem", data).withMaxConcurrency(LANES)));
+        flowBus.registerComponent("foPickB", new Fork(() -> ForkResult.forkTo("foB")));
+        flowBus.registerComponent("foPickC", new Fork(() -> ForkResult.forkTo("foC")));
+        flowBus.registerComponent("foDynamic", new Fork(() -> ForkResult.forkTo("foX", "foY")));
+        flowBus.registerComponent("foPickE", new Fork(() -> ForkResult.forkTo("foE")));
+
+        FlowExecutor flowExecutor = new FlowExecutor(16);
+        try {
+            // 每个数据项一个分支，最多 LANES 个同时执行，汇聚节点看到全部分支
+            List<String> executed = execute(flowExecutor, "foFlowEach", "foA -> foEach -> foJoin");
+            expect(Collections.frequency(executed, "foItem") == ITEMS,
+                    "expected " + ITEMS + " foItem branches, traced " + Collections.frequency(executed, "foItem"));
+            expect(items.size() == ITEMS && duplicateItems.get() == 0,
+                    "items seen " + items.size() + ", duplicated " + duplicateItems.get());
+            expect(peak.get() <= LANES, LANES + " lanes ran " + peak.get() + " branches concurrently");
+            expect(joinedBranches == ITEMS, "join saw " + joinedBranches + " completed branches");
+            expect(executed.get(executed.size() - 1).equals("foJoin"), "join is not the last entry: " + executed);
+
+            // 分支已在流程中时只激活被选中的分支，其余分支跳过，后续节点执行一次
+            executed = execute(flowExecutor, "foFlowPick", "foA -> foPickC -> (foB, foC, foD) -> foE");
+            expect(new HashSet<>(executed).equals(Set.of("foA", "foPickC", "foC", "foE")) && executed.size() == 4,
+                    "forkTo(foC) executed " + executed);
+
+            // 限制并发数的分组同样只执行被选中的分支
+            executed = execute(flowExecutor, "foFlowPickLimited", "foA -> foPickC -> (foB, foC, foD)[1] -> foE");
+            expect(new HashSet<>(executed).equals(Set.of("foA", "foPickC", "foC", "foE")) && executed.size() == 4,
+                    "forkTo(foC) in a [1] group executed " + executed);
+
+            // 流程之外的组件作为动态分支执行
+            executed = execute(flowExecutor, "foFlowDynamic", "foA -> foDynamic -> foJoin");
+            expect(new HashSet<>(executed).equals(Set.of("foA", "foDynamic", "foX", "foY", "foJoin"))
+                    && executed.size() == 5, "forkTo(foX, foY) executed " + executed);
+            expect(joinedBranches == 2, "join saw " + joinedBranches + " dynamic branches");
+
+            // 分发节点同时是条件节点时只进入一个分支：选中分支的第一个组件时选择该分支，否则默认选择假分支
+            executed = execute(flowExecutor, "foFlowPickTrue", "foA -> foPickB ? foB : foC -> foE");
+            expect(executed.equals(List.of("foA", "foPickB", "foB", "foE")), "forkTo(foB) on a condition executed " + executed);
+            executed = execute(flowExecutor, "foFlowDynamicCondition", "foA -> foDynamic ? foB : foC -> foE");
+            expect(new HashSet<>(executed).equals(Set.of("foA", "foDynamic", "foX", "foY", "foC", "foE"))
+                    && executed.size() == 6, "forkTo(foX, foY) on a condition executed " + executed);
+
+            // 流程中不是分发节点直接后继的组件不能被选中，不会退化为激活所有分支
+            FlowBus.getInstance().registerFlow("foFlowMisplaced", "foA -> foPickE -> (foB, foC, foD) -> foE");
+            EkingflowResponse response = flowExecutor.execute("foFlowMisplaced", new TestContext());
+            executed = new ArrayList<>();
+            for (ExecutionTrace.Entry entry : response.getTrace().getEntries()) {
+                executed.add(entry.getComponentId());
+            }
+            expect(!response.isSuccess() && response.getException() instanceof IllegalArgumentException
+                    && response.getException().getMessage().contains("foE")
+                    && response.getException().getMessage().contains("foPickE"),
+                    "forkTo(foE) on a non-successor returned " + response);
+            expect(executed.equals(List.of("foA", "foPickE")), "forkTo(foE) on a non-successor executed " + executed);
+        } finally {
+            flowExecutor.shutdown();
+        }
+
+        logger.info("✓ Fork branches, lanes and joins behave as expected");
+        System.exit(0);
+    }
+
+    private static List<String> execute(FlowExecutor flowExecutor, String flowId, String expression) {
+        running.set(0);
+        peak.set(0);
+        items.clear();
+        duplicateItems.set(0);
+        joinedBranches = -1;
+        FlowBus.getInstance().registerFlow(flowId, expression);
+        EkingflowResponse response = flowExecutor.execute(flowId, new TestContext());
+        if (!response.isSuccess()) {
+            throw new IllegalStateException(expression + " failed: " + response);
+        }
+        List<String> executed = new ArrayList<>();
+        for (ExecutionTrace.Entry entry : response.getTrace().getEntries()) {
+            executed.add(entry.getComponentId());
+        }
+        logger.info("{} -> {} entries, peak concurrency {}", expression, executed.size(), peak.get());
+        return executed;
+    }
+
+    private static void expect(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalStateException(message);
+        }
+    }
+
+    static class TestContext extends FlowContext {
+    }
+
+    static class ItemComponent extends NodeComponent {
+        private final long sleepMillis;
+
+        ItemComponent(long sleepMillis) {
+            this.sleepMillis = sleepMillis;
+        }
+
+        @Override
+        public void process() throws Exception {
+            peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Object item = getForkItem();
+                if (item != null && !items.add(item)) {
+                    duplicateItems.incrementAndGet();
+                }
+                if (sleepMillis > 0) {
+                    Thread.sleep(sleepMillis);
+                }
+            } finally {
+                running.decrementAndGet();
+            }
+        }
+    }
+
+    static class Fork extends ForkNodeComponent {
+        private final Supplier<ForkResult> result;
+
+        Fork(Supplier<ForkResult> result) {
+            this.result = result;
+        }
+
+        @Override
+        public ForkResult fork() {
+            return result.get();
+        }
+    }
+
+    static class CountingJoin extends JoinNodeComponent {
+        @Override
+        public void process() {
+            List<String> completed = getCompletedBranches();
+            joinedBranches = completed != null ? completed.size() : 0;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.eking.flow.executor;
+
+import com.eking.flow.bus.FlowBus;
+import com.eking.flow.component.NodeComponent;
+import com.eking.flow.component.RoutingNodeComponent;
+import com.eking.flow.context.FlowContext;
+import com.eking.flow.response.EkingflowResponse;
+import com.eking.flow.response.ExecutionTrace;
+import com.eking.flow.routing.RoutingResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Execution graph scheduling: dependency order, parallel groups and their concurrency limit,
+ * skip propagation through untaken branches and component failure.
+ */
+public class FlowSchedulingTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlowSchedulingTest.class);
+
+    private static final long SLEEP_MILLIS = 100;
+
+    /**
+     * 组件按开始执行的顺序记录自身的 ID
+     */
+    private static final Queue<String> started = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger running = new AtomicInteger();
+    private static final AtomicInteger peak = new AtomicInteger();
+
+    private static int failures;
+
+    public static void main(String[] args) {
+        FlowBus flowBus = FlowBus.getInstance();
+        for (String id : new String[]{"fsA", "fsB", "fsC", "fsD", "fsE", "fsF", "fsG", "fsH"}) {
+            flowBus.registerComponent(id, new RecordingComponent(0));
+        }
+        for (String id : new String[]{"fsS1", "fsS2", "fsS3"}) {
+            flowBus.registerComponent(id, new RecordingComponent(SLEEP_MILLIS));
+        }
+        flowBus.registerComponent("fsLong", new RecordingComponent(3 * SLEEP_MILLIS));
+        flowBus.registerComponent("fsToC", new RouteComponent("fsC"));
+        flowBus.registerComponent("fsToD", new RouteComponent("fsD"));
+        flowBus.registerComponent("fsBoom", new FailingComponent());
+
+        FlowExecutor flowExecutor = new FlowExecutor(8);
+
+        // 顺序流程严格按表达式顺序执行
+        check(flowExecutor, "fsA -> fsB -> fsC", true,
+                List.of("fsA", "fsB", "fsC"), List.of("fsA", "fsB", "fsC"));
+
+        // 并行分组的分支同时执行，汇聚节点在所有分支之后执行一次
+        long start = System.nanoTime();
+        check(flowExecutor, "fsA -> (fsS1, fsS2, fsS3) -> fsB", true,
+                List.of("fsA", "fsS1", "fsS2", "fsS3", "fsB"), List.of("fsA", "*", "*", "*", "fsB"));
+        long elapsed = (System.nanoTime() - start) / 1_000_000;
+        expect(elapsed < 3 * SLEEP_MILLIS, "branches of (fsS1, fsS2, fsS3) ran one after another: " + elapsed + "ms");
+        expect(peak.get() == 3, "expected 3 concurrent branches, saw " + peak.get());
+
+        // [1] 限制分组内同时执行的分支数
+        check(flowExecutor, "(fsS1, fsS2 -> fsS3)[1] -> fsB", true,
+                List.of("fsS1", "fsS2", "fsS3", "fsB"), null);
+        expect(peak.get() == 1, "[1] allowed " + peak.get() + " concurrent branches");
+        // 任一分支结束都让下一个等待的分支开始，不必等同一条通道上的前一个分支
+        check(flowExecutor, "(fsLong, fsA, fsB, fsC)[2] -> fsH", true,
+                List.of("fsLong", "fsA", "fsB", "fsC", "fsH"), List.of("*", "*", "fsB", "fsC", "fsH"));
+        expect(peak.get() == 2, "[2] allowed " + peak.get() + " concurrent branches");
+
+        // 未选中的分支整体跳过，跳过信号传递到分支之后的节点，后者仍执行一次
+        check(flowExecutor, "fsA -> fsToC ? fsC : (fsD -> fsE -> (fsF, fsG)) -> fsH", true,
+                List.of("fsA", "fsToC", "fsC", "fsH"), List.of("fsA", "fsToC", "fsC", "fsH"));
+        check(flowExecutor, "fsA -> fsToD ? fsC : (fsD -> fsE -> (fsF, fsG)) -> fsH", true,
+                List.of("fsA", "fsToD", "fsD", "fsE", "fsF", "fsG", "fsH"),
+                List.of("fsA", "fsToD", "fsD", "fsE", "*", "*", "fsH"));
+        // 并行分组中一个分支内的条件不影响其他分支，汇聚节点等待被跳过的路径
+        check(flowExecutor, "(fsA -> fsB, fsToD ? (fsC -> fsE) : fsD) -> fsH", true,
+                List.of("fsA", "fsB", "fsToD", "fsD", "fsH"), null);
+
+        // 组件失败后不再执行后续节点
+        check(flowExecutor, "fsA -> fsBoom -> fsB", false, List.of("fsA", "fsBoom"), null);
+
+        flowExecutor.shutdown();
+        if (failures > 0) {
+            throw new IllegalStateException(failures + " scheduling check(s) failed");
+        }
+        logger.info("✓ Execution graph scheduled every flow as expected");
+        System.exit(0);
+    }
+
+    /**
+     * @param executed 应执行的组件，与轨迹按集合比较，并要求没有组件重复执行
+     * @param order 开始执行的顺序，"*" 匹配任意组件，为 null 时不检查
+     */
+    private static void check(FlowExecutor flowExecutor, String expression, boolean success,
+                              List<String> executed, List<String> order) {
+        started.clear();
+        peak.set(0);
+        String flowId = "fs-" + expression.hashCode();
+        FlowBus.getInstance().registerFlow(flowId, expression);
+        EkingflowResponse response = flowExecutor.execute(flowId, new TestContext());
+
+        List<String> traced = new ArrayList<>();
+        for (ExecutionTrace.Entry entry : response.getTrace().getEntries()) {
+            traced.add(entry.getComponentId());
+        }
+        List<String> startOrder = new ArrayList<>(started);
+        boolean ok = response.isSuccess() == success
+                && traced.size() == executed.size() && new HashSet<>(traced).equals(new HashSet<>(executed))
+                && (order == null || matches(startOrder, order));
+        if (ok) {
+            logger.info("{} -> {}", expression, startOrder);
+        } else {
+            failures++;
+            logger.error("{} -> success={}, traced {}, started {}; expected success={}, {} in order {}",
+                    expression, response.isSuccess(), traced, startOrder, success, executed, order);
+        }
+    }
+
+    private static boolean matches(List<String> actual, List<String> expected) {
+        if (actual.size() != expected.size()) {
+            return false;
+        }
+        for (int i = 0; i < expected.size(); i++) {
+            if (!"*".equals(expected.get(i)) && !expected.get(i).equals(actual.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void expect(boolean condition, String message) {
+        if (!condition) {
+            failures++;
+            logger.error(message);
+        }
+    }
+
+    static class TestContext extends FlowContext {
+    }
+
+    static class RecordingComponent extends NodeComponent {
+        private final long sleepMillis;
+
+        RecordingComponent(long sleepMillis) {
+            this.sleepMillis = sleepMillis;
+        }
+
+        @Override
+        public void process() throws Exception {
+            started.add(getId());
+            peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                if (sleepMillis > 0) {
+                    Thread.sleep(sleepMillis);
+                }
+            } finally {
+                running.decrementAndGet();
+            }
+        }
+    }
+
+    static class RouteComponent extends RoutingNodeComponent {
+        private final String target;
+
+        RouteComponent(String target) {
+            this.target = target;
+        }
+
+        @Override
+        public RoutingResult route() {
+            started.add(getId());
+            return RoutingResult.continueTo(target);
+        }
+    }
+
+    static class FailingComponent extends NodeComponent {
+        @Override
+        public void process() {
+            started.add(getId());
+            throw new IllegalStateException("Component " + getId() + " failed");
+        }
+    }
+}
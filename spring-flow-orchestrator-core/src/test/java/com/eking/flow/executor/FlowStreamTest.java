@@ -0,0 +1,175 @@
+package com.eking.flow.executor;
+
+import com.eking.flow.bus.FlowBus;
+import com.eking.flow.component.NodeComponent;
+import com.eking.flow.context.FlowContext;
+import com.eking.flow.response.EkingflowResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Both streaming APIs keep at most maxInFlight executions between reading a context
+ * and handing its response to the consumer, and deliver every response.
+ */
+public class FlowStreamTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlowStreamTest.class);
+
+    private static final int COUNT = 2000;
+    private static final int MAX_IN_FLIGHT = 8;
+
+    private static final AtomicInteger running = new AtomicInteger();
+    private static final AtomicInteger peak = new AtomicInteger();
+
+    public static void main(String[] args) throws Exception {
+        FlowBus flowBus = FlowBus.getInstance();
+        flowBus.registerComponent("stEnter", new EnterComponent());
+        flowBus.registerComponent("stLeave", new LeaveComponent());
+        flowBus.registerComponent("stSlow", new SlowComponent());
+        flowBus.registerComponent("stB", new NoopComponent());
+        flowBus.registerFlow("stStream", "stEnter -> (stSlow, stB) -> stLeave");
+
+        FlowExecutor flowExecutor = new FlowExecutor(16);
+        try {
+            checkExecuteStream(flowExecutor);
+            checkStreamProcessor(flowExecutor);
+        } finally {
+            flowExecutor.shutdown();
+        }
+
+        logger.info("✓ Streams respect maxInFlight and deliver every response");
+        System.exit(0);
+    }
+
+    private static void checkExecuteStream(FlowExecutor flowExecutor) {
+        peak.set(0);
+        AtomicInteger read = new AtomicInteger();
+        AtomicInteger consumed = new AtomicInteger();
+        AtomicInteger maxOutstanding = new AtomicInteger();
+        Iterator<TestContext> contexts = new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return read.get() < COUNT;
+            }
+
+            @Override
+            public TestContext next() {
+                maxOutstanding.accumulateAndGet(read.get() + 1 - consumed.get(), Math::max);
+                return new TestContext(read.getAndIncrement());
+            }
+        };
+        BitSet seen = new BitSet(COUNT);
+        long count = flowExecutor.executeStream("stStream", contexts, MAX_IN_FLIGHT, response -> {
+            seen.set((Integer) response.getSlot().getData("n"));
+            response.release();
+            consumed.incrementAndGet();
+        });
+        expect(count == COUNT && seen.cardinality() == COUNT, "executeStream returned " + count
+                + ", saw " + seen.cardinality() + " distinct contexts");
+        expect(maxOutstanding.get() <= MAX_IN_FLIGHT, "iterator read " + maxOutstanding.get()
+                + " contexts ahead of the consumer");
+        expect(peak.get() <= MAX_IN_FLIGHT, peak.get() + " flows ran concurrently");
+        logger.info("executeStream: {} flows, at most {} read ahead, {} concurrent", count, maxOutstanding.get(), peak.get());
+    }
+
+    private static void checkStreamProcessor(FlowExecutor flowExecutor) throws InterruptedException {
+        peak.set(0);
+        FlowStreamProcessor processor = flowExecutor.stream("stStream", MAX_IN_FLIGHT);
+        BitSet seen = new BitSet(COUNT);
+        AtomicInteger maxInFlight = new AtomicInteger();
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        CountDownLatch done = new CountDownLatch(1);
+        processor.subscribe(new Flow.Subscriber<>() {
+            private Flow.Subscription subscription;
+
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                this.subscription = subscription;
+                subscription.request(1);
+            }
+
+            @Override
+            public void onNext(EkingflowResponse response) {
+                maxInFlight.accumulateAndGet(processor.getRunningCount() + processor.getBufferedCount(), Math::max);
+                seen.set((Integer) response.getSlot().getData("n"));
+                response.release();
+                // 慢消费者：每次只请求一个
+                subscription.request(1);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                error.set(throwable);
+                done.countDown();
+            }
+
+            @Override
+            public void onComplete() {
+                done.countDown();
+            }
+        });
+        try (SubmissionPublisher<FlowContext> publisher = new SubmissionPublisher<>()) {
+            publisher.subscribe(processor);
+            for (int i = 0; i < COUNT; i++) {
+                publisher.submit(new TestContext(i));
+            }
+        }
+        expect(done.await(60, TimeUnit.SECONDS), "stream did not complete: " + processor);
+        expect(error.get() == null, "stream failed: " + error.get());
+        expect(seen.cardinality() == COUNT, "subscriber saw " + seen.cardinality() + " responses");
+        expect(maxInFlight.get() <= MAX_IN_FLIGHT, maxInFlight.get() + " executions were in flight");
+        expect(peak.get() <= MAX_IN_FLIGHT, peak.get() + " flows ran concurrently");
+        logger.info("stream(): {} responses, at most {} in flight", seen.cardinality(), maxInFlight.get());
+    }
+
+    private static void expect(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalStateException(message);
+        }
+    }
+
+    static class TestContext extends FlowContext {
+        final int n;
+
+        TestContext(int n) {
+            this.n = n;
+        }
+    }
+
+    static class EnterComponent extends NodeComponent {
+        @Override
+        public void process() {
+            peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+            setData("n", ((TestContext) getContext()).n);
+        }
+    }
+
+    static class LeaveComponent extends NodeComponent {
+        @Override
+        public void process() {
+            running.decrementAndGet();
+        }
+    }
+
+    static class SlowComponent extends NodeComponent {
+        @Override
+        public void process() throws Exception {
+            Thread.sleep(1);
+        }
+    }
+
+    static class NoopComponent extends NodeComponent {
+        @Override
+        public void process() {
+        }
+    }
+}
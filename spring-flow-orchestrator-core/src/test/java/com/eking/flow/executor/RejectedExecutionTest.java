@@ -0,0 +1,66 @@
+package com.eking.flow.executor;
+
+import com.eking.flow.bus.FlowBus;
+import com.eking.flow.component.NodeComponent;
+import com.eking.flow.context.FlowContext;
+import com.eking.flow.execution.ExecutorMode;
+import com.eking.flow.execution.ParallelExecutor;
+import com.eking.flow.execution.RejectionPolicy;
+import com.eking.flow.response.EkingflowResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Flows submitted after the executor has been shut down must fail instead of hanging,
+ * for both rejection policies.
+ */
+public class RejectedExecutionTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(RejectedExecutionTest.class);
+
+    public static void main(String[] args) throws Exception {
+        FlowBus flowBus = FlowBus.getInstance();
+        for (String id : new String[]{"reA", "reB", "reC"}) {
+            flowBus.registerComponent(id, new NoopComponent());
+        }
+        flowBus.registerFlow("reFlow", "reA -> (reB, reC)");
+
+        for (RejectionPolicy policy : RejectionPolicy.values()) {
+            FlowExecutor flowExecutor = new FlowExecutor(new ParallelExecutor(
+                    ExecutorMode.PLATFORM.newExecutorService(1, 1, 1, policy, "reject-test-")));
+            if (!flowExecutor.execute("reFlow", new TestContext()).isSuccess()) {
+                flowExecutor.shutdown();
+                throw new IllegalStateException(policy + ": flow failed before shutdown");
+            }
+            flowExecutor.shutdown();
+
+            // 调用方线程上开始执行，分支提交被拒绝
+            expectRejected(policy, "execute", flowExecutor.execute("reFlow", new TestContext()));
+            // 整个流程提交被拒绝
+            expectRejected(policy, "executeAsync",
+                    flowExecutor.executeAsync("reFlow", new TestContext()).get(5, TimeUnit.SECONDS));
+        }
+
+        logger.info("✓ Flows submitted after shutdown fail with RejectedExecutionException");
+        System.exit(0);
+    }
+
+    private static void expectRejected(RejectionPolicy policy, String method, EkingflowResponse response) {
+        if (response.isSuccess() || !(response.getException() instanceof RejectedExecutionException)) {
+            throw new IllegalStateException(policy + ": " + method + " after shutdown returned " + response);
+        }
+        logger.info("{}: {} after shutdown failed with {}", policy, method, response.getException().getMessage());
+    }
+
+    static class TestContext extends FlowContext {
+    }
+
+    static class NoopComponent extends NodeComponent {
+        @Override
+        public void process() {
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.eking.flow.executor;
+
+import com.eking.flow.bus.FlowBus;
+import com.eking.flow.component.NodeComponent;
+import com.eking.flow.context.FlowContext;
+import com.eking.flow.response.EkingflowResponse;
+import com.eking.flow.response.ExecutionTrace;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * flow(id) references: inline expansion, recompiling the parent when a subflow changes,
+ * and cyclic or unknown references reported by precompile().
+ */
+public class SubflowTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(SubflowTest.class);
+
+    public static void main(String[] args) {
+        FlowBus flowBus = FlowBus.getInstance();
+        for (String id : new String[]{"sfA", "sfB", "sfC", "sfD", "sfE"}) {
+            flowBus.registerComponent(id, new NoopComponent());
+        }
+        flowBus.registerFlow("sfCheckout", "sfB -> sfC");
+        flowBus.registerFlow("sfOrder", "sfA -> flow(sfCheckout) -> sfD");
+        flowBus.registerFlow("sfTwice", "(flow(sfCheckout), sfE) -> flow(sfCheckout)");
+
+        FlowExecutor flowExecutor = new FlowExecutor(4);
+        try {
+            // 子流程在引用处展开执行，每个引用各执行一次
+            expectExecuted(flowExecutor, "sfOrder", List.of("sfA", "sfB", "sfC", "sfD"));
+            List<String> twice = executed(flowExecutor, "sfTwice");
+            expect(twice.size() == 5 && twice.stream().filter("sfB"::equals).count() == 2,
+                    "sfTwice executed " + twice);
+
+            // 子流程变化后引用它的流程重新编译
+            flowBus.registerFlow("sfCheckout", "sfC -> sfB -> sfE");
+            expectExecuted(flowExecutor, "sfOrder", List.of("sfA", "sfC", "sfB", "sfE", "sfD"));
+
+            // 循环引用和未注册的子流程在预编译时报告
+            flowBus.registerFlow("sfCycleA", "sfA -> flow(sfCycleB)");
+            flowBus.registerFlow("sfCycleB", "sfB -> flow(sfCycleA)");
+            flowBus.registerFlow("sfSelf", "flow(sfSelf)");
+            flowBus.registerFlow("sfMissing", "sfA -> flow(sfNowhere)");
+            Map<String, String> errors = flowExecutor.getPlanCache().precompile(Runnable::run);
+            expectError(errors, "sfCycleA", "Cyclic subflow reference: sfCycleA -> sfCycleB -> sfCycleA");
+            expectError(errors, "sfCycleB", "Cyclic subflow reference: sfCycleB -> sfCycleA -> sfCycleB");
+            expectError(errors, "sfSelf", "Cyclic subflow reference: sfSelf -> sfSelf");
+            expectError(errors, "sfMissing", "Unknown subflow flow(sfNowhere) referenced by flow sfMissing");
+            expect(!errors.containsKey("sfOrder") && !errors.containsKey("sfTwice"), "valid flows reported: " + errors);
+
+            EkingflowResponse response = flowExecutor.execute("sfCycleA", new TestContext());
+            expect(!response.isSuccess(), "a cyclic flow executed successfully");
+        } finally {
+            flowExecutor.shutdown();
+        }
+
+        logger.info("✓ Subflows expand inline, recompile on change and reject cycles");
+        System.exit(0);
+    }
+
+    private static List<String> executed(FlowExecutor flowExecutor, String flowId) {
+        EkingflowResponse response = flowExecutor.execute(flowId, new TestContext());
+        expect(response.isSuccess(), flowId + " failed: " + response);
+        List<String> executed = new ArrayList<>();
+        for (ExecutionTrace.Entry entry : response.getTrace().getEntries()) {
+            executed.add(entry.getComponentId());
+        }
+        return executed;
+    }
+
+    private static void expectExecuted(FlowExecutor flowExecutor, String flowId, List<String> expected) {
+        List<String> executed = executed(flowExecutor, flowId);
+        expect(executed.equals(expected), flowId + " executed " + executed + ", expected " + expected);
+        logger.info("{} -> {}", flowId, executed);
+    }
+
+    private static void expectError(Map<String, String> errors, String flowId, String message) {
+        expect(message.equals(errors.get(flowId)), flowId + " reported '" + errors.get(flowId) + "', expected '" + message + "'");
+    }
+
+    private static void expect(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalStateException(message);
+        }
+    }
+
+    static class TestContext extends FlowContext {
+    }
+
+    static class NoopComponent extends NodeComponent {
+        @Override
+        public void process() {
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.eking.flow.optimizer;
+
+import com.eking.flow.ast.FlowComponent;
+import com.eking.flow.bus.FlowBus;
+import com.eking.flow.component.NodeComponent;
+import com.eking.flow.component.RoutingNodeComponent;
+import com.eking.flow.context.FlowContext;
+import com.eking.flow.executor.FlowExecutor;
+import com.eking.flow.parser.ANTLR4FlowParser;
+import com.eking.flow.response.EkingflowResponse;
+import com.eking.flow.response.ExecutionTrace;
+import com.eking.flow.routing.RoutingResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Optimized flows must execute exactly the components the unoptimized flows execute,
+ * for every branch the routing components can take, and optimize() must not modify its input.
+ */
+public class FlowOptimizerTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlowOptimizerTest.class);
+
+    private static final String[] EXPRESSIONS = {
+            "oxA -> (oxB -> oxC)[2] -> oxD",
+            "oxA -> ((oxB -> oxC) -> oxD) -> (oxE)[1]",
+            "oxToA ? (oxA -> oxS -> oxT) : (oxB -> oxS -> oxT)",
+            "oxToB ? (oxA -> oxS -> oxT) : (oxB -> oxS -> oxT)",
+            "oxToA ? (oxA -> oxB) : (oxA -> oxB)",
+            "oxToD ? oxS : (oxD -> oxS)",
+            "X = oxA -> (oxB, oxC)\nX -> oxToD ? X : (oxD -> X)",
+            "X = oxA -> (oxB, oxC)\nX -> oxToA ? X : (oxD -> X)",
+            "oxA -> (oxToA ? ((oxToC ? oxC : oxD) -> oxE) : ((oxToC ? oxC : oxD) -> oxE)) -> oxB",
+            "oxA -> (oxToB ? (oxC -> oxT) : (oxB -> oxT)) -> (oxToD ? (oxS, oxE) : (oxS, oxE))",
+            "oxA -> (oxToC ? oxC : (oxD, oxE), oxToD ? oxS : (oxT, oxB))[1] -> oxE",
+    };
+
+    public static void main(String[] args) {
+        FlowBus flowBus = FlowBus.getInstance();
+        for (String id : new String[]{"oxA", "oxB", "oxC", "oxD", "oxE", "oxS", "oxT"}) {
+            flowBus.registerComponent(id, new NoopComponent());
+        }
+        for (String target : new String[]{"oxA", "oxB", "oxC", "oxD"}) {
+            flowBus.registerComponent("oxTo" + target.substring(2), new RouteComponent(target));
+        }
+
+        FlowExecutor optimized = new FlowExecutor(4);
+        FlowExecutor unoptimized = new FlowExecutor(4);
+        unoptimized.getPlanCache().setOptimizer(FlowOptimizer.NONE);
+        ANTLR4FlowParser parser = new ANTLR4FlowParser();
+        FlowOptimizer optimizer = FlowOptimizer.standard();
+        int graphNodes = 0;
+        int optimizedGraphNodes = 0;
+        try {
+            for (int i = 0; i < EXPRESSIONS.length; i++) {
+                String flowId = "ox" + i;
+                flowBus.registerFlow(flowId, EXPRESSIONS[i]);
+                List<String> expected = executed(unoptimized, flowId);
+                List<String> actual = executed(optimized, flowId);
+                if (!actual.equals(expected)) {
+                    throw new IllegalStateException(EXPRESSIONS[i] + ": optimized flow executed " + actual
+                            + ", unoptimized " + expected);
+                }
+                graphNodes += unoptimized.getPlanCache().get(flowId).getGraph().size();
+                optimizedGraphNodes += optimized.getPlanCache().get(flowId).getGraph().size();
+
+                FlowComponent ast = parser.parseAst(EXPRESSIONS[i]);
+                String before = ast.toString();
+                optimizer.optimize(ast);
+                if (!before.equals(ast.toString())) {
+                    throw new IllegalStateException("optimize() modified its input: " + before + " -> " + ast);
+                }
+                logger.info("{} -> {}", EXPRESSIONS[i].replace('\n', ';'), actual);
+            }
+        } finally {
+            optimized.shutdown();
+            unoptimized.shutdown();
+        }
+        if (optimizedGraphNodes >= graphNodes) {
+            throw new IllegalStateException("The optimizer removed no graph nodes: " + graphNodes);
+        }
+
+        logger.info("✓ Optimized flows execute the same components with {} -> {} graph nodes",
+                graphNodes, optimizedGraphNodes);
+        System.exit(0);
+    }
+
+    /**
+     * 执行的组件，排序后比较：并行分支的完成顺序不固定
+     */
+    private static List<String> executed(FlowExecutor flowExecutor, String flowId) {
+        EkingflowResponse response = flowExecutor.execute(flowId, new TestContext());
+        if (!response.isSuccess()) {
+            throw new IllegalStateException(flowId + " failed: " + response);
+        }
+        List<String> executed = new ArrayList<>();
+        for (ExecutionTrace.Entry entry : response.getTrace().getEntries()) {
+            executed.add(entry.getComponentId());
+        }
+        Collections.sort(executed);
+        return executed;
+    }
+
+    static class TestContext extends FlowContext {
+    }
+
+    static class NoopComponent extends NodeComponent {
+        @Override
+        public void process() {
+        }
+    }
+
+    static class RouteComponent extends RoutingNodeComponent {
+        private final String target;
+
+        RouteComponent(String target) {
+            this.target = target;
+        }
+
+        @Override
+        public RoutingResult route() {
+            return RoutingResult.continueTo(target);
+        }
+    }
+}
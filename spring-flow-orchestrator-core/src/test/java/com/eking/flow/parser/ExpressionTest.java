@@ -77,6 +77,9 @@ public class ExpressionTest {
         // Test 8: Simple FORK-JOIN
         test.addTestCase("FORK (A, B) JOIN C");
 
+        // Test 9: Parallel group with a concurrency limit
+        test.addTestCase("A -> (B, C -> D, E)[2] -> F");
+
         test.runAllTests();
     }
 }
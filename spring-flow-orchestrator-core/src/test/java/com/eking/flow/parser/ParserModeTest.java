@@ -0,0 +1,179 @@
+package com.eking.flow.parser;
+
+import com.eking.flow.ast.ConditionalComponent;
+import com.eking.flow.ast.FlowComponent;
+import com.eking.flow.ast.ParallelComponent;
+import com.eking.flow.ast.SequenceComponent;
+import com.eking.flow.ast.SimpleComponent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SLL-first parsing must build the same AST as LL-only parsing for every expression,
+ * and expressions SLL gives up on must fall back to LL and report the same syntax errors.
+ */
+public class ParserModeTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(ParserModeTest.class);
+
+    /**
+     * 示例应用、文档和基准中的流程表达式
+     */
+    private static final String[] EXPRESSIONS = {
+            "validateOrder -> orderAmountRouter -> sendConfirmation",
+            "validateOrder -> orderProcessingFork -> (processInventory, processPayment, sendNotification) -> orderAggregationJoin",
+            "A->B->D->(F1,F2) -> G->H->I->J",
+            "A->B->C?E:H->I->J",
+            "A->B->C?D:E->H->I->J",
+            "A->(F1->F2, F3->F4?F5:F6)-> X->Y",
+            "A -> (B -> C, D -> E ? F : G) -> H -> I",
+            "A -> (B->C, D->E?F:G) -> H?I:J -> K",
+            "A -> (B, C -> D, E)[2] -> F",
+            "A -> B ? C : D",
+            "X = A -> B ? C : D\nM -> X -> N",
+            "start -> validate -> process -> end",
+            "validate -> router ? approve : reject -> notify",
+            "fork -> (b1, b2, b3, b4) -> join",
+            "a -> (b, c -> d) -> r ? t : f",
+            "A -> rF ? ((rT ? C : E) -> G) : D -> F",
+            "A -> rT ? C : (rF ? C : (rT ? C : D) -> E) -> F",
+            "A -> (rT ? C : (D, E), rF ? G : (H, X))[1] -> Y",
+            "(A, B) -> C",
+            "(A) -> (B) -> ((C))",
+            "X = A -> B\n(Y) -> C",
+            "A -> flow(checkout) -> B",
+            "flowA -> flow(checkout) ? C : D",
+    };
+
+    /**
+     * 曾被解析错误的表达式及其期望的语法树结构
+     */
+    private static final String[][] REGRESSIONS = {
+            // 赋值语句之后以括号开头的语句不能被读作函数调用 B(Y)
+            {"X = A -> B\n(Y) -> C", "seq(Y C )"},
+            {"X = A -> B\n(Y, Z) -> X", "seq(par[0](Y Z ) seq(A B ) )"},
+            {"A -> flow(checkout) -> B", "seq(A flow(checkout) B )"},
+            {"flowA -> flow (checkout)", "seq(flowA flow(checkout) )"},
+    };
+
+    /**
+     * 语法错误：SLL 阶段放弃，必须回退到 LL 并报告与纯 LL 相同的错误
+     */
+    private static final String[] INVALID = {
+            "A -> -> B",
+            "A -> (B, C",
+            "A ? B",
+            "A -> (B, C)[x]",
+            "A -> B ->",
+            // flow 是子流程引用的关键字，不能用作组件名
+            "flow -> A",
+    };
+
+    private static final int LARGE_SEGMENTS = 50;
+
+    public static void main(String[] args) {
+        ANTLR4FlowParser llOnly = new ANTLR4FlowParser(false);
+        ANTLR4FlowParser sllFirst = new ANTLR4FlowParser(true);
+
+        List<String> expressions = new ArrayList<>(List.of(EXPRESSIONS));
+        expressions.add(largeExpression());
+        for (String expression : expressions) {
+            String expected = structure(llOnly.parseAst(expression));
+            String actual = structure(sllFirst.parseAst(expression));
+            if (!expected.equals(actual)) {
+                throw new IllegalStateException("AST mismatch for '" + expression + "': " + expected + " != " + actual);
+            }
+        }
+        if (sllFirst.getLlFallbackCount() != 0) {
+            throw new IllegalStateException(sllFirst.getLlFallbackCount() + " valid expression(s) needed the LL fallback");
+        }
+
+        for (String[] regression : REGRESSIONS) {
+            String tree = structure(sllFirst.parseAst(regression[0]));
+            if (!regression[1].equals(tree)) {
+                throw new IllegalStateException("Unexpected AST for '" + regression[0] + "': " + tree + " != " + regression[1]);
+            }
+        }
+
+        for (String expression : INVALID) {
+            long fallbacks = sllFirst.getLlFallbackCount();
+            String expected = error(llOnly, expression);
+            String actual = error(sllFirst, expression);
+            if (expected == null || !expected.equals(actual)) {
+                throw new IllegalStateException("'" + expression + "' reported '" + actual + "', LL-only reported '"
+                        + expected + "'");
+            }
+            if (sllFirst.getLlFallbackCount() != fallbacks + 1) {
+                throw new IllegalStateException("'" + expression + "' did not fall back to LL");
+            }
+            logger.info("{} -> {}", expression, actual);
+        }
+
+        logger.info("✓ {} expressions parse to identical ASTs, {} regressions keep their trees, {} syntax errors fall back to LL",
+                expressions.size(), REGRESSIONS.length, INVALID.length);
+        System.exit(0);
+    }
+
+    /**
+     * 解析失败时返回异常链上的全部错误信息，解析成功时返回 null
+     */
+    private static String error(ANTLR4FlowParser parser, String expression) {
+        try {
+            parser.parseAst(expression);
+            return null;
+        } catch (RuntimeException e) {
+            StringBuilder messages = new StringBuilder();
+            for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+                messages.append(messages.length() > 0 ? ": " : "").append(cause.getMessage());
+            }
+            return messages.toString();
+        }
+    }
+
+    /**
+     * 每段包含并行分组和条件分支的长表达式
+     */
+    private static String largeExpression() {
+        StringBuilder builder = new StringBuilder("start");
+        for (int i = 0; i < LARGE_SEGMENTS; i++) {
+            builder.append(" -> s").append(i)
+                    .append(" -> (a").append(i).append(", b").append(i).append(" -> c").append(i).append(")[2]")
+                    .append(" -> r").append(i).append(" ? t").append(i).append(" : (f").append(i)
+                    .append(", g").append(i).append(")");
+        }
+        return builder.append(" -> end").toString();
+    }
+
+    /**
+     * 带完整括号的语法树结构。toString() 省略了嵌套顺序流程的括号，不能区分所有结构
+     */
+    private static String structure(FlowComponent component) {
+        if (component instanceof SimpleComponent) {
+            return ((SimpleComponent) component).getName();
+        }
+        if (component instanceof SequenceComponent) {
+            StringBuilder builder = new StringBuilder("seq(");
+            for (FlowComponent step : ((SequenceComponent) component).getSteps()) {
+                builder.append(structure(step)).append(' ');
+            }
+            return builder.append(')').toString();
+        }
+        if (component instanceof ConditionalComponent) {
+            ConditionalComponent conditional = (ConditionalComponent) component;
+            return "if(" + structure(conditional.getCondition()) + " " + structure(conditional.getTrueBranch())
+                    + " " + structure(conditional.getFalseBranch()) + ")";
+        }
+        if (component instanceof ParallelComponent) {
+            ParallelComponent parallel = (ParallelComponent) component;
+            StringBuilder builder = new StringBuilder("par[").append(parallel.getMaxConcurrency()).append("](");
+            for (FlowComponent branch : parallel.getBranches()) {
+                builder.append(structure(branch)).append(' ');
+            }
+            return builder.append(')').toString();
+        }
+        return String.valueOf(component);
+    }
+}
@@ -0,0 +1,136 @@
+package com.eking.flow.parser;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ParserRuntime: warm-up fills the shared DFAs, reset() and an exceeded maxDfaStates clear them,
+ * and parsing keeps producing the same ASTs after a reset, including parses that are in flight
+ * while the DFAs are cleared.
+ */
+public class ParserRuntimeTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(ParserRuntimeTest.class);
+
+    private static final String[] EXPRESSIONS = {
+            "A -> B ? (C -> D) : (E ? F : G) -> H",
+            "A -> (B -> C, D -> E ? F : G)[2] -> H ? I : J -> K",
+            "X = A -> (B, C)\nM -> X ? N : (O, P) -> Q",
+    };
+
+    private static final int PARSER_THREADS = 2;
+    private static final int PARSES_PER_THREAD = 2000;
+
+    public static void main(String[] args) throws Exception {
+        ANTLR4FlowParser parser = new ANTLR4FlowParser();
+        List<String> expected = new ArrayList<>();
+        for (String expression : EXPRESSIONS) {
+            expected.add(parser.parseAst(expression).toString());
+        }
+
+        // 清空后两个 DFA 都没有状态，预热重新填充
+        ParserRuntime.reset();
+        expect(ParserRuntime.getParserDfaStateCount() == 0 && ParserRuntime.getLexerDfaStateCount() == 0,
+                "reset() left " + ParserRuntime.getDfaStateCount() + " DFA state(s)");
+        ParserRuntime.warmUp();
+        int warm = ParserRuntime.getDfaStateCount();
+        expect(ParserRuntime.getParserDfaStateCount() > 0 && ParserRuntime.getLexerDfaStateCount() > 0,
+                "warm-up filled " + ParserRuntime.getParserDfaStateCount() + " parser and "
+                        + ParserRuntime.getLexerDfaStateCount() + " lexer DFA state(s)");
+
+        // 清空后解析结果不变
+        ParserRuntime.reset();
+        expectSameAsts(parser, expected);
+        expect(ParserRuntime.getDfaStateCount() > 0, "parsing after reset() did not rebuild the DFAs");
+
+        // 超过上限时在解析结束后清空
+        ParserRuntime.setMaxDfaStates(5);
+        try {
+            parser.parseAst(EXPRESSIONS[1]);
+            expect(ParserRuntime.getDfaStateCount() == 0,
+                    ParserRuntime.getDfaStateCount() + " DFA state(s) kept above the limit of 5");
+            expectSameAsts(parser, expected);
+
+            // 上限足够大时不清空
+            ParserRuntime.setMaxDfaStates(10 * warm);
+            ParserRuntime.warmUp();
+            expectSameAsts(parser, expected);
+            expect(ParserRuntime.getDfaStateCount() >= warm, "DFA cleared below the limit of " + 10 * warm);
+        } finally {
+            ParserRuntime.setMaxDfaStates(0);
+        }
+
+        // 解析过程中清空 DFA：正在进行的解析切换到新的 DFA，结果仍然正确
+        AtomicBoolean parsing = new AtomicBoolean(true);
+        AtomicInteger resets = new AtomicInteger();
+        Thread resetter = new Thread(() -> {
+            while (parsing.get()) {
+                ParserRuntime.reset();
+                resets.incrementAndGet();
+                Thread.yield();
+            }
+        }, "dfa-resetter");
+        resetter.start();
+        ExecutorService parsers = Executors.newFixedThreadPool(PARSER_THREADS);
+        List<Future<Integer>> mismatches = new ArrayList<>();
+        for (int t = 0; t < PARSER_THREADS; t++) {
+            mismatches.add(parsers.submit(() -> {
+                ANTLR4FlowParser threadParser = new ANTLR4FlowParser();
+                int wrong = 0;
+                for (int i = 0; i < PARSES_PER_THREAD; i++) {
+                    int index = i % EXPRESSIONS.length;
+                    if (!expected.get(index).equals(threadParser.parseAst(EXPRESSIONS[index]).toString())) {
+                        wrong++;
+                    }
+                }
+                return wrong;
+            }));
+        }
+        int wrong = 0;
+        try {
+            for (Future<Integer> mismatch : mismatches) {
+                wrong += mismatch.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            parsing.set(false);
+            resetter.join();
+            parsers.shutdown();
+        }
+        expect(wrong == 0, wrong + " parse(s) returned a different AST while the DFAs were being cleared");
+        expect(resets.get() > 0, "the DFAs were never cleared during the concurrent parses");
+
+        try {
+            ParserRuntime.setMaxDfaStates(-1);
+            throw new IllegalStateException("setMaxDfaStates(-1) was accepted");
+        } catch (IllegalArgumentException expectedError) {
+            // 负数上限被拒绝
+        }
+
+        logger.info("✓ DFA warm-up, reset and limit behave as expected ({} resets during {} concurrent parses)",
+                resets.get(), PARSER_THREADS * PARSES_PER_THREAD);
+        System.exit(0);
+    }
+
+    private static void expectSameAsts(ANTLR4FlowParser parser, List<String> expected) {
+        for (int i = 0; i < EXPRESSIONS.length; i++) {
+            String actual = parser.parseAst(EXPRESSIONS[i]).toString();
+            expect(expected.get(i).equals(actual), "'" + EXPRESSIONS[i] + "' parsed to " + actual
+                    + ", expected " + expected.get(i));
+        }
+    }
+
+    private static void expect(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalStateException(message);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.eking.flow.slot;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A released slot must stay released after the pool hands its storage to the next execution,
+ * and released storage must be reused by the very next acquire. Threads still writing through
+ * the slot while it is released must see the release and stop.
+ */
+public class SlotPoolTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(SlotPoolTest.class);
+
+    private static final int RACE_ROUNDS = 200;
+    private static final int RACE_WRITERS = 3;
+
+    public static void main(String[] args) throws InterruptedException {
+        SlotPool pool = new SlotPool(16);
+
+        Slot stale = pool.acquire();
+        stale.setData("order", "first");
+        pool.release(stale);
+
+        Slot current = pool.acquire();
+        if (pool.getReusedCount() != 1 || pool.getCreatedCount() != 1) {
+            throw new IllegalStateException("Released storage was not reused: " + pool);
+        }
+        if (current == stale || current.getId() == stale.getId()) {
+            throw new IllegalStateException("The pool handed out the released slot again");
+        }
+        if (!stale.isReleased() || current.isReleased() || current.hasData("order")) {
+            throw new IllegalStateException("Reused storage leaked state between executions");
+        }
+
+        current.setData("order", "second");
+        expectReleased(() -> stale.getData("order"));
+        expectReleased(() -> stale.setData("order", "stale"));
+        expectReleased(() -> pool.release(stale));
+        if (!"second".equals(current.getData("order"))) {
+            throw new IllegalStateException("A stale slot modified the current execution's data");
+        }
+
+        pool.release(current);
+        SlotPool unpooled = new SlotPool(0);
+        unpooled.release(unpooled.acquire());
+        unpooled.acquire();
+        if (unpooled.getReusedCount() != 0 || unpooled.getCreatedCount() != 2) {
+            throw new IllegalStateException("A pool with capacity 0 must not reuse slots: " + unpooled);
+        }
+
+        releaseWhileWriting();
+
+        logger.info("✓ Stale slots stay released, storage reused immediately: {}", pool);
+        System.exit(0);
+    }
+
+    /**
+     * 其他线程仍在写入时释放槽位，检查每个写入线程都会看到释放并停止，且释放不会等待这些线程
+     */
+    private static void releaseWhileWriting() throws InterruptedException {
+        SlotPool pool = new SlotPool(1);
+        for (int round = 0; round < RACE_ROUNDS; round++) {
+            Slot slot = pool.acquire();
+            CountDownLatch started = new CountDownLatch(RACE_WRITERS);
+            AtomicInteger rejected = new AtomicInteger();
+            Thread[] writers = new Thread[RACE_WRITERS];
+            for (int w = 0; w < RACE_WRITERS; w++) {
+                String key = "writer" + w;
+                writers[w] = new Thread(() -> {
+                    started.countDown();
+                    try {
+                        for (int i = 0; ; i++) {
+                            slot.setData(key, i);
+                        }
+                    } catch (IllegalStateException released) {
+                        rejected.incrementAndGet();
+                    }
+                });
+                writers[w].start();
+            }
+            started.await();
+            pool.release(slot);
+            Slot next = pool.acquire();
+            if (next.getId() == slot.getId() || next.isReleased()) {
+                throw new IllegalStateException("The next lease shares state with the released slot");
+            }
+            for (Thread writer : writers) {
+                writer.join();
+            }
+            pool.release(next);
+            if (rejected.get() != RACE_WRITERS) {
+                throw new IllegalStateException("A writer stopped without seeing the release");
+            }
+        }
+    }
+
+    private static void expectReleased(Runnable access) {
+        try {
+            access.run();
+        } catch (IllegalStateException expected) {
+            return;
+        }
+        throw new IllegalStateException("Access through a released slot did not fail");
+    }
+}
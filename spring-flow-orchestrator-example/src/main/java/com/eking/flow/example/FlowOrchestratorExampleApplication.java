@@ -21,11 +21,11 @@ public class FlowOrchestratorExampleApplication {
 
         // Register flow with conditional routing
         flowBus.registerFlow("routedOrderFlow",
-                "validateOrder THEN orderAmountRouter THEN sendConfirmation");
+                "validateOrder -> orderAmountRouter -> sendConfirmation");
 
         // Register flow with parallel execution (fork/join)
         flowBus.registerFlow("parallelOrderFlow",
-                "validateOrder FORK processInventory,processPayment,sendNotification JOIN orderAggregationJoin");
+                "validateOrder -> orderProcessingFork -> (processInventory, processPayment, sendNotification) -> orderAggregationJoin");
 
         // Demo 1: Premium order (amount >= 100) - Conditional routing
         System.out.println("\n╔════════════════════════════════════════════╗");
@@ -99,6 +99,7 @@ public class FlowOrchestratorExampleApplication {
         System.out.println("\n--- Parallel Flow Execution Result ---");
         System.out.println("Success: " + response.isSuccess());
         System.out.println("Executed Components: " + response.getExecutedComponents());
+        System.out.println("Execution Trace: " + response.getTrace());
         System.out.println("Total Duration: " + (endTime - startTime) + "ms");
 
         // 只有在成功时才打印Slot Duration
@@ -1,8 +1,20 @@
 package com.eking.flow.config;
 
+import com.eking.flow.aop.AfterListener;
+import com.eking.flow.aop.BeforeListener;
+import com.eking.flow.aop.ComponentListenerDispatcher;
+import com.eking.flow.aop.ErrorListener;
 import com.eking.flow.bus.FlowBus;
 import com.eking.flow.component.NodeComponent;
+import com.eking.flow.execution.ParallelExecutor;
+import com.eking.flow.executor.ExecutionLog;
 import com.eking.flow.executor.FlowExecutor;
+import com.eking.flow.metrics.FlowMetrics;
+import com.eking.flow.optimizer.FlowOptimizer;
+import com.eking.flow.parser.ParserRuntime;
+import com.eking.flow.slot.SlotPool;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
@@ -11,6 +23,8 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.Collectors;
 
 /**
  *
@@ -28,8 +42,70 @@ public class FlowAutoConfiguration {
      */
     @Bean
     @ConditionalOnMissingBean
-    public FlowExecutor flowExecutor() {
-        return new FlowExecutor();
+    public FlowExecutor flowExecutor(FlowProperties properties, ObjectProvider<FlowMetrics> flowMetrics,
+                                     ObjectProvider<ComponentListenerDispatcher> listenerDispatcher) {
+        // 最大线程数不能小于核心线程数
+        ExecutorService executorService = properties.getExecutorMode().newExecutorService(
+                properties.getThreadPoolSize(),
+                Math.max(properties.getMaxPoolSize(), properties.getThreadPoolSize()),
+                properties.getQueueCapacity(),
+                properties.getRejectionPolicy(),
+                properties.getThreadNamePrefix());
+        ParserRuntime.setMaxDfaStates(properties.getParserMaxDfaStates());
+        if (properties.isParserWarmUp()) {
+            // 首个流程的解析不再承担 DFA 冷启动的开销
+            ParserRuntime.warmUp();
+        }
+        FlowExecutor flowExecutor = new FlowExecutor(new ParallelExecutor(executorService), new SlotPool(properties.getSlotSize()));
+        flowExecutor.getPlanCache().setDefaultMaxConcurrency(properties.getParallelMaxConcurrency());
+        flowExecutor.getPlanCache().setOptimizer(properties.isOptimizeAst() ? FlowOptimizer.standard() : FlowOptimizer.NONE);
+        if (properties.getBatchParallelism() > 0) {
+            flowExecutor.setBatchParallelism(properties.getBatchParallelism());
+        }
+        flowExecutor.setExecutionLog(executionLog(properties));
+        flowMetrics.ifAvailable(flowExecutor::setMetrics);
+        listenerDispatcher.ifAvailable(flowExecutor::setListenerDispatcher);
+        return flowExecutor;
+    }
+
+    /**
+     *
+     * 根据配置创建执行日志策略：慢执行阈值优先于抽样
+     */
+    private static ExecutionLog executionLog(FlowProperties properties) {
+        if (!properties.isPrintExecutionLog()) {
+            return ExecutionLog.DISABLED;
+        }
+        if (properties.getExecutionLogSlowThreshold() > 0) {
+            return ExecutionLog.slowerThan(properties.getExecutionLogSlowThreshold());
+        }
+        return ExecutionLog.sampled(properties.getExecutionLogSampleRate());
+    }
+
+    /**
+     *
+     * 创建组件监听器分发表 bean，收集所有 BeforeListener、AfterListener 和 ErrorListener
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public ComponentListenerDispatcher componentListenerDispatcher(ObjectProvider<BeforeListener> beforeListeners,
+                                                                   ObjectProvider<AfterListener> afterListeners,
+                                                                   ObjectProvider<ErrorListener> errorListeners) {
+        return new ComponentListenerDispatcher(
+                beforeListeners.orderedStream().collect(Collectors.toList()),
+                afterListeners.orderedStream().collect(Collectors.toList()),
+                errorListeners.orderedStream().collect(Collectors.toList()));
+    }
+
+    /**
+     *
+     * 创建启动预编译器 bean
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = "flow.orchestrator.precompile-on-startup", havingValue = "true", matchIfMissing = true)
+    public FlowPlanPrecompiler flowPlanPrecompiler(FlowExecutor flowExecutor, FlowProperties properties) {
+        return new FlowPlanPrecompiler(flowExecutor, properties);
     }
 
     /**
@@ -42,6 +118,30 @@ public class FlowAutoConfiguration {
         return FlowBus.getInstance();
     }
 
+    /**
+     *
+     * 存在 Micrometer 时创建流程指标 bean
+     */
+    @Configuration
+    @ConditionalOnClass(name = "io.micrometer.core.instrument.MeterRegistry")
+    @ConditionalOnProperty(name = "flow.orchestrator.metrics-enabled", havingValue = "true", matchIfMissing = true)
+    public static class MetricsAutoConfiguration {
+
+        /**
+         *
+         * 创建基于 Micrometer 的流程指标 bean，没有 MeterRegistry 时不记录指标
+         */
+        @Bean
+        @ConditionalOnMissingBean
+        public FlowMetrics flowMetrics(ObjectProvider<MeterRegistry> meterRegistry, FlowProperties properties) {
+            MeterRegistry registry = meterRegistry.getIfAvailable();
+            if (registry == null) {
+                return FlowMetrics.NOOP;
+            }
+            return new MicrometerFlowMetrics(registry, properties.isMetricsPercentileHistogram());
+        }
+    }
+
     /**
      *
      * 自动注册节点组件 bean
@@ -61,8 +161,9 @@ public class FlowAutoConfiguration {
          * 自动注册所有 NodeComponent bean
          */
         @Bean
-        public ComponentRegistrar componentRegistrar(Map<String, NodeComponent> componentMap) {
-            return new ComponentRegistrar(componentMap, flowBus);
+        public ComponentRegistrar componentRegistrar(Map<String, NodeComponent> componentMap,
+                                                     ObjectProvider<ComponentListenerDispatcher> listenerDispatcher) {
+            return new ComponentRegistrar(componentMap, flowBus, listenerDispatcher.getIfAvailable());
         }
     }
 
@@ -74,10 +175,17 @@ public class FlowAutoConfiguration {
 
         private final Map<String, NodeComponent> componentMap;
         private final FlowBus flowBus;
+        private final ComponentListenerDispatcher listenerDispatcher;
 
         public ComponentRegistrar(Map<String, NodeComponent> componentMap, FlowBus flowBus) {
+            this(componentMap, flowBus, null);
+        }
+
+        public ComponentRegistrar(Map<String, NodeComponent> componentMap, FlowBus flowBus,
+                                  ComponentListenerDispatcher listenerDispatcher) {
             this.componentMap = componentMap;
             this.flowBus = flowBus;
+            this.listenerDispatcher = listenerDispatcher;
             registerComponents();
         }
 
@@ -85,6 +193,10 @@ public class FlowAutoConfiguration {
             componentMap.forEach((beanName, component) -> {
                 // Use bean name as component ID
                 flowBus.registerComponent(beanName, component);
+                // 注册时预先计算该组件类型的监听器数组
+                if (listenerDispatcher != null) {
+                    listenerDispatcher.prepare(component.getClass());
+                }
             });
         }
     }
@@ -0,0 +1,75 @@
+package com.eking.flow.config;
+
+import com.eking.flow.execution.ExecutionPlanCache;
+import com.eking.flow.execution.PlanStore;
+import com.eking.flow.executor.FlowExecutor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ *
+ * 启动预编译器 - 所有单例（包括组件注册）初始化完成后，
+ * 将已注册的流程并行编译为执行计划并校验组件引用，
+ * 使首个请求即可以稳态延迟执行。
+ * 配置了已编译流程的存储文件时，表达式未变化的流程直接从文件读取，不再解析。
+ */
+public class FlowPlanPrecompiler implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlowPlanPrecompiler.class);
+
+    private final FlowExecutor flowExecutor;
+    private final FlowProperties properties;
+
+    public FlowPlanPrecompiler(FlowExecutor flowExecutor, FlowProperties properties) {
+        this.flowExecutor = flowExecutor;
+        this.properties = properties;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        ExecutionPlanCache planCache = flowExecutor.getPlanCache();
+        Path planStoreFile = properties.getPlanStoreFile() != null && !properties.getPlanStoreFile().isBlank()
+                ? Paths.get(properties.getPlanStoreFile()) : null;
+        if (planStoreFile != null) {
+            planCache.setPlanStore(PlanStore.load(planStoreFile));
+        }
+
+        long storeHits = planCache.getStoreHitCount();
+        Map<String, String> errors = planCache.precompile(ForkJoinPool.commonPool());
+        if (planStoreFile != null) {
+            savePlans(planCache, planStoreFile, planCache.getStoreHitCount() - storeHits);
+        }
+        if (errors.isEmpty()) {
+            return;
+        }
+
+        StringBuilder report = new StringBuilder("Invalid flow definition(s):");
+        errors.forEach((flowId, error) -> report.append("\n  - ").append(flowId).append(": ").append(error));
+
+        if (properties.isFailOnInvalidFlow()) {
+            throw new IllegalStateException(report.toString());
+        }
+        logger.warn(report.toString());
+    }
+
+    /**
+     * 存储已经包含全部流程且没有多余的流程时不重写文件
+     */
+    private void savePlans(ExecutionPlanCache planCache, Path planStoreFile, long storeHits) {
+        if (storeHits == planCache.size() && planCache.getPlanStore().size() == planCache.size()) {
+            return;
+        }
+        try {
+            planCache.savePlans(planStoreFile);
+        } catch (IOException e) {
+            logger.warn("Failed to write plan store {}", planStoreFile, e);
+        }
+    }
+}
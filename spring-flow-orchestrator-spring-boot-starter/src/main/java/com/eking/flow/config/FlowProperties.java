@@ -1,5 +1,7 @@
 package com.eking.flow.config;
 
+import com.eking.flow.execution.ExecutorMode;
+import com.eking.flow.execution.RejectionPolicy;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 /**
@@ -14,20 +16,107 @@ public class FlowProperties {
     private boolean enabled = true;
 
     /**
-     * 上下文隔离槽位大小
+     * 上下文隔离槽位大小：槽位池最多保留的空闲槽位数，0 表示不复用槽位。
+     * 调用方通过 EkingflowResponse.release() 归还槽位
      */
     private int slotSize = 1024;
 
     /**
-     * 是否启用详细执行日志打印
+     * 是否为每次流程执行输出一行结构化的执行事件（INFO 级别），默认关闭
      */
-    private boolean printExecutionLog = true;
+    private boolean printExecutionLog = false;
 
     /**
-     * 默认线程池大小
+     * 执行事件抽样间隔：平均每 N 次执行输出一次，1 表示每次都输出
+     */
+    private int executionLogSampleRate = 1;
+
+    /**
+     * 慢执行阈值（毫秒）：大于 0 时只输出耗时不低于该值的执行，不参与抽样
+     */
+    private long executionLogSlowThreshold = 0;
+
+    /**
+     * 默认线程池大小（核心线程数）
      */
     private int threadPoolSize = 64;
 
+    /**
+     * 线程池最大线程数，只有等待队列已满时才会创建超过核心线程数的线程
+     */
+    private int maxPoolSize = 64;
+
+    /**
+     * 线程池等待队列容量，0 表示不排队
+     */
+    private int queueCapacity = 1024;
+
+    /**
+     * 队列已满且线程数达到上限时的处理策略
+     */
+    private RejectionPolicy rejectionPolicy = RejectionPolicy.CALLER_RUNS;
+
+    /**
+     * 执行线程名前缀
+     */
+    private String threadNamePrefix = ExecutorMode.DEFAULT_THREAD_NAME_PREFIX;
+
+    /**
+     * 执行线程模式：PLATFORM 使用固定大小的平台线程池，VIRTUAL 在支持的JDK上使用虚拟线程
+     */
+    private ExecutorMode executorMode = ExecutorMode.PLATFORM;
+
+    /**
+     * 并行分组默认最多同时执行的分支数，0 表示不限制；表达式中的 (A, B, C)[n] 优先
+     */
+    private int parallelMaxConcurrency = 0;
+
+    /**
+     * 批量执行（FlowExecutor.executeBatch）的最大并行工作者数，0 表示使用可用处理器数
+     */
+    private int batchParallelism = 0;
+
+    /**
+     * 存在 Micrometer MeterRegistry 时是否记录流程、组件和线程池指标
+     */
+    private boolean metricsEnabled = true;
+
+    /**
+     * 是否为耗时指标发布百分位直方图，便于在监控系统中聚合计算 p99 等分位数
+     */
+    private boolean metricsPercentileHistogram = false;
+
+    /**
+     * 是否在启动时用代表性表达式预热流程解析器的 DFA 缓存
+     */
+    private boolean parserWarmUp = true;
+
+    /**
+     * 流程解析器 DFA 缓存的状态数上限，超过后清空重建，0 表示不限制
+     */
+    private int parserMaxDfaStates = 0;
+
+    /**
+     * 是否在生成执行计划前优化流程 AST：折叠单分支并行分组、移出条件分支中不变的步骤、展开嵌套顺序流程并合并相同子树
+     */
+    private boolean optimizeAst = true;
+
+    /**
+     * 是否在启动时预编译所有已注册的流程
+     */
+    private boolean precompileOnStartup = true;
+
+    /**
+     * 已编译流程的二进制存储文件；设置后启动时从该文件加载表达式未变化的流程，
+     * 有流程需要重新解析时在预编译后重写该文件。为空表示不使用
+     */
+    private String planStoreFile;
+
+    /**
+     * 预编译发现无效流程（语法错误或引用未注册组件）时是否阻止应用启动
+     */
+    private boolean failOnInvalidFlow = true;
+
     public boolean isEnabled() {
         return enabled;
     }
@@ -52,6 +141,22 @@ public class FlowProperties {
         this.printExecutionLog = printExecutionLog;
     }
 
+    public int getExecutionLogSampleRate() {
+        return executionLogSampleRate;
+    }
+
+    public void setExecutionLogSampleRate(int executionLogSampleRate) {
+        this.executionLogSampleRate = executionLogSampleRate;
+    }
+
+    public long getExecutionLogSlowThreshold() {
+        return executionLogSlowThreshold;
+    }
+
+    public void setExecutionLogSlowThreshold(long executionLogSlowThreshold) {
+        this.executionLogSlowThreshold = executionLogSlowThreshold;
+    }
+
     public int getThreadPoolSize() {
         return threadPoolSize;
     }
@@ -60,13 +165,150 @@ public class FlowProperties {
         this.threadPoolSize = threadPoolSize;
     }
 
+    public int getMaxPoolSize() {
+        return maxPoolSize;
+    }
+
+    public void setMaxPoolSize(int maxPoolSize) {
+        this.maxPoolSize = maxPoolSize;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public RejectionPolicy getRejectionPolicy() {
+        return rejectionPolicy;
+    }
+
+    public void setRejectionPolicy(RejectionPolicy rejectionPolicy) {
+        this.rejectionPolicy = rejectionPolicy;
+    }
+
+    public String getThreadNamePrefix() {
+        return threadNamePrefix;
+    }
+
+    public void setThreadNamePrefix(String threadNamePrefix) {
+        this.threadNamePrefix = threadNamePrefix;
+    }
+
+    public ExecutorMode getExecutorMode() {
+        return executorMode;
+    }
+
+    public void setExecutorMode(ExecutorMode executorMode) {
+        this.executorMode = executorMode;
+    }
+
+    public int getParallelMaxConcurrency() {
+        return parallelMaxConcurrency;
+    }
+
+    public void setParallelMaxConcurrency(int parallelMaxConcurrency) {
+        this.parallelMaxConcurrency = parallelMaxConcurrency;
+    }
+
+    public int getBatchParallelism() {
+        return batchParallelism;
+    }
+
+    public void setBatchParallelism(int batchParallelism) {
+        this.batchParallelism = batchParallelism;
+    }
+
+    public boolean isMetricsEnabled() {
+        return metricsEnabled;
+    }
+
+    public void setMetricsEnabled(boolean metricsEnabled) {
+        this.metricsEnabled = metricsEnabled;
+    }
+
+    public boolean isMetricsPercentileHistogram() {
+        return metricsPercentileHistogram;
+    }
+
+    public void setMetricsPercentileHistogram(boolean metricsPercentileHistogram) {
+        this.metricsPercentileHistogram = metricsPercentileHistogram;
+    }
+
+    public boolean isParserWarmUp() {
+        return parserWarmUp;
+    }
+
+    public void setParserWarmUp(boolean parserWarmUp) {
+        this.parserWarmUp = parserWarmUp;
+    }
+
+    public int getParserMaxDfaStates() {
+        return parserMaxDfaStates;
+    }
+
+    public void setParserMaxDfaStates(int parserMaxDfaStates) {
+        this.parserMaxDfaStates = parserMaxDfaStates;
+    }
+
+    public boolean isOptimizeAst() {
+        return optimizeAst;
+    }
+
+    public void setOptimizeAst(boolean optimizeAst) {
+        this.optimizeAst = optimizeAst;
+    }
+
+    public boolean isPrecompileOnStartup() {
+        return precompileOnStartup;
+    }
+
+    public void setPrecompileOnStartup(boolean precompileOnStartup) {
+        this.precompileOnStartup = precompileOnStartup;
+    }
+
+    public String getPlanStoreFile() {
+        return planStoreFile;
+    }
+
+    public void setPlanStoreFile(String planStoreFile) {
+        this.planStoreFile = planStoreFile;
+    }
+
+    public boolean isFailOnInvalidFlow() {
+        return failOnInvalidFlow;
+    }
+
+    public void setFailOnInvalidFlow(boolean failOnInvalidFlow) {
+        this.failOnInvalidFlow = failOnInvalidFlow;
+    }
+
     @Override
     public String toString() {
         return "FlowProperties{" +
                 "enabled=" + enabled +
                 ", slotSize=" + slotSize +
                 ", printExecutionLog=" + printExecutionLog +
+                ", executionLogSampleRate=" + executionLogSampleRate +
+                ", executionLogSlowThreshold=" + executionLogSlowThreshold +
                 ", threadPoolSize=" + threadPoolSize +
+                ", maxPoolSize=" + maxPoolSize +
+                ", queueCapacity=" + queueCapacity +
+                ", rejectionPolicy=" + rejectionPolicy +
+                ", threadNamePrefix='" + threadNamePrefix + '\'' +
+                ", executorMode=" + executorMode +
+                ", parallelMaxConcurrency=" + parallelMaxConcurrency +
+                ", batchParallelism=" + batchParallelism +
+                ", metricsEnabled=" + metricsEnabled +
+                ", metricsPercentileHistogram=" + metricsPercentileHistogram +
+                ", parserWarmUp=" + parserWarmUp +
+                ", parserMaxDfaStates=" + parserMaxDfaStates +
+                ", optimizeAst=" + optimizeAst +
+                ", precompileOnStartup=" + precompileOnStartup +
+                ", planStoreFile='" + planStoreFile + '\'' +
+                ", failOnInvalidFlow=" + failOnInvalidFlow +
                 '}';
     }
 }
@@ -0,0 +1,127 @@
+package com.eking.flow.config;
+
+import com.eking.flow.metrics.ComponentPhase;
+import com.eking.flow.metrics.FlowMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于 Micrometer 的流程执行指标。
+ * <ul>
+ *     <li>flow.execution - 流程耗时，标签 flow、outcome（success / failure）</li>
+ *     <li>flow.component - 组件各生命周期阶段的耗时，标签 component、phase</li>
+ *     <li>flow.component.errors - 组件执行失败次数，标签 component</li>
+ *     <li>flow.branch.wait - 并行分支从提交到开始执行的等待时间，标签 flow</li>
+ *     <li>flow.executor.queue.size / flow.executor.active - 线程池排队任务数和活跃线程数</li>
+ * </ul>
+ * 计时器按流程ID和组件ID缓存，不会重复注册；每次流程执行、每次组件执行（三个阶段一起记录）都只有一次哈希查找。
+ */
+public class MicrometerFlowMetrics implements FlowMetrics {
+
+    private static final ComponentPhase[] PHASES = ComponentPhase.values();
+
+    private final MeterRegistry registry;
+    private final boolean percentileHistogram;
+
+    /**
+     * 流程ID -> [成功, 失败] 计时器
+     */
+    private final Map<String, Timer[]> flowTimers = new ConcurrentHashMap<>();
+    /**
+     * 组件ID -> 按 ComponentPhase 顺序排列的计时器
+     */
+    private final Map<String, Timer[]> componentTimers = new ConcurrentHashMap<>();
+    private final Map<String, Counter> componentErrors = new ConcurrentHashMap<>();
+    private final Map<String, Timer> branchWaitTimers = new ConcurrentHashMap<>();
+
+    public MicrometerFlowMetrics(MeterRegistry registry) {
+        this(registry, false);
+    }
+
+    /**
+     * @param registry 指标注册表
+     * @param percentileHistogram 是否为计时器发布百分位直方图
+     */
+    public MicrometerFlowMetrics(MeterRegistry registry, boolean percentileHistogram) {
+        this.registry = registry;
+        this.percentileHistogram = percentileHistogram;
+    }
+
+    @Override
+    public void recordFlow(String flowId, long durationNanos, boolean success) {
+        Timer[] timers = flowTimers.computeIfAbsent(flowId, id -> new Timer[]{
+                timer("flow.execution", "Flow execution time", "flow", id, "outcome", "success"),
+                timer("flow.execution", "Flow execution time", "flow", id, "outcome", "failure")
+        });
+        timers[success ? 0 : 1].record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordComponent(String componentId, ComponentPhase phase, long durationNanos) {
+        componentTimers(componentId)[phase.ordinal()].record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordComponent(String componentId, long beforeNanos, long processNanos, long afterNanos) {
+        Timer[] timers = componentTimers(componentId);
+        timers[ComponentPhase.BEFORE_PROCESS.ordinal()].record(beforeNanos, TimeUnit.NANOSECONDS);
+        timers[ComponentPhase.PROCESS.ordinal()].record(processNanos, TimeUnit.NANOSECONDS);
+        timers[ComponentPhase.AFTER_PROCESS.ordinal()].record(afterNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private Timer[] componentTimers(String componentId) {
+        return componentTimers.computeIfAbsent(componentId, id -> {
+            Timer[] created = new Timer[PHASES.length];
+            for (ComponentPhase p : PHASES) {
+                created[p.ordinal()] = timer("flow.component", "Component lifecycle phase time",
+                        "component", id, "phase", p.getTag());
+            }
+            return created;
+        });
+    }
+
+    @Override
+    public void recordComponentError(String componentId, long durationNanos) {
+        componentErrors.computeIfAbsent(componentId, id -> Counter.builder("flow.component.errors")
+                .description("Component execution failures")
+                .tag("component", id)
+                .register(registry)).increment();
+    }
+
+    @Override
+    public void recordBranchWait(String flowId, long waitNanos) {
+        branchWaitTimers.computeIfAbsent(flowId, id -> timer("flow.branch.wait",
+                "Time a parallel branch waits in the executor before it starts", "flow", id))
+                .record(waitNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void bindExecutorService(ExecutorService executorService) {
+        // 虚拟线程等没有队列的线程池不注册
+        if (executorService instanceof ThreadPoolExecutor) {
+            ThreadPoolExecutor pool = (ThreadPoolExecutor) executorService;
+            Gauge.builder("flow.executor.queue.size", pool, p -> p.getQueue().size())
+                    .description("Tasks waiting in the flow executor queue")
+                    .register(registry);
+            Gauge.builder("flow.executor.active", pool, ThreadPoolExecutor::getActiveCount)
+                    .description("Threads actively running flow tasks")
+                    .register(registry);
+        }
+    }
+
+    private Timer timer(String name, String description, String... tags) {
+        return Timer.builder(name)
+                .description(description)
+                .tags(tags)
+                .publishPercentileHistogram(percentileHistogram)
+                .register(registry);
+    }
+}
@@ -0,0 +1,126 @@
+package com.eking.flow.config;
+
+import com.eking.flow.bus.FlowBus;
+import com.eking.flow.component.NodeComponent;
+import com.eking.flow.context.FlowContext;
+import com.eking.flow.execution.ParallelExecutor;
+import com.eking.flow.executor.FlowExecutor;
+import com.eking.flow.metrics.ComponentPhase;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * FlowExecutor reports flows, component phases, component errors and branch waits to
+ * MicrometerFlowMetrics with the right ids and outcomes, and executor gauges are only
+ * registered for a ThreadPoolExecutor.
+ */
+public class MicrometerFlowMetricsTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(MicrometerFlowMetricsTest.class);
+
+    private static final int RUNS = 5;
+
+    public static void main(String[] args) {
+        FlowBus flowBus = FlowBus.getInstance();
+        for (String id : new String[]{"mtA", "mtB", "mtC", "mtD"}) {
+            flowBus.registerComponent(id, new NoopComponent());
+        }
+        flowBus.registerComponent("mtBoom", new FailingComponent());
+        flowBus.registerFlow("mtOk", "mtA -> (mtB, mtC) -> mtD");
+        flowBus.registerFlow("mtFail", "mtA -> mtBoom -> mtD");
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        FlowExecutor flowExecutor = new FlowExecutor(4);
+        flowExecutor.setMetrics(new MicrometerFlowMetrics(registry));
+        try {
+            for (int i = 0; i < RUNS; i++) {
+                flowExecutor.execute("mtOk", new TestContext());
+                flowExecutor.execute("mtFail", new TestContext());
+            }
+            flowExecutor.execute("mtNowhere", new TestContext());
+        } finally {
+            flowExecutor.shutdown();
+        }
+
+        // 流程耗时按流程ID和结果分开记录
+        expectCount(flowTimer(registry, "mtOk", "success"), RUNS, "mtOk successes");
+        expectCount(flowTimer(registry, "mtOk", "failure"), 0, "mtOk failures");
+        expectCount(flowTimer(registry, "mtFail", "success"), 0, "mtFail successes");
+        expectCount(flowTimer(registry, "mtFail", "failure"), RUNS, "mtFail failures");
+        expectCount(flowTimer(registry, "mtNowhere", "failure"), 1, "unknown flow failures");
+
+        // 组件每个生命周期阶段各记录一次，失败的组件只记录错误次数
+        for (ComponentPhase phase : ComponentPhase.values()) {
+            expectCount(componentTimer(registry, "mtA", phase), 2 * RUNS, "mtA " + phase.getTag());
+            expectCount(componentTimer(registry, "mtB", phase), RUNS, "mtB " + phase.getTag());
+            expectCount(componentTimer(registry, "mtD", phase), RUNS, "mtD " + phase.getTag());
+        }
+        expect(registry.find("flow.component").tag("component", "mtBoom").timer() == null,
+                "a failed component recorded phase timings");
+        Counter errors = registry.find("flow.component.errors").tag("component", "mtBoom").counter();
+        expect(errors != null && errors.count() == RUNS, "mtBoom errors: " + (errors != null ? errors.count() : null));
+        expect(registry.find("flow.component.errors").tag("component", "mtA").counter() == null,
+                "errors recorded for a successful component");
+
+        // (mtB, mtC) 至少有一个分支提交到线程池执行
+        Timer branchWait = registry.find("flow.branch.wait").tag("flow", "mtOk").timer();
+        expect(branchWait != null && branchWait.count() >= RUNS, "mtOk branch waits: "
+                + (branchWait != null ? branchWait.count() : null));
+        expect(registry.find("flow.branch.wait").tag("flow", "mtFail").timer() == null,
+                "branch wait recorded for a flow without parallel groups");
+
+        // 线程池指标只为 ThreadPoolExecutor 注册
+        expect(registry.find("flow.executor.queue.size").gauge() != null
+                && registry.find("flow.executor.active").gauge() != null, "ThreadPoolExecutor gauges missing");
+        SimpleMeterRegistry forkJoinRegistry = new SimpleMeterRegistry();
+        FlowExecutor forkJoinExecutor = new FlowExecutor(new ParallelExecutor(new ForkJoinPool(2)));
+        forkJoinExecutor.setMetrics(new MicrometerFlowMetrics(forkJoinRegistry));
+        forkJoinExecutor.shutdown();
+        expect(forkJoinRegistry.find("flow.executor.queue.size").gauge() == null
+                && forkJoinRegistry.find("flow.executor.active").gauge() == null,
+                "gauges registered for a ForkJoinPool");
+
+        logger.info("✓ Flow, component, error and branch wait metrics carry the right ids and outcomes");
+        System.exit(0);
+    }
+
+    private static Timer flowTimer(SimpleMeterRegistry registry, String flowId, String outcome) {
+        return registry.find("flow.execution").tag("flow", flowId).tag("outcome", outcome).timer();
+    }
+
+    private static Timer componentTimer(SimpleMeterRegistry registry, String componentId, ComponentPhase phase) {
+        return registry.find("flow.component").tag("component", componentId).tag("phase", phase.getTag()).timer();
+    }
+
+    private static void expectCount(Timer timer, long expected, String what) {
+        long count = timer != null ? timer.count() : 0;
+        expect(count == expected, what + ": recorded " + count + ", expected " + expected);
+    }
+
+    private static void expect(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalStateException(message);
+        }
+    }
+
+    static class TestContext extends FlowContext {
+    }
+
+    static class NoopComponent extends NodeComponent {
+        @Override
+        public void process() {
+        }
+    }
+
+    static class FailingComponent extends NodeComponent {
+        @Override
+        public void process() {
+            throw new IllegalStateException("Component " + getId() + " failed");
+        }
+    }
+}